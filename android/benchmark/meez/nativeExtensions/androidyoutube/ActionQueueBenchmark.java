@@ -0,0 +1,84 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/** PlayerActionQueue add and drain (execute/executeOutstandingActions) with a backlog of pending actions */
+public class ActionQueueBenchmark extends Benchmark
+{
+    // Definitions
+
+    /** Action sequence added, as sent while the player is busy */
+    private static final YouTubePlayerAdapter.ActionType[] TYPES=
+    {
+        YouTubePlayerAdapter.ActionType.LOAD,
+        YouTubePlayerAdapter.ActionType.SEEK,
+        YouTubePlayerAdapter.ActionType.PLAY,
+        YouTubePlayerAdapter.ActionType.SEEK,
+        YouTubePlayerAdapter.ActionType.PAUSE,
+        YouTubePlayerAdapter.ActionType.OTHER,
+        YouTubePlayerAdapter.ActionType.CUE,
+        YouTubePlayerAdapter.ActionType.PLAY
+    };
+
+    // Instance vars
+
+    /** Queue */
+    private final PlayerActionQueue queue;
+
+    /** Actions, as TYPES */
+    private final YouTubePlayerAdapter.PlayerAction[] actions;
+
+    /** Actions added before the queue is drained */
+    private final int backlog;
+
+    // Public Methods
+
+    /** Create a new ActionQueueBenchmark */
+    public ActionQueueBenchmark(int backlog)
+    {
+        super("action queue (backlog "+backlog+")");
+        this.backlog=backlog;
+        this.queue=new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        this.actions=new YouTubePlayerAdapter.PlayerAction[TYPES.length];
+        for (int i=0; i<TYPES.length; i++)
+        {
+            final YouTubePlayerAdapter.ActionType type = TYPES[i];
+            this.actions[i]=new YouTubePlayerAdapter.PlayerAction()
+            {
+                @Override
+                public YouTubePlayerAdapter.ActionType getType()
+                {
+                    return type;
+                }
+
+                @Override
+                public void run(YouTubePlayer player)
+                {
+                }
+            };
+        }
+    }
+
+    // Implementation
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        int added = 0;
+        for (int i=0; i<operations; i++)
+        {
+            this.queue.add(this.actions[i%TYPES.length], i);
+            if (++added==this.backlog)
+            {
+                while (this.queue.poll()!=null)
+                {
+                    result++;
+                }
+                added=0;
+            }
+        }
+        this.queue.clear();
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/**
+ * YouTubePlayerAdapter.execute, for a ready player (backlog 1), or with a backlog of actions queued while a new
+ * player initializes and run by executeOutstandingActions once it is ready, on the stub FREContext and
+ * YouTubePlayer (@see PlayerHarness). A backlog cycle includes reinitialize() and the new stub player
+ */
+public class AdapterExecuteBenchmark extends Benchmark
+{
+    // Instance vars
+
+    /** Actions executed per cycle */
+    private final int backlog;
+
+    /** Harness (while measuring) */
+    private PlayerHarness harness;
+
+    /** Adapter */
+    private YouTubePlayerAdapter adapter;
+
+    /** Action sequence, as sent while the player is busy (load, seek, play, seek, pause, cue, play) */
+    private YouTubePlayerAdapter.PlayerAction[] actions;
+
+    // Public Methods
+
+    /** Create a new AdapterExecuteBenchmark */
+    public AdapterExecuteBenchmark(int backlog)
+    {
+        super("adapter execute (backlog "+backlog+")");
+        this.backlog=backlog;
+    }
+
+    // Implementation
+
+    @Override
+    protected void setUp()
+    {
+        this.harness=new PlayerHarness(false);
+        this.harness.call("initVideo", PlayerHarness.DEV_KEY, YouTubePlayerPool.DEFAULT_PLAYER_ID, false);
+        this.harness.runUntilIdle();
+        this.harness.deliverPlayer(new FakeYouTubePlayer(false), false);
+        this.adapter=YouTubePlayerPool.peek(YouTubePlayerPool.DEFAULT_PLAYER_ID);
+
+        AndroidYoutubeContext context = this.harness.getContext();
+        YouTubePlayerAdapter.PlayerAction seek = new YouTubePlayerAdapter.PlayerAction()
+        {
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.SEEK;
+            }
+
+            @Override
+            public void run(YouTubePlayer player)
+            {
+                player.seekToMillis(15000);
+            }
+        };
+        this.actions=new YouTubePlayerAdapter.PlayerAction[]
+        {
+            context.createPlayByIdAction(this.adapter, "dQw4w9WgXcQ", 0),
+            seek,
+            context.createPlayVideoAction(),
+            seek,
+            context.createPauseAction(),
+            context.createCueVideoAction(this.adapter, "dQw4w9WgXcQ", 0),
+            context.createPlayVideoAction()
+        };
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        this.harness.dispose();
+        this.harness=null;
+        this.adapter=null;
+    }
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        int added = 0;
+        for (int i=0; i<operations; i++)
+        {
+            if (added==0 && this.backlog>1)
+            {
+                // queued until the new player is ready
+                this.adapter.reinitialize();
+            }
+            this.adapter.execute(this.actions[i%this.actions.length]);
+            if (++added==this.backlog)
+            {
+                if (this.backlog>1)
+                {
+                    this.harness.deliverPlayer(new FakeYouTubePlayer(false), true);
+                }
+                result+=this.adapter.getMergedActionCount();
+                added=0;
+            }
+        }
+        if (added>0 && this.backlog>1)
+        {
+            this.harness.deliverPlayer(new FakeYouTubePlayer(false), true);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,183 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Plain JVM micro-benchmark base and runner, so extension hot paths can be measured without a device
+ *
+ * Each benchmark is warmed up, then timed over several rounds; the median and best time per operation are
+ * reported. run() returns a value depending on its results, which the runner keeps, so the work is not
+ * optimized away. Numbers are for comparing revisions on the same machine, not absolute device costs.
+ *
+ * Bytes allocated per operation are reported where the JVM measures per thread allocation. A benchmark with
+ * an allocation budget fails the run (exit status 1) if it allocates more.
+ */
+public abstract class Benchmark
+{
+    // Definitions
+
+    /** Operations per round */
+    private static final int OPERATIONS=200000;
+
+    /** Warm up rounds */
+    private static final int WARMUP_ROUNDS=10;
+
+    /** Timed rounds */
+    private static final int ROUNDS=15;
+
+    // Class vars
+
+    /** Results of all runs, kept so they are not optimized away */
+    private static long sink;
+
+    /** Thread allocation counter (null if not supported) */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER=createAllocationCounter();
+
+    // Instance vars
+
+    /** Name */
+    private final String name;
+
+    // Public Methods
+
+    /** Run all benchmarks */
+    public static void main(String[] args)
+    {
+        Benchmark[] benchmarks=
+        {
+            new CommandDecodeBenchmark(CommandProtocol.OP_PLAY),
+            new CommandDecodeBenchmark(CommandProtocol.OP_PAUSE),
+            new CommandDecodeBenchmark(CommandProtocol.OP_STOP),
+            new CommandDecodeBenchmark(CommandProtocol.OP_SEEK),
+            new CommandDecodeBenchmark(CommandProtocol.OP_PLAY_BY_ID),
+            new CommandDecodeBenchmark(CommandProtocol.OP_DISPOSE),
+            new CommandRingBenchmark(),
+            new ActionQueueBenchmark(1),
+            new ActionQueueBenchmark(PlayerActionQueue.DEFAULT_CAPACITY),
+            new MessageBenchmark(CommandProtocol.OP_PLAY),
+            new MessageBenchmark(CommandProtocol.OP_PAUSE),
+            new MessageBenchmark(CommandProtocol.OP_STOP),
+            new MessageBenchmark(CommandProtocol.OP_SEEK),
+            new MessageBenchmark(CommandProtocol.OP_PLAY_BY_ID),
+            new MessageBenchmark(CommandProtocol.OP_DISPOSE),
+            new AdapterExecuteBenchmark(1),
+            new AdapterExecuteBenchmark(8),
+            new EventEncoderBenchmark(EventEncoderBenchmark.STATE),
+            new EventEncoderBenchmark(EventEncoderBenchmark.TIME),
+            new EventEncoderBenchmark(EventEncoderBenchmark.TIME_ANCHOR),
+            new EventEncoderBenchmark(EventEncoderBenchmark.ERROR),
+            new ErrorClassifierBenchmark()
+        };
+
+        boolean withinBudget = true;
+        for (Benchmark benchmark : benchmarks)
+        {
+            withinBudget&=benchmark.measure();
+        }
+        System.out.println("(sink "+sink+")");
+
+        if (!withinBudget)
+        {
+            System.exit(1);
+        }
+    }
+
+    /** Create a new Benchmark */
+    protected Benchmark(String name)
+    {
+        this.name=name;
+    }
+
+    // Implementation
+
+    /**
+     * Run operations
+     * @return Value depending on the results
+     */
+    protected abstract long run(int operations);
+
+    /** Set up before warm up (benchmarks are created together, so shared state such as the main looper is set up here) */
+    protected void setUp()
+    {
+    }
+
+    /** Tear down after measuring */
+    protected void tearDown()
+    {
+    }
+
+    /** Allocation budget in bytes per operation (-1 if not checked) */
+    protected long getAllocationBudget()
+    {
+        return -1;
+    }
+
+    /** Bytes allocated by the current thread so far (-1 if not supported) */
+    protected static long getAllocatedBytes()
+    {
+        return (ALLOCATION_COUNTER!=null) ? ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /** Bytes allocated per operation by run() (-1 if not supported). Call after warm up */
+    protected long measureAllocation()
+    {
+        long start = getAllocatedBytes();
+        sink+=run(OPERATIONS);
+        long end = getAllocatedBytes();
+        return (start>=0 && end>=0) ? (end-start)/OPERATIONS : -1;
+    }
+
+    /** Warm up, time, measure allocation and report. Returns false if over allocation budget */
+    private boolean measure()
+    {
+        setUp();
+        for (int i=0; i<WARMUP_ROUNDS; i++)
+        {
+            sink+=run(OPERATIONS);
+        }
+
+        double[] nanosPerOp = new double[ROUNDS];
+        for (int i=0; i<ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            sink+=run(OPERATIONS);
+            nanosPerOp[i]=(double)(System.nanoTime()-start)/OPERATIONS;
+        }
+        Arrays.sort(nanosPerOp);
+
+        long bytesPerOp = measureAllocation();
+        tearDown();
+        long budget = (bytesPerOp>=0) ? getAllocationBudget() : -1;
+        boolean withinBudget = (budget<0 || bytesPerOp<=budget);
+
+        System.out.println(String.format("%-32s %10.1f ns/op (best %.1f) %6s B/op%s", this.name, nanosPerOp[ROUNDS/2], nanosPerOp[0],
+                                         (bytesPerOp>=0) ? String.valueOf(bytesPerOp) : "n/a",
+                                         (budget<0) ? "" : (withinBudget ? " (budget "+budget+")" : " OVER BUDGET ("+budget+")")));
+        return withinBudget;
+    }
+
+    /** Create allocation counter, if the JVM supports it */
+    private static com.sun.management.ThreadMXBean createAllocationCounter()
+    {
+        try
+        {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean)threads;
+                if (counter.isThreadAllocatedMemorySupported())
+                {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        }
+        catch (Throwable t)
+        {
+            // not a HotSpot compatible JVM
+        }
+        return null;
+    }
+}
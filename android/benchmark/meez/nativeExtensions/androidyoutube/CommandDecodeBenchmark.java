@@ -0,0 +1,55 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.nio.ByteBuffer;
+
+/** Binary command decode (onCommand), for one opcode */
+public class CommandDecodeBenchmark extends Benchmark
+{
+    // Definitions
+
+    /** Names, by opcode */
+    private static final String[] NAMES={"none", "play", "pause", "stop", "seek", "playById", "dispose"};
+
+    // Instance vars
+
+    /** Protocol */
+    private final CommandProtocol protocol;
+
+    /** Decoded command (reused) */
+    private final CommandProtocol.Command command;
+
+    /** Encoded command */
+    private final ByteBuffer buffer;
+
+    // Public Methods
+
+    /** Create a new CommandDecodeBenchmark */
+    public CommandDecodeBenchmark(int opcode)
+    {
+        super("decode "+NAMES[opcode]);
+        this.protocol=new CommandProtocol();
+        this.command=new CommandProtocol.Command();
+        this.buffer=ByteBuffer.allocate(CommandProtocol.HEADER_SIZE+CommandProtocol.MAX_VIDEO_ID_LENGTH);
+        this.buffer.put((byte)opcode).putInt(15000);
+        if (opcode==CommandProtocol.OP_PLAY_BY_ID)
+        {
+            this.buffer.put((byte)11).put("dQw4w9WgXcQ".getBytes());
+        }
+        this.buffer.flip();
+    }
+
+    // Implementation
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        for (int i=0; i<operations; i++)
+        {
+            this.buffer.rewind();
+            this.protocol.decode(this.buffer, this.command);
+            result+=this.command.timeMillis;
+        }
+        return result;
+    }
+}
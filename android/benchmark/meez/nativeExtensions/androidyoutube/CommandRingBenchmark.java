@@ -0,0 +1,54 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.concurrent.Executor;
+
+/** Command claim, publish and drain through the ring (onCommand to dispatch), drained on the calling thread */
+public class CommandRingBenchmark extends Benchmark
+{
+    // Instance vars
+
+    /** Command ring */
+    private final CommandRingBuffer ring;
+
+    /** Sum of handled command times */
+    private long handledSum;
+
+    // Public Methods
+
+    /** Create a new CommandRingBenchmark */
+    public CommandRingBenchmark()
+    {
+        super("ring claim/publish/drain");
+        this.ring=new CommandRingBuffer(CommandRingBuffer.DEFAULT_CAPACITY, new Executor()
+        {
+            @Override
+            public void execute(Runnable runnable)
+            {
+                runnable.run();
+            }
+        }, new CommandProtocol.CommandHandler()
+        {
+            @Override
+            public void handle(CommandProtocol.Command command)
+            {
+                handledSum+=command.timeMillis;
+            }
+        });
+    }
+
+    // Implementation
+
+    @Override
+    protected long run(int operations)
+    {
+        for (int i=0; i<operations; i++)
+        {
+            long seq = this.ring.claim();
+            CommandProtocol.Command command = this.ring.get(seq);
+            command.opcode=CommandProtocol.OP_SEEK;
+            command.timeMillis=i;
+            this.ring.publish(seq);
+        }
+        return this.handledSum;
+    }
+}
@@ -0,0 +1,33 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/** Error mapping (onError) */
+public class ErrorClassifierBenchmark extends Benchmark
+{
+    // Definitions
+
+    /** Reasons, classified in turn */
+    private static final YouTubePlayer.ErrorReason[] REASONS=YouTubePlayer.ErrorReason.values();
+
+    // Public Methods
+
+    /** Create a new ErrorClassifierBenchmark */
+    public ErrorClassifierBenchmark()
+    {
+        super("classify");
+    }
+
+    // Implementation
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        for (int i=0; i<operations; i++)
+        {
+            result+=ErrorClassifier.classify(REASONS[i%REASONS.length]).code;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * Outbound event encoding (sendState, sendTimeData, sendError)
+ *
+ * The time path (time and time anchor events, sent every tick while playing) must allocate nothing but the
+ * message String it dispatches: its budget is what copying a message of the same length into a new String
+ * allocates. State messages are precomputed and must not allocate.
+ */
+public class EventEncoderBenchmark extends Benchmark
+{
+    // Definitions
+
+    /** Encode state */
+    public static final int STATE=0;
+
+    /** Encode time */
+    public static final int TIME=1;
+
+    /** Encode time anchor */
+    public static final int TIME_ANCHOR=2;
+
+    /** Encode error */
+    public static final int ERROR=3;
+
+    /** Names, by event */
+    private static final String[] NAMES={"encodeState", "encodeTime", "encodeTimeAnchor", "encodeError"};
+
+    // Instance vars
+
+    /** Encoder */
+    private final EventEncoder encoder;
+
+    /** Event encoded */
+    private final int event;
+
+    /** Last message, kept so messages escape like dispatched ones */
+    private String message;
+
+    /** Longest message copied instead of encoding, when measuring the budget (null when encoding) */
+    private char[] copiedMessage;
+
+    // Public Methods
+
+    /** Create a new EventEncoderBenchmark */
+    public EventEncoderBenchmark(int event)
+    {
+        super(NAMES[event]);
+        this.encoder=new EventEncoder();
+        this.event=event;
+    }
+
+    // Implementation
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        for (int i=0; i<operations; i++)
+        {
+            if (this.copiedMessage!=null)
+            {
+                this.message=new String(this.copiedMessage);
+            }
+            else
+            {
+                this.message=encode(i);
+            }
+            result+=this.message.length();
+        }
+        return result;
+    }
+
+    @Override
+    protected long getAllocationBudget()
+    {
+        switch (this.event)
+        {
+            case STATE:
+                return 0;
+
+            case TIME:
+            case TIME_ANCHOR:
+                // longest message encoded by run()
+                this.copiedMessage=encode(3599).toCharArray();
+                try
+                {
+                    run(100000);
+                    return measureAllocation();
+                }
+                finally
+                {
+                    this.copiedMessage=null;
+                }
+
+            default:
+                return -1;
+        }
+    }
+
+    /** Encode event for operation i */
+    private String encode(int i)
+    {
+        switch (this.event)
+        {
+            case STATE:
+                return this.encoder.encodeState((i&1)==0 ? YouTubePlayerAdapter.PLAYER_STATE_PLAYING : YouTubePlayerAdapter.PLAYER_STATE_BUFFERING);
+            case TIME:
+                return this.encoder.encodeTime(i%3600, 3600);
+            case TIME_ANCHOR:
+                return this.encoder.encodeTimeAnchor((i%3600)*1000, 3600000, 1);
+            default:
+                return this.encoder.encodeError(2, "Video not playable");
+        }
+    }
+}
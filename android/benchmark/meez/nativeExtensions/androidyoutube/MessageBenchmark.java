@@ -0,0 +1,120 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * JSON message from Actionscript (AndroidYoutubeContext.onMessage), for one action, through the decode worker
+ * and the command ring to a ready player, on the stub FREContext and YouTubePlayer (@see PlayerHarness)
+ *
+ * Messages are sent in batches from the main thread, each ended by a binary play by id marker; the batch is
+ * handled once the stub player loads the marker. JSON is decoded by the stub org.json, and allocation is counted
+ * on the main thread only, so compare revisions rather than reading device costs.
+ */
+public class MessageBenchmark extends Benchmark
+{
+    // Definitions
+
+    /** Names, by opcode */
+    private static final String[] NAMES={"none", "play", "pause", "stop", "seek", "playById", "dispose"};
+
+    /** Messages, by opcode */
+    private static final String[] MESSAGES=
+    {
+        null,
+        "{\"action\":\"play\"}",
+        "{\"action\":\"pause\"}",
+        "{\"action\":\"stop\"}",
+        "{\"action\":\"seek\",\"time\":15}",
+        "{\"action\":\"playById\",\"videoId\":\"dQw4w9WgXcQ\",\"startTime\":15}",
+        "{\"action\":\"dispose\"}"
+    };
+
+    /** Messages sent before waiting for them (well within the ring capacity) */
+    private static final int BATCH=64;
+
+    /** Batch end markers, alternated so each batch loads a new video */
+    private static final String[] MARKERS={"marker00", "marker01"};
+
+    // Instance vars
+
+    /** Message sent */
+    private final String message;
+
+    /** Harness (while measuring) */
+    private PlayerHarness harness;
+
+    /** Ready player */
+    private FakeYouTubePlayer player;
+
+    /** Batches sent */
+    private int batches;
+
+    // Public Methods
+
+    /** Create a new MessageBenchmark */
+    public MessageBenchmark(int opcode)
+    {
+        super("onMessage "+NAMES[opcode]);
+        this.message=MESSAGES[opcode];
+    }
+
+    // Implementation
+
+    @Override
+    protected void setUp()
+    {
+        this.harness=new PlayerHarness(false);
+        this.harness.call("initVideo", PlayerHarness.DEV_KEY, YouTubePlayerPool.DEFAULT_PLAYER_ID, false);
+        this.harness.runUntilIdle();
+        this.player=this.harness.deliverPlayer(new FakeYouTubePlayer(false), false);
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        this.harness.dispose();
+        this.harness=null;
+        this.player=null;
+    }
+
+    @Override
+    protected long run(int operations)
+    {
+        long result = 0;
+        try
+        {
+            for (int i=0; i<operations; i++)
+            {
+                this.harness.getContext().onMessage(this.message, YouTubePlayerPool.DEFAULT_PLAYER_ID);
+                if ((i+1)%BATCH==0 || i==operations-1)
+                {
+                    result+=awaitBatch();
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Message not accepted", e);
+        }
+        return result;
+    }
+
+    /** Send the batch end marker, and run the main thread until it is handled. Returns messages dispatched */
+    private int awaitBatch()
+    {
+        String marker = MARKERS[this.batches++ & 1];
+        if (!this.harness.sendCommand(CommandProtocol.OP_PLAY_BY_ID, 0, marker, YouTubePlayerPool.DEFAULT_PLAYER_ID))
+            throw new IllegalStateException("Marker not accepted");
+
+        int dispatched = 0;
+        while (!marker.equals(this.player.getVideoId()))
+        {
+            int count = this.harness.runUntilIdle();
+            if (count==0)
+            {
+                // worker still decoding
+                Thread.yield();
+            }
+            dispatched+=count;
+        }
+        return dispatched;
+    }
+}
@@ -1,13 +1,19 @@
 package meez.nativeExtensions.androidyoutube;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import android.annotation.TargetApi;
-import android.content.pm.ApplicationInfo;
-import android.content.pm.PackageManager;
 import android.os.Build;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.adobe.fre.FREByteArray;
 import com.adobe.fre.FREContext;
 import com.adobe.fre.FREFunction;
 import com.adobe.fre.FREObject;
@@ -19,167 +25,437 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
 {
     // Definitions
 
-    /** Reason Video player is unsupported */
-    private String unsupportedReason;
+    /** Maximum wait for a read on the main thread (@see readOnMain) */
+    private static final long READ_TIMEOUT_MILLIS=1000;
 
-    /** Adapter */
-    private YouTubePlayerAdapter adapter;
+    /** Cached YouTube support probe */
+    private final CapabilityProbe capabilityProbe;
+
+    /** Persistent resume positions */
+    private final ResumeStore resumeStore;
+
+    /** Metadata of recently loaded videos, shared by all players */
+    private final VideoMetadataCache metadataCache;
+
+    /** Releases players under memory pressure */
+    private final MemoryTrimmer memoryTrimmer;
+
+    /** Events for the default player */
+    private final PlayerEvents defaultPlayerEvents;
+
+    /** Binary command protocol (decoder state is per calling thread) */
+    private final ThreadLocal<CommandProtocol> commandProtocol;
+
+    /** Main thread handler */
+    private final Handler mainHandler;
+
+    /** Command ingress, drained on the main thread */
+    private final CommandRingBuffer commandRing;
+
+    /** JSON message decoder */
+    private final JsonCommandDecoder jsonDecoder;
+
+    /** Command handlers, indexed by opcode */
+    private final CommandProtocol.CommandHandler[] commandTable;
+
+    /** Outbound message encoder */
+    private final EventEncoder eventEncoder;
+
+    /** Event batcher (null when batching is disabled) */
+    private volatile EventBatcher eventBatcher;
+
+    /** Play action (stateless, reused) */
+    private final YouTubePlayerAdapter.PlayerAction playAction;
+
+    /** Pause action (stateless, reused) */
+    private final YouTubePlayerAdapter.PlayerAction pauseAction;
 
     /** Create a new AndroidYoutubeContext */
     public AndroidYoutubeContext()
     {
-        Log.d(Extension.TAG, "AndroidYouTubeContext()");
+        ExtensionLog.d("AndroidYouTubeContext()");
 
-        this.unsupportedReason="";
+        this.capabilityProbe=new CapabilityProbe();
+        this.memoryTrimmer=new MemoryTrimmer();
+        this.resumeStore=new ResumeStore();
+        this.metadataCache=new VideoMetadataCache(VideoMetadataCache.DEFAULT_CAPACITY);
+        this.commandProtocol=new ThreadLocal<CommandProtocol>()
+        {
+            @Override
+            protected CommandProtocol initialValue()
+            {
+                return new CommandProtocol();
+            }
+        };
+        this.eventEncoder=new EventEncoder();
+        this.defaultPlayerEvents=new PlayerEvents(YouTubePlayerPool.DEFAULT_PLAYER_ID);
+        this.commandTable=createCommandTable();
+        this.mainHandler=new Handler(Looper.getMainLooper());
+        Executor mainExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable runnable)
+            {
+                AndroidYoutubeContext.this.mainHandler.post(runnable);
+            }
+        };
+        this.commandRing=new CommandRingBuffer(CommandRingBuffer.DEFAULT_CAPACITY, mainExecutor, new CommandProtocol.CommandHandler()
+        {
+            @Override
+            public void handle(CommandProtocol.Command command)
+            {
+                dispatchCommand(command);
+            }
+        });
+        this.jsonDecoder=new JsonCommandDecoder(this.commandRing);
+        this.playAction=createPlayVideoAction();
+        this.pauseAction=createPauseAction();
     }
 
     /** Dispose */
     @Override
     public void dispose()
     {
-        Log.d(Extension.TAG, "AndroidYouTubeContext.dispose()");
+        ExtensionLog.d("AndroidYouTubeContext.dispose()");
+
+        setEventBatching(false, 0);
+
+        this.capabilityProbe.stop();
+        this.jsonDecoder.shutdown();
 
-        YouTubePlayerAdapter.releaseInstance();
+        // players, the ring consumer and trim callbacks are main thread only
+        runOnMain(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AndroidYoutubeContext.this.memoryTrimmer.unregister();
+                AndroidYoutubeContext.this.commandRing.clear();
+
+                YouTubePlayerPool.releaseAll();
+
+                AndroidYoutubeContext.this.resumeStore.close();
+            }
+        });
     }
 
     /** Registers AS function name to Java Function Class */
     @Override
     public Map<String, FREFunction> getFunctions()
     {
-        Log.d(Extension.TAG, "AndroidYouTubeContext.getFunctions");
+        ExtensionLog.d("AndroidYouTubeContext.getFunctions");
+
+        // probe support in the background, so isSupported() does not block on PackageManager
+        this.capabilityProbe.start(getActivity());
+        this.memoryTrimmer.register(getActivity());
+        this.resumeStore.open(getActivity());
 
         Map<String, FREFunction> functionMap = new HashMap<String, FREFunction>();
 
         functionMap.put("loadURL",              new LoadURLFunction());
         functionMap.put("sendJSON",             new SendJSONFunction());
+        functionMap.put("sendCommand",          new SendCommandFunction());
         functionMap.put("setFrame",             new SetFrameFunction());
+        functionMap.put("setTimeReporting",     new SetTimeReportingFunction());
+        functionMap.put("setEventBatching",     new SetEventBatchingFunction());
+        functionMap.put("setSeekWindow",        new SetSeekWindowFunction());
+        functionMap.put("setRecoveryPolicy",    new SetRecoveryPolicyFunction());
         functionMap.put("initVideo",            new InitVideoFunction());
+        functionMap.put("prewarm",              new PrewarmFunction());
+        functionMap.put("preloadVideo",         new PreloadVideoFunction());
+        functionMap.put("loadPlaylist",         new LoadPlaylistFunction());
+        functionMap.put("releasePlayer",        new ReleasePlayerFunction());
+        functionMap.put("setPlayerPoolSize",    new SetPlayerPoolSizeFunction());
         functionMap.put("isSupported",          new IsSupportedFunction());
         functionMap.put("getUnsupportedReason", new GetUnsupportedReasonFunction());
+        functionMap.put("getMetrics",           new GetMetricsFunction());
+        functionMap.put("getSession",           new GetSessionFunction());
+        functionMap.put("readState",            new ReadStateFunction());
+        functionMap.put("setLogLevel",          new SetLogLevelFunction());
+        functionMap.put("getLog",               new GetLogFunction());
 
         return functionMap;
     }
 
     // Create PlayerActions
 
-    /** Play video by ID (YouTube video id) */
-    public YouTubePlayerAdapter.PlayerAction createPlayByIdAction(final String videoId, final double startTime)
+    /** Play video by ID (YouTube video id), starting at time in milliseconds */
+    public YouTubePlayerAdapter.PlayerAction createPlayByIdAction(final YouTubePlayerAdapter adapter, final String videoId, final int startTimeMillis)
     {
         return new YouTubePlayerAdapter.PlayerAction() {
 
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.LOAD;
+            }
+
             @Override
             public void run(YouTubePlayer player) throws Exception
             {
-                Log.d(Extension.TAG, "AndroidYouTubeContext.playVideoById("+videoId+")");
+                ExtensionLog.d("AndroidYouTubeContext.playVideoById({})", videoId);
 
-                player.loadVideo(videoId,(int)(1000 * startTime));
+                adapter.playVideo(player, videoId, startTimeMillis);
             }
         };
     }
 
-    /** Play Video */
-    public YouTubePlayerAdapter.PlayerAction createPlayVideoAction()
+    /** Cue (preload) video by ID, so a later play of the same video starts from a buffered state */
+    public YouTubePlayerAdapter.PlayerAction createCueVideoAction(final YouTubePlayerAdapter adapter, final String videoId, final int startTimeMillis)
     {
-        return new YouTubePlayerAdapter.PlayerAction()
-        {
+        return new YouTubePlayerAdapter.PlayerAction() {
+
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.CUE;
+            }
+
             @Override
             public void run(YouTubePlayer player) throws Exception
             {
-                player.play();
+                ExtensionLog.d("AndroidYouTubeContext.cueVideo({})", videoId);
+
+                adapter.cueVideo(player, videoId, startTimeMillis);
             }
         };
     }
 
-    /** Pause Video */
-    public YouTubePlayerAdapter.PlayerAction createPauseAction()
+    /** Play playlist of videos (YouTube video ids), starting at index and time in milliseconds */
+    public YouTubePlayerAdapter.PlayerAction createPlayPlaylistAction(final YouTubePlayerAdapter adapter, final List<String> videoIds, final int startIndex, final int startTimeMillis)
     {
         return new YouTubePlayerAdapter.PlayerAction() {
 
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.LOAD;
+            }
+
             @Override
             public void run(YouTubePlayer player) throws Exception
             {
-                player.pause();
+                ExtensionLog.d("AndroidYouTubeContext.playPlaylist({} videos)", videoIds.size());
+
+                adapter.playPlaylist(player, videoIds, startIndex, startTimeMillis);
             }
         };
     }
 
-    /** Seek in Video */
-    public YouTubePlayerAdapter.PlayerAction createSeekAction(final double time) throws Exception
+    /** Play Video */
+    public YouTubePlayerAdapter.PlayerAction createPlayVideoAction()
     {
         return new YouTubePlayerAdapter.PlayerAction()
         {
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.PLAY;
+            }
+
             @Override
             public void run(YouTubePlayer player) throws Exception
             {
-                int dur = player.getDurationMillis();
-                int timeInMilliseconds = (int)(1000 * time);
+                player.play();
+            }
+        };
+    }
 
-                // prevent seeking past video end
-                if (dur>0 && timeInMilliseconds>=dur)
-                {
-                    // go back 1 second from video end
-                    timeInMilliseconds = Math.max(0, dur-1000);
-                }
-                player.seekToMillis(timeInMilliseconds);
+    /** Pause Video */
+    public YouTubePlayerAdapter.PlayerAction createPauseAction()
+    {
+        return new YouTubePlayerAdapter.PlayerAction() {
+
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.PAUSE;
+            }
+
+            @Override
+            public void run(YouTubePlayer player) throws Exception
+            {
+                player.pause();
             }
         };
     }
 
-    /** Get the reason YouTube video is unsupported */
+    /** Is YouTube video supported (cached) */
+    public boolean isSupported()
+    {
+        return this.capabilityProbe.isSupported();
+    }
+
+    /** Get the reason YouTube video is unsupported (cached) */
     public String getUnsupportedReason()
     {
-        return this.unsupportedReason;
+        return this.capabilityProbe.getUnsupportedReason();
     }
 
     // Messaging
 
-    /** On message (received from Actionscript) */
-    public void onMessage(String json) throws Exception
+    /** On message (received from Actionscript) for player. Decoded on a worker (@see JsonCommandDecoder) */
+    public void onMessage(String json, int playerId) throws Exception
     {
-        JSONObject msgObj = new JSONObject(json);
-        String action = msgObj.getString("action");
-
-        Log.d(Extension.TAG, "onMessageReceived("+action+")");
+        long seq = claimCommand();
+        this.jsonDecoder.decodeAsync(seq, json, playerId);
+    }
 
-        if (action.equals("play"))
+    /** On binary command (received from Actionscript) for player */
+    public void onCommand(FREByteArray bytes, int playerId) throws Exception
+    {
+        long seq = claimCommand();
+        CommandProtocol.Command command = this.commandRing.get(seq);
+        bytes.acquire();
+        try
         {
-            this.adapter.execute(createPlayVideoAction());
-
-        }else if(action.equals("playById"))
+            this.commandProtocol.get().decode(bytes.getBytes(), command);
+            command.playerId=playerId;
+        }
+        catch (Exception e)
         {
-            String videoId=msgObj.getString("videoId");
-            double startTime = msgObj.getDouble("startTime");
-
-            this.adapter.execute(createPlayByIdAction(videoId,startTime));
+            // claimed slot must be published, discard it
+            command.reset();
+            throw e;
         }
-
-        else if(action.equals("stop"))
+        finally
         {
-            this.adapter.execute(createPauseAction());
+            bytes.release();
+            this.commandRing.publish(seq);
         }
+    }
+
+    /**
+     * Run task on the main thread, in order with the commands sent before it. Functions that change
+     * players go through here, so they never overtake pending commands (or run before a release)
+     */
+    private void postTask(CommandProtocol.CommandHandler task)
+    {
+        long seq = claimCommand();
+        CommandProtocol.Command command = this.commandRing.get(seq);
+        command.opcode=CommandProtocol.OP_TASK;
+        command.task=task;
+        this.commandRing.publish(seq);
+    }
 
-        else if(action.equals("pause"))
+    /**
+     * Read player state on the main thread, in order with the commands sent before it, waiting for the result.
+     * Called on the main thread, pending commands are handled first and the read runs inline
+     */
+    private <T> T readOnMain(Callable<T> read) throws Exception
+    {
+        if (Looper.myLooper()==Looper.getMainLooper())
         {
-            this.adapter.execute(createPauseAction());
+            this.commandRing.drainPending();
+            return read.call();
         }
 
-        else if(action.equals("seek"))
+        final FutureTask<T> task = new FutureTask<T>(read);
+        postTask(new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                task.run();
+            }
+        });
+        return task.get(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Run on the main thread, now if called on it */
+    private void runOnMain(Runnable runnable)
+    {
+        if (Looper.myLooper()==Looper.getMainLooper())
         {
-            this.adapter.execute(createSeekAction(msgObj.getDouble("time")));
+            runnable.run();
         }
+        else
+        {
+            this.mainHandler.post(runnable);
+        }
+    }
 
-        else if(action.equals("dispose"))
+    /** Claim a command slot */
+    private long claimCommand()
+    {
+        long seq = this.commandRing.claim();
+        if (seq<0)
+            throw new IllegalStateException("Command buffer full ("+CommandRingBuffer.DEFAULT_CAPACITY+")");
+
+        // actions are timed from here, including ring and decode time
+        this.commandRing.get(seq).claimTime=SystemClock.uptimeMillis();
+        return seq;
+    }
+
+    /** Dispatch a decoded command through the opcode table (main thread) */
+    private void dispatchCommand(CommandProtocol.Command command)
+    {
+        // slots discarded after a decode error
+        if (command.opcode==CommandProtocol.OP_NONE)
         {
-            Log.d(Extension.TAG, "dispose called in onMessage()");
-            // Do nothing - dispose() will be called in Actionscript from context.dispose;
+            if (command.error!=null)
+            {
+                sendError(500, command.error);
+            }
+            return;
         }
 
-        else
+        try
         {
-            Log.w(Extension.TAG, "Unexpected message type received from actionscript: ("+json+")");
+            this.commandTable[command.opcode].handle(command);
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.e("Could not handle command ({})", command.opcode, t);
+            sendError(500, t.getMessage());
         }
     }
 
+    /** Create command handler table */
+    private CommandProtocol.CommandHandler[] createCommandTable()
+    {
+        CommandProtocol.CommandHandler[] table = new CommandProtocol.CommandHandler[CommandProtocol.OP_COUNT];
+
+        table[CommandProtocol.OP_NONE] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                ExtensionLog.w("Empty command received from actionscript");
+            }
+        };
+        table[CommandProtocol.OP_PLAY] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                getAdapter(command.playerId).execute(playAction, command.claimTime);
+            }
+        };
+        table[CommandProtocol.OP_PAUSE] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                getAdapter(command.playerId).execute(pauseAction, command.claimTime);
+            }
+        };
+        table[CommandProtocol.OP_STOP] = table[CommandProtocol.OP_PAUSE];
+        table[CommandProtocol.OP_SEEK] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                getAdapter(command.playerId).getSeekController().seek(command.timeMillis, command.claimTime);
+            }
+        };
+        table[CommandProtocol.OP_PLAY_BY_ID] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                YouTubePlayerAdapter adapter = getAdapter(command.playerId);
+                int startTimeMillis = (command.timeMillis==CommandProtocol.TIME_RESUME) ? resumeStore.get(command.videoId) : command.timeMillis;
+                adapter.execute(createPlayByIdAction(adapter, command.videoId, startTimeMillis), command.claimTime);
+            }
+        };
+        table[CommandProtocol.OP_DISPOSE] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) {
+                ExtensionLog.d("dispose called in onMessage()");
+                // Do nothing - dispose() will be called in Actionscript from context.dispose;
+            }
+        };
+        table[CommandProtocol.OP_TASK] = new CommandProtocol.CommandHandler() {
+            @Override public void handle(CommandProtocol.Command command) throws Exception {
+                command.task.handle(command);
+            }
+        };
+
+        return table;
+    }
+
     // YouTubePlayerAdapter.PlayerEventCallback impl
 
     /** Send JSON encoded Message (to Actionscript) */
@@ -192,74 +468,43 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
     /** Send generic data to Actionscript */
     public void sendData(String data)
     {
-        //sendMessage({type:"data", data:data});
-        try
-        {
-            JSONObject msgObj = new JSONObject();
-            msgObj.put("type", "data");
-            msgObj.put("data", data);
-            sendMessage(msgObj);
-        }
-        catch (Throwable t)
-        {
-            Log.w(Extension.TAG, "Could not send data message ("+data+")", t);
-        }
+        this.defaultPlayerEvents.sendData(data);
     }
 
     /** Send Time data to Actionscript */
     public void sendTimeData(int curSecs, int totalSecs)
     {
-        try
-        {
-            JSONObject timeObj=new JSONObject();
-            timeObj.put("current", curSecs);
-            timeObj.put("total", totalSecs);
-            JSONObject msgObj=new JSONObject();
-            msgObj.put("type", "time");
-            msgObj.put("time", timeObj);
+        this.defaultPlayerEvents.sendTimeData(curSecs, totalSecs);
+    }
 
-            sendMessage(msgObj);
-        }
-        catch(Throwable t)
-        {
-            Log.w(Extension.TAG, "Could not send time data", t);
-        }
+    /** Send Time anchor to Actionscript (position advances by rate * elapsed time from receipt) */
+    public void sendTimeAnchor(int positionMillis, int durationMillis, int rate)
+    {
+        this.defaultPlayerEvents.sendTimeAnchor(positionMillis, durationMillis, rate);
     }
 
     /** Send player state to Actionscript */
     public void sendState(String state)
     {
-        //sendMessage({type:"state", state:state});
-        try
-        {
-            JSONObject msgObj = new JSONObject();
-            msgObj.put("type", "state");
-            msgObj.put("state", state);
+        this.defaultPlayerEvents.sendState(state);
+    }
 
-            sendMessage(msgObj);
-        }
-        catch (Throwable t)
-        {
-            Log.w(Extension.TAG, "Could not send state message ("+state+")", t);
-        }
+    /** Send playlist advanced to Actionscript */
+    public void sendPlaylistAdvanced(int index, String videoId)
+    {
+        this.defaultPlayerEvents.sendPlaylistAdvanced(index, videoId);
     }
 
     /** Send Error to Actionscript */
     public void sendError(int code, String msg)
     {
-        //sendMessage({type:"err", code:e.data, msg:msg})
-        try
-        {
-            JSONObject msgObj = new JSONObject();
-            msgObj.put("type", "err");
-            msgObj.put("code", code);
-            msgObj.put("msg", msg);
-            sendMessage(msgObj);
-        }
-        catch (Throwable t)
-        {
-            Log.w(Extension.TAG, "Could not send Error message: ("+code+","+msg+")", t);
-        }
+        this.defaultPlayerEvents.sendError(code, msg);
+    }
+
+    /** Send playback session summary to Actionscript */
+    public void sendSession(SessionTelemetry session)
+    {
+        this.defaultPlayerEvents.sendSession(session);
     }
 
     /**
@@ -269,40 +514,63 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
      */
     public void dispatchEventWithReason(String type, String reason)
     {
+        EventBatcher batcher = this.eventBatcher;
+        if (batcher!=null)
+        {
+            batcher.add(type, reason);
+            return;
+        }
         dispatchStatusEventAsync(type, reason);
     }
 
-    // Helpers
-
-    /** Get the Current SDK API level */
-    public int getApiLevel()
+    /**
+     * Enable or disable batching of events sent to Actionscript
+     * @param enabled Batch events
+     * @param flushInterval Flush interval in ms, or 0 to flush once per frame
+     */
+    public void setEventBatching(boolean enabled, long flushInterval)
     {
-        int apiLevel = Build.VERSION.SDK_INT;
+        EventBatcher previous = this.eventBatcher;
+        this.eventBatcher = !enabled ? null : new EventBatcher(new EventBatcher.Dispatcher()
+        {
+            @Override
+            public void dispatch(String type, String reason)
+            {
+                dispatchStatusEventAsync(type, reason);
+            }
+        }, flushInterval);
 
-        Log.d(Extension.TAG, "API Level="+Integer.toString(apiLevel));
-        if (apiLevel < 11)
+        if (previous!=null)
         {
-            this.unsupportedReason = "Android API Level less than 11 (" + Integer.toString(apiLevel) + ")";
+            previous.dispose();
         }
+    }
 
-        return apiLevel;
+    // Helpers
+
+    /**
+     * Get initialized adapter for player id, marking it most recently used (main thread). Only initVideo
+     * and prewarm create players, so a command for an unknown player cannot evict another
+     */
+    private YouTubePlayerAdapter getAdapter(int playerId)
+    {
+        YouTubePlayerAdapter adapter = YouTubePlayerPool.get(playerId);
+        if (adapter==null || !adapter.isInitialized())
+            throw new IllegalStateException("Player not initialized ("+playerId+")");
+        return adapter;
     }
 
-    /** Determine if YouTube is installed or not */
-    public boolean hasYouTubeInstalled()
+    /** Fetch and initialize adapter if not already initialized. Returns true if it was already initialized */
+    private boolean initAdapter(YouTubePlayerAdapter adapter, String devKey, boolean lazy)
     {
-        try
-        {
-            ApplicationInfo info = getActivity().getPackageManager().getApplicationInfo("com.google.android.youtube", 0);
-            Log.d(Extension.TAG, "YouTube App is installed");
+        if (adapter.isInitialized())
             return true;
-        }
-        catch (PackageManager.NameNotFoundException e)
-        {
-            this.unsupportedReason = "YouTube App not installed";
-            Log.w(Extension.TAG, "YouTube App not installed.");
-            return false;
-        }
+
+        YouTubePlayerAdapter.PlayerEventCallback callback = (adapter.getPlayerId()==YouTubePlayerPool.DEFAULT_PLAYER_ID) ? this : new PlayerEvents(adapter.getPlayerId());
+        adapter.setResumeStore(this.resumeStore);
+        adapter.setMetadataCache(this.metadataCache);
+        adapter.init(getActivity(),devKey,callback,lazy);
+        return false;
     }
 
     // Nested Functions
@@ -331,7 +599,7 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
             }
             catch (Throwable t)
             {
-                Log.e(Extension.TAG, "["+this.name+"] Could not retrieve passed FREObject params", t);
+                ExtensionLog.e("[{}] Could not retrieve passed FREObject params", this.name, t);
                 sendError(500, t.getMessage());
                 return  null;
             }
@@ -341,6 +609,16 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
 
         /** Execute */
         protected abstract int execute(FREObject[] params) throws Exception;
+
+        /** Get optional player id param (default player if not passed) */
+        protected int getPlayerId(FREObject[] params, int index) throws Exception
+        {
+            if (params.length<=index || params[index]==null)
+                return YouTubePlayerPool.DEFAULT_PLAYER_ID;
+
+            return params[index].getAsInt();
+        }
+
     }
 
     /** Load URL Function */
@@ -356,8 +634,14 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
         @Override
         protected int execute(FREObject[] params) throws Exception
         {
-            String videoId = params[0].getAsString();
-            adapter.execute(createPlayByIdAction(videoId,0.0f));
+            final String videoId = params[0].getAsString();
+            final int playerId = getPlayerId(params, 1);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerAdapter adapter = getAdapter(playerId);
+                    adapter.execute(createPlayByIdAction(adapter, videoId, 0), command.claimTime);
+                }
+            });
             return 0;
         }
     }
@@ -376,7 +660,26 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
         protected int execute(FREObject[] params) throws Exception
         {
             String jsonString = params[0].getAsString();
-            onMessage(jsonString);
+            onMessage(jsonString, getPlayerId(params, 1));
+            return 0;
+        }
+    }
+
+    /** Send Command Function */
+    class SendCommandFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SendCommandFunction */
+        public SendCommandFunction()
+        {
+            super("SendCommandFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            FREByteArray bytes = (FREByteArray)params[0];
+            onCommand(bytes, getPlayerId(params, 1));
             return 0;
         }
     }
@@ -394,11 +697,112 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
         @Override
         protected int execute(FREObject[] params) throws Exception
         {
-            int frameX = params[0].getAsInt();
-            int frameY = params[1].getAsInt();
-            int frameWidth = params[2].getAsInt();
-            int frameHeight = params[3].getAsInt();
-            adapter.setVideoFrame(frameX, frameY, frameWidth, frameHeight);
+            final int frameX = params[0].getAsInt();
+            final int frameY = params[1].getAsInt();
+            final int frameWidth = params[2].getAsInt();
+            final int frameHeight = params[3].getAsInt();
+            final int playerId = getPlayerId(params, 4);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    getAdapter(playerId).setVideoFrame(frameX, frameY, frameWidth, frameHeight);
+                }
+            });
+            return 0;
+        }
+    }
+
+    /** Set Time Reporting Function */
+    class SetTimeReportingFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetTimeReportingFunction */
+        public SetTimeReportingFunction()
+        {
+            super("SetTimeReportingFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final int tickInterval = params[0].getAsInt();
+            final int resyncInterval = params[1].getAsInt();
+            final boolean ticksEnabled = params[2].getAsBool();
+            final boolean anchorsEnabled = params[3].getAsBool();
+            final int playerId = getPlayerId(params, 4);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    getAdapter(playerId).getTimeReporter().configure(tickInterval, resyncInterval, ticksEnabled, anchorsEnabled);
+                }
+            });
+            return 0;
+        }
+    }
+
+    /** Set Event Batching Function */
+    class SetEventBatchingFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetEventBatchingFunction */
+        public SetEventBatchingFunction()
+        {
+            super("SetEventBatchingFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            boolean enabled = params[0].getAsBool();
+            int flushInterval = params[1].getAsInt();
+            setEventBatching(enabled, flushInterval);
+            return 0;
+        }
+    }
+
+    /** Set Seek Window Function */
+    class SetSeekWindowFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetSeekWindowFunction */
+        public SetSeekWindowFunction()
+        {
+            super("SetSeekWindowFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final int window = params[0].getAsInt();
+            final int playerId = getPlayerId(params, 1);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    getAdapter(playerId).getSeekController().setWindow(window);
+                }
+            });
+            return 0;
+        }
+    }
+
+    /** Set Recovery Policy Function */
+    class SetRecoveryPolicyFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetRecoveryPolicyFunction */
+        public SetRecoveryPolicyFunction()
+        {
+            super("SetRecoveryPolicyFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final int maxAttempts = params[0].getAsInt();
+            final int baseDelay = params[1].getAsInt();
+            final int playerId = getPlayerId(params, 2);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    getAdapter(playerId).getRecoveryController().setPolicy(maxAttempts, baseDelay);
+                }
+            });
             return 0;
         }
     }
@@ -416,16 +820,263 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
         @Override
         protected int execute(FREObject[] params) throws Exception
         {
-            String devKey = params[0].getAsString();
+            final String devKey = params[0].getAsString();
+            final int playerId = getPlayerId(params, 1);
+            final boolean lazy = params.length>2 && params[2]!=null && params[2].getAsBool();
+
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerAdapter adapter = YouTubePlayerPool.fetch(playerId);
+                    if (initAdapter(adapter, devKey, lazy))
+                    {
+                        // already prewarmed
+                        if (adapter.isReady())
+                        {
+                            adapter.onReady();
+                        }
+                    }
+                }
+            });
+
+            return 0;
+        }
+    }
+
+    /** Prewarm Function - initialize player early, hidden offscreen. Returns 1 if player was already ready when called */
+    class PrewarmFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new PrewarmFunction */
+        public PrewarmFunction()
+        {
+            super("PrewarmFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final String devKey = params[0].getAsString();
+            final int playerId = getPlayerId(params, 1);
+
+            try
+            {
+                return readOnMain(new Callable<Integer>() {
+                    @Override public Integer call() {
+                        YouTubePlayerAdapter adapter = YouTubePlayerPool.peek(playerId);
+                        int ready = (adapter!=null && adapter.isReady()) ? 1 : 0;
+
+                        // creates views now, starts creating views deferred by a lazy initVideo, or restores a trimmed player
+                        adapter=YouTubePlayerPool.fetch(playerId);
+                        initAdapter(adapter, devKey, false);
+                        adapter.restore();
+                        adapter.createViews();
+                        return ready;
+                    }
+                });
+            }
+            catch (TimeoutException e)
+            {
+                // main thread busy, prewarm still runs in order
+                return 0;
+            }
+        }
+    }
+
+    /** Preload Video Function */
+    class PreloadVideoFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new PreloadVideoFunction */
+        public PreloadVideoFunction()
+        {
+            super("PreloadVideoFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final String videoId = params[0].getAsString();
+            final int startTimeMillis = (int)(1000 * params[1].getAsDouble());
+            final int playerId = getPlayerId(params, 2);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerAdapter adapter = getAdapter(playerId);
+                    adapter.execute(createCueVideoAction(adapter, videoId, startTimeMillis), command.claimTime);
+                }
+            });
+            return 0;
+        }
+    }
+
+    /** Load Playlist Function. Returns -1, and sends an error, if the playlist is invalid */
+    class LoadPlaylistFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new LoadPlaylistFunction */
+        public LoadPlaylistFunction()
+        {
+            super("LoadPlaylistFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            // comma separated video ids
+            final List<String> videoIds = Arrays.asList(params[0].getAsString().split(",", -1));
+            final int startIndex = params[1].getAsInt();
+            final int startTimeMillis = (int)(1000 * params[2].getAsDouble());
+            final int playerId = getPlayerId(params, 3);
+
+            for (String videoId : videoIds)
+            {
+                if (videoId.length()==0 || videoId.length()>CommandProtocol.MAX_VIDEO_ID_LENGTH)
+                {
+                    sendError(500, "Invalid playlist video id ("+videoId+")");
+                    return -1;
+                }
+            }
+            if (startIndex<0 || startIndex>=videoIds.size())
+            {
+                sendError(500, "Invalid playlist start index ("+startIndex+")");
+                return -1;
+            }
+
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerAdapter adapter = getAdapter(playerId);
+                    adapter.execute(createPlayPlaylistAction(adapter, videoIds, startIndex, startTimeMillis), command.claimTime);
+                }
+            });
+            return 0;
+        }
+    }
+
+    /** Release Player Function */
+    class ReleasePlayerFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new ReleasePlayerFunction */
+        public ReleasePlayerFunction()
+        {
+            super("ReleasePlayerFunction");
+        }
 
-            adapter=YouTubePlayerAdapter.fetchInstance();
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            // after the player's pending commands
+            final int playerId = getPlayerId(params, 0);
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerPool.release(playerId);
+                }
+            });
+            return 0;
+        }
+    }
 
-            adapter.init(getActivity(),devKey,AndroidYoutubeContext.this);
+    /** Set Player Pool Size Function */
+    class SetPlayerPoolSizeFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetPlayerPoolSizeFunction */
+        public SetPlayerPoolSizeFunction()
+        {
+            super("SetPlayerPoolSizeFunction");
+        }
 
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            final int capacity = params[0].getAsInt();
+            if (capacity<1)
+                throw new IllegalArgumentException("Invalid capacity ("+capacity+")");
+
+            // evicts players, after their pending commands
+            postTask(new CommandProtocol.CommandHandler() {
+                @Override public void handle(CommandProtocol.Command command) {
+                    YouTubePlayerPool.setCapacity(capacity);
+                }
+            });
             return 0;
         }
     }
 
+    /** Player Events - events for players other than the default are tagged '<type>@<playerId>' */
+    class PlayerEvents implements YouTubePlayerAdapter.PlayerEventCallback
+    {
+        /** Tag appended to event types */
+        private final String tag;
+
+        /** Message event type */
+        private final String messageType;
+
+        /** Time anchor event type */
+        private final String timeAnchorType;
+
+        /** Create a new PlayerEvents */
+        public PlayerEvents(int playerId)
+        {
+            this.tag = (playerId==YouTubePlayerPool.DEFAULT_PLAYER_ID) ? "" : "@"+playerId;
+            this.messageType="message"+this.tag;
+            this.timeAnchorType="timeAnchor"+this.tag;
+        }
+
+        @Override
+        public void sendData(String data)
+        {
+            //sendMessage({type:"data", data:data});
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeData(data));
+        }
+
+        @Override
+        public void sendTimeData(int curSecs, int totalSecs)
+        {
+            //sendMessage({type:"time", time:{current:c, total:t}});
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeTime(curSecs, totalSecs));
+        }
+
+        @Override
+        public void sendTimeAnchor(int positionMillis, int durationMillis, int rate)
+        {
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.timeAnchorType, eventEncoder.encodeTimeAnchor(positionMillis, durationMillis, rate));
+        }
+
+        @Override
+        public void sendState(String state)
+        {
+            //sendMessage({type:"state", state:state});
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeState(state));
+        }
+
+        @Override
+        public void sendPlaylistAdvanced(int index, String videoId)
+        {
+            //sendMessage({type:"advanced", index:index, videoId:videoId});
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeAdvanced(index, videoId));
+        }
+
+        @Override
+        public void sendError(int code, String msg)
+        {
+            //sendMessage({type:"err", code:e.data, msg:msg})
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeError(code, msg));
+        }
+
+        @Override
+        public void sendSession(SessionTelemetry session)
+        {
+            //sendMessage({type:"session", videoId:id, join:ms, rebuffers:n, stall:ms, watched:ms, errors:{}})
+            AndroidYoutubeContext.this.dispatchEventWithReason(this.messageType, eventEncoder.encodeSession(session, SystemClock.uptimeMillis()));
+        }
+
+        @Override
+        public void dispatchEventWithReason(String type, String reason)
+        {
+            AndroidYoutubeContext.this.dispatchEventWithReason(type+this.tag, reason);
+        }
+    }
+
     /** Is Supported Function */
     class IsSupportedFunction implements FREFunction
     {
@@ -434,12 +1085,12 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
         {
             try
             {
-                boolean isSupported = (hasYouTubeInstalled()) && (getApiLevel() >= 11);
+                boolean isSupported = isSupported();
                 return FREObject.newObject(isSupported);
             }
             catch (Throwable t)
             {
-                Log.e(Extension.TAG, "[IsSupportedFunction] Could not get isSupported", t);
+                ExtensionLog.e("[IsSupportedFunction] Could not get isSupported", t);
                 sendError(500, t.getMessage());
                 return  null;
             }
@@ -459,7 +1110,156 @@ public class AndroidYoutubeContext extends FREContext implements YouTubePlayerAd
             }
             catch (Throwable t)
             {
-                Log.e(Extension.TAG, "[GetUnsupportedReasonFunction] Could not get unsupported reason", t);
+                ExtensionLog.e("[GetUnsupportedReasonFunction] Could not get unsupported reason", t);
+                sendError(500, t.getMessage());
+                return  null;
+            }
+        }
+    }
+
+    /** Get Metrics Function - returns latency histograms and action queue counts as a compact string (null if no player) */
+    class GetMetricsFunction implements FREFunction
+    {
+        @Override
+        public FREObject call(FREContext freContext, FREObject[] freObjects)
+        {
+            try
+            {
+                final int playerId = (freObjects.length>0 && freObjects[0]!=null) ? freObjects[0].getAsInt() : YouTubePlayerPool.DEFAULT_PLAYER_ID;
+                String metrics = readOnMain(new Callable<String>() {
+                    @Override public String call() {
+                        return getMetrics(playerId);
+                    }
+                });
+                return (metrics!=null) ? FREObject.newObject(metrics) : null;
+            }
+            catch (Throwable t)
+            {
+                ExtensionLog.e("[GetMetricsFunction] Could not get metrics", t);
+                sendError(500, t.getMessage());
+                return  null;
+            }
+        }
+
+        /** Get metrics of player, or null if no player (main thread) */
+        private String getMetrics(int playerId)
+        {
+            YouTubePlayerAdapter adapter = YouTubePlayerPool.peek(playerId);
+            if (adapter==null)
+                return null;
+
+            StringBuilder sb = new StringBuilder(512);
+            adapter.getMetrics().appendTo(sb);
+            sb.append(";actions:").append(adapter.getMergedActionCount()).append(',').append(adapter.getDroppedActionCount());
+            sb.append(";commands:").append(commandRing.getRejectedCount());
+            sb.append(';');
+            adapter.getStateMachine().appendTo(sb);
+            sb.append(";seeks:").append(adapter.getSeekController().getRequestCount()).append(',').append(adapter.getSeekController().getAppliedCount());
+            sb.append(';');
+            adapter.getRecoveryController().appendTo(sb);
+            sb.append(";videos:").append(metadataCache.getHitCount()).append(',').append(metadataCache.getMissCount()).append(',').append(metadataCache.size());
+
+            FrameUpdater frameUpdater = adapter.getFrameUpdater();
+            if (frameUpdater!=null)
+            {
+                sb.append(";frames:").append(frameUpdater.getAppliedCount()).append(',')
+                  .append(frameUpdater.getDroppedCount()).append(',').append(frameUpdater.getSkippedCount());
+            }
+
+            return sb.toString();
+        }
+    }
+
+    /** Get Session Function - returns the current playback session summary, as a session message (null if no player) */
+    class GetSessionFunction implements FREFunction
+    {
+        @Override
+        public FREObject call(FREContext freContext, FREObject[] freObjects)
+        {
+            try
+            {
+                final int playerId = (freObjects.length>0 && freObjects[0]!=null) ? freObjects[0].getAsInt() : YouTubePlayerPool.DEFAULT_PLAYER_ID;
+                String session = readOnMain(new Callable<String>() {
+                    @Override public String call() {
+                        YouTubePlayerAdapter adapter = YouTubePlayerPool.peek(playerId);
+                        return (adapter!=null) ? eventEncoder.encodeSession(adapter.getSession(), SystemClock.uptimeMillis()) : null;
+                    }
+                });
+                return (session!=null) ? FREObject.newObject(session) : null;
+            }
+            catch (Throwable t)
+            {
+                ExtensionLog.e("[GetSessionFunction] Could not get session", t);
+                sendError(500, t.getMessage());
+                return  null;
+            }
+        }
+    }
+
+    /** Read State Function - copies polled player state into a ByteArray, returns its sequence (-1 if no player) */
+    class ReadStateFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new ReadStateFunction */
+        public ReadStateFunction()
+        {
+            super("ReadStateFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            // state buffers are published for polling from this thread, without going through the main thread
+            StateBuffer state = YouTubePlayerPool.getStateBuffer(getPlayerId(params, 1));
+            if (state==null)
+                return -1;
+
+            FREByteArray bytes = (FREByteArray)params[0];
+            bytes.acquire();
+            try
+            {
+                return state.copyTo(bytes.getBytes());
+            }
+            finally
+            {
+                bytes.release();
+            }
+        }
+    }
+
+    /** Set Log Level Function (android.util.Log levels; above ERROR disables) */
+    class SetLogLevelFunction extends AndroidYoutubeFunction
+    {
+        /** Create a new SetLogLevelFunction */
+        public SetLogLevelFunction()
+        {
+            super("SetLogLevelFunction");
+        }
+
+        /** Execute */
+        @Override
+        protected int execute(FREObject[] params) throws Exception
+        {
+            int logcatLevel = params[0].getAsInt();
+            int recordLevel = params[1].getAsInt();
+            ExtensionLog.setLevels(logcatLevel, recordLevel);
+            return 0;
+        }
+    }
+
+    /** Get Log Function - returns recently recorded log messages, one per line */
+    class GetLogFunction implements FREFunction
+    {
+        @Override
+        public FREObject call(FREContext freContext, FREObject[] freObjects)
+        {
+            try
+            {
+                return FREObject.newObject(ExtensionLog.dump());
+            }
+            catch (Throwable t)
+            {
+                ExtensionLog.e("[GetLogFunction] Could not get log", t);
                 sendError(500, t.getMessage());
                 return  null;
             }
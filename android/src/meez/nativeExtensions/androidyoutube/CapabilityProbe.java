@@ -0,0 +1,279 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
+import com.google.android.youtube.player.YouTubeApiServiceUtil;
+import com.google.android.youtube.player.YouTubeInitializationResult;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes whether the YouTube player is supported, once, in the background
+ *
+ * The result is cached (with the YouTube app version and YouTube API service availability) and only
+ * invalidated when the YouTube app package changes, so isSupported() does not call PackageManager.
+ * The result is published as an immutable snapshot: getters never lock, and keep returning the previous
+ * result while a reprobe runs in the background. Probes only ever run on the worker.
+ */
+public class CapabilityProbe
+{
+    // Definitions
+
+    /** YouTube app package */
+    public static final String YOUTUBE_PACKAGE="com.google.android.youtube";
+
+    /** Minimum API level */
+    public static final int MIN_API_LEVEL=11;
+
+    /** Longest wait in getResult() for the first probe */
+    private static final long FIRST_PROBE_TIMEOUT_MILLIS=200;
+
+    /** Probe Result */
+    public static final class Result
+    {
+        /** Is the YouTube player supported */
+        public final boolean supported;
+
+        /** Reason YouTube player is unsupported ("" if supported) */
+        public final String unsupportedReason;
+
+        /** YouTube app version name (null if not installed) */
+        public final String youTubeVersion;
+
+        /** YouTube API service availability (null if unknown) */
+        public final YouTubeInitializationResult serviceResult;
+
+        /** Create a new Result */
+        Result(boolean supported, String unsupportedReason, String youTubeVersion, YouTubeInitializationResult serviceResult)
+        {
+            this.supported=supported;
+            this.unsupportedReason=unsupportedReason;
+            this.youTubeVersion=youTubeVersion;
+            this.serviceResult=serviceResult;
+        }
+    }
+
+    /** Result returned until the first probe completes */
+    private static final Result PENDING=new Result(false, "YouTube support not determined yet", null, null);
+
+    // Instance vars
+
+    /** Application Context */
+    private Context context;
+
+    /** Package change receiver */
+    private BroadcastReceiver packageReceiver;
+
+    /** Probe worker (null if not started) */
+    private ExecutorService worker;
+
+    /** Latest result (null until the first probe completes) */
+    private volatile Result result;
+
+    /** Latest probe submitted to the worker (null if none) */
+    private volatile Future<?> pendingProbe;
+
+    // Public Methods
+
+    /** Start probing in the background, and watch for YouTube app package changes */
+    public void start(Context context)
+    {
+        this.context=context.getApplicationContext();
+        this.worker=Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "AndroidYouTube-CapabilityProbe");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        this.packageReceiver=new BroadcastReceiver()
+        {
+            @Override
+            public void onReceive(Context context, Intent intent)
+            {
+                Uri data = intent.getData();
+                if (data!=null && YOUTUBE_PACKAGE.equals(data.getSchemeSpecificPart()))
+                {
+                    ExtensionLog.d("CapabilityProbe: YouTube package changed ({})", intent.getAction());
+                    probeInBackground();
+                }
+            }
+        };
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+        this.context.registerReceiver(this.packageReceiver, filter);
+
+        probeInBackground();
+    }
+
+    /** Stop watching for package changes */
+    public void stop()
+    {
+        if (this.worker!=null)
+        {
+            this.worker.shutdownNow();
+            this.worker=null;
+        }
+
+        if (this.packageReceiver==null)
+            return;
+
+        try
+        {
+            this.context.unregisterReceiver(this.packageReceiver);
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("Could not unregister package receiver", t);
+        }
+        this.packageReceiver=null;
+    }
+
+    /** Is the YouTube player supported */
+    public boolean isSupported()
+    {
+        return getResult().supported;
+    }
+
+    /** Reason YouTube player is unsupported */
+    public String getUnsupportedReason()
+    {
+        return getResult().unsupportedReason;
+    }
+
+    /** YouTube app version name (null if not installed) */
+    public String getYouTubeVersion()
+    {
+        return getResult().youTubeVersion;
+    }
+
+    /** YouTube API service availability */
+    public YouTubeInitializationResult getServiceResult()
+    {
+        return getResult().serviceResult;
+    }
+
+    /**
+     * Get latest result, without locking. Until the first probe completes (called right after start), waits
+     * briefly for the probe on the worker, then returns a pending (unsupported) result, which is not cached
+     */
+    public Result getResult()
+    {
+        Result current = this.result;
+        if (current!=null)
+            return current;
+
+        Future<?> probe = this.pendingProbe;
+        if (probe!=null)
+        {
+            try
+            {
+                probe.get(FIRST_PROBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException e)
+            {
+                ExtensionLog.w("CapabilityProbe: first probe still running");
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                // probeSafely does not throw
+                ExtensionLog.w("CapabilityProbe: probe failed", e);
+            }
+        }
+
+        current=this.result;
+        return (current!=null) ? current : PENDING;
+    }
+
+    // Implementation
+
+    /** Probe again on the worker, publishing the result when done. The previous result is served meanwhile */
+    private void probeInBackground()
+    {
+        try
+        {
+            this.pendingProbe=this.worker.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    result=probeSafely();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            ExtensionLog.d("CapabilityProbe: stopped, probe dropped");
+        }
+    }
+
+    /** Probe, returning an unsupported result if the probe fails */
+    private Result probeSafely()
+    {
+        try
+        {
+            return probe();
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("CapabilityProbe: probe failed", t);
+            return new Result(false, "Could not determine YouTube support ("+t.getMessage()+")", null, null);
+        }
+    }
+
+    /** Probe */
+    private Result probe()
+    {
+        int apiLevel = Build.VERSION.SDK_INT;
+
+        ExtensionLog.d("API Level={}", apiLevel);
+
+        String version = null;
+        try
+        {
+            PackageInfo info = this.context.getPackageManager().getPackageInfo(YOUTUBE_PACKAGE, 0);
+            version = info.versionName;
+            ExtensionLog.d("YouTube App is installed ({})", version);
+        }
+        catch (PackageManager.NameNotFoundException e)
+        {
+            ExtensionLog.w("YouTube App not installed.");
+        }
+
+        YouTubeInitializationResult serviceResult = YouTubeApiServiceUtil.isYouTubeApiServiceAvailable(this.context);
+
+        if (version==null)
+            return new Result(false, "YouTube App not installed", null, serviceResult);
+
+        if (apiLevel<MIN_API_LEVEL)
+            return new Result(false, "Android API Level less than 11 (" + Integer.toString(apiLevel) + ")", version, serviceResult);
+
+        return new Result(true, "", version, serviceResult);
+    }
+}
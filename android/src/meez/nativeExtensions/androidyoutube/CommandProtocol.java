@@ -0,0 +1,172 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Binary command protocol (Actionscript to Java)
+ *
+ * Layout (big endian, matches default Actionscript ByteArray endian):
+ *   [0]     opcode         (uint8)
+ *   [1..4]  time in millis (int32)  - seek target or playById start time (TIME_RESUME: resume position)
+ *   [5]     videoId length (uint8)  - playById only
+ *   [6..]   videoId        (ASCII)  - playById only
+ *
+ * Commands without arguments may be sent as the opcode byte alone.
+ */
+public class CommandProtocol
+{
+    // Definitions
+
+    /** Opcodes */
+    public static final int OP_NONE=0;
+    public static final int OP_PLAY=1;
+    public static final int OP_PAUSE=2;
+    public static final int OP_STOP=3;
+    public static final int OP_SEEK=4;
+    public static final int OP_PLAY_BY_ID=5;
+    public static final int OP_DISPOSE=6;
+
+    /** Internal opcode running Command.task, not accepted from Actionscript */
+    public static final int OP_TASK=7;
+
+    /** playById start time resuming from the stored position (@see ResumeStore) */
+    public static final int TIME_RESUME=-1;
+
+    /** Size of opcode table */
+    public static final int OP_COUNT=8;
+
+    /** Header size (opcode + time + videoId length) */
+    public static final int HEADER_SIZE=6;
+
+    /** Maximum videoId length */
+    public static final int MAX_VIDEO_ID_LENGTH=64;
+
+    /** VideoId charset */
+    private static final Charset ASCII=Charset.forName("US-ASCII");
+
+    /** Decoded Command */
+    public static class Command
+    {
+        /** Opcode */
+        public int opcode;
+
+        /** Time in milliseconds */
+        public int timeMillis;
+
+        /** Video Id */
+        public String videoId;
+
+        /** Player Id (@see YouTubePlayerPool) */
+        public int playerId;
+
+        /** Decode error reported when handled (opcode is OP_NONE), or null */
+        public String error;
+
+        /** Task run on the main thread with this command (OP_TASK only) */
+        public CommandHandler task;
+
+        /** Time claimed by its producer (uptime), kept by reset(). Actions it creates are timed from it */
+        public long claimTime;
+
+        /** Reset */
+        public void reset()
+        {
+            this.opcode=OP_NONE;
+            this.playerId=YouTubePlayerPool.DEFAULT_PLAYER_ID;
+            this.timeMillis=0;
+            this.videoId=null;
+            this.error=null;
+            this.task=null;
+        }
+    }
+
+    /** Command Handler */
+    public interface CommandHandler
+    {
+        void handle(Command command) throws Exception;
+    }
+
+    // Instance vars
+
+    /** Last decoded videoId bytes */
+    private final byte[] lastVideoIdBytes;
+
+    /** Length of last decoded videoId */
+    private int lastVideoIdLength;
+
+    /** Last decoded videoId */
+    private String lastVideoId;
+
+    // Public Methods
+
+    /** Create a new CommandProtocol */
+    public CommandProtocol()
+    {
+        this.lastVideoIdBytes=new byte[MAX_VIDEO_ID_LENGTH];
+    }
+
+    /**
+     * Decode a command
+     * @param buffer Encoded command, read from its current position
+     * @param command Command to decode into (reused between calls)
+     */
+    public void decode(ByteBuffer buffer, Command command)
+    {
+        command.reset();
+
+        if (!buffer.hasRemaining())
+            throw new IllegalArgumentException("Empty command");
+
+        int opcode = buffer.get() & 0xFF;
+        if (opcode<=OP_NONE || opcode>=OP_TASK)
+            throw new IllegalArgumentException("Unknown opcode ("+opcode+")");
+
+        command.opcode=opcode;
+
+        if (buffer.remaining()>=4)
+        {
+            command.timeMillis=buffer.getInt();
+        }
+        else if (opcode==OP_SEEK || opcode==OP_PLAY_BY_ID)
+        {
+            throw new IllegalArgumentException("Missing time for opcode ("+opcode+")");
+        }
+
+        if (opcode==OP_PLAY_BY_ID)
+        {
+            command.videoId=decodeVideoId(buffer);
+        }
+    }
+
+    // Implementation
+
+    /** Decode videoId, reusing the previous String if the bytes are unchanged */
+    private String decodeVideoId(ByteBuffer buffer)
+    {
+        if (!buffer.hasRemaining())
+            throw new IllegalArgumentException("Missing videoId");
+
+        int length = buffer.get() & 0xFF;
+        if (length==0 || length>MAX_VIDEO_ID_LENGTH || length>buffer.remaining())
+            throw new IllegalArgumentException("Invalid videoId length ("+length+")");
+
+        boolean same = (length==this.lastVideoIdLength);
+        for (int i=0; i<length; i++)
+        {
+            byte b = buffer.get();
+            if (same && this.lastVideoIdBytes[i]!=b)
+            {
+                same=false;
+            }
+            this.lastVideoIdBytes[i]=b;
+        }
+
+        if (!same || this.lastVideoId==null)
+        {
+            this.lastVideoIdLength=length;
+            this.lastVideoId=new String(this.lastVideoIdBytes, 0, length, ASCII);
+        }
+        return this.lastVideoId;
+    }
+}
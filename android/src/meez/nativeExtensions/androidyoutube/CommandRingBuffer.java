@@ -0,0 +1,199 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer command ring buffer
+ *
+ * Any thread may publish commands; they are handled in order on the consumer thread (the main thread in the
+ * extension), so player adapter state is confined to it. A single drain task, run by the drain executor, handles
+ * every command published before it runs.
+ *
+ * Publishing is two-phase, so the command slot is filled in place without allocating:
+ *   long seq = ring.claim();  // -1 if full
+ *   ring.get(seq).opcode=...;
+ *   ring.publish(seq);
+ *
+ * A claimed sequence must always be published (set opcode to OP_NONE to discard it).
+ */
+public class CommandRingBuffer
+{
+    // Definitions
+
+    /** Default capacity */
+    public static final int DEFAULT_CAPACITY=256;
+
+    // Instance vars
+
+    /** Command slots */
+    private final CommandProtocol.Command[] slots;
+
+    /** Slot sequences. seq==pos: free for producer at pos. seq==pos+1: published for consumer at pos */
+    private final AtomicLongArray sequences;
+
+    /** Index mask */
+    private final int mask;
+
+    /** Next producer position */
+    private final AtomicLong tail;
+
+    /** Next consumer position (consumer thread only) */
+    private long head;
+
+    /** Is a drain task pending */
+    private final AtomicBoolean drainScheduled;
+
+    /** Runs drain tasks on the consumer thread */
+    private final Executor drainExecutor;
+
+    /** Drains on consumer thread */
+    private final Runnable drainRunnable;
+
+    /** Command consumer */
+    private final CommandProtocol.CommandHandler consumer;
+
+    /** Number of commands rejected because the buffer was full */
+    private final AtomicLong rejectedCount;
+
+    // Public Methods
+
+    /**
+     * Create a new CommandRingBuffer
+     * @param capacity Capacity (power of 2)
+     * @param drainExecutor Runs drain tasks on the consumer thread, one at a time
+     * @param consumer Handles commands on the consumer thread. The command is reused after handle() returns
+     */
+    public CommandRingBuffer(int capacity, Executor drainExecutor, CommandProtocol.CommandHandler consumer)
+    {
+        if (capacity<2 || (capacity & (capacity-1))!=0)
+            throw new IllegalArgumentException("Capacity must be a power of 2 ("+capacity+")");
+
+        this.slots=new CommandProtocol.Command[capacity];
+        this.sequences=new AtomicLongArray(capacity);
+        for (int i=0; i<capacity; i++)
+        {
+            this.slots[i]=new CommandProtocol.Command();
+            this.sequences.set(i, i);
+        }
+        this.mask=capacity-1;
+        this.tail=new AtomicLong(0);
+        this.drainScheduled=new AtomicBoolean(false);
+        this.rejectedCount=new AtomicLong(0);
+        this.consumer=consumer;
+        this.drainExecutor=drainExecutor;
+        this.drainRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        };
+    }
+
+    /** Claim a slot. Returns its sequence, or -1 if the buffer is full */
+    public long claim()
+    {
+        while (true)
+        {
+            long pos = this.tail.get();
+            long dif = this.sequences.get((int)pos & this.mask)-pos;
+            if (dif==0)
+            {
+                if (this.tail.compareAndSet(pos, pos+1))
+                {
+                    CommandProtocol.Command command = this.slots[(int)pos & this.mask];
+                    command.reset();
+                    return pos;
+                }
+            }
+            else if (dif<0)
+            {
+                this.rejectedCount.incrementAndGet();
+                return -1;
+            }
+        }
+    }
+
+    /** Get command in claimed slot */
+    public CommandProtocol.Command get(long seq)
+    {
+        return this.slots[(int)seq & this.mask];
+    }
+
+    /** Publish claimed slot, scheduling a drain if none is pending */
+    public void publish(long seq)
+    {
+        this.sequences.set((int)seq & this.mask, seq+1);
+
+        if (this.drainScheduled.compareAndSet(false, true))
+        {
+            this.drainExecutor.execute(this.drainRunnable);
+        }
+    }
+
+    /** Number of commands rejected because the buffer was full */
+    public long getRejectedCount()
+    {
+        return this.rejectedCount.get();
+    }
+
+    /** Handle commands published so far, before the scheduled drain runs (consumer thread only) */
+    public void drainPending()
+    {
+        drain(true);
+    }
+
+    /** Discard pending commands (consumer thread only). A drain task already scheduled finds nothing to handle */
+    public void clear()
+    {
+        drain(false);
+    }
+
+    // Implementation
+
+    /** Handle all published commands, in order (consumer thread) */
+    private void drain()
+    {
+        // clear flag first: a command published after this point schedules another drain
+        this.drainScheduled.set(false);
+        drain(true);
+    }
+
+    /** Drain published commands, handling them or discarding them */
+    private void drain(boolean handle)
+    {
+        int capacity = this.slots.length;
+        while (true)
+        {
+            long pos = this.head;
+            int index = (int)pos & this.mask;
+
+            // stop at first unpublished slot; its producer schedules another drain when it publishes
+            if (this.sequences.get(index)!=pos+1)
+                return;
+
+            CommandProtocol.Command command = this.slots[index];
+            if (handle)
+            {
+                try
+                {
+                    this.consumer.handle(command);
+                }
+                catch (Throwable t)
+                {
+                    ExtensionLog.e("CommandRingBuffer: Could not handle command ({})", command.opcode, t);
+                }
+            }
+            command.videoId=null;
+            command.error=null;
+            command.task=null;
+
+            this.head=pos+1;
+            this.sequences.set(index, pos+capacity);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+import java.util.EnumMap;
+
+/**
+ * Classification of YouTubePlayer errors: the code and message sent to Actionscript, and how the error is
+ * recovered. The table is built once, with an entry for every ErrorReason.
+ */
+public class ErrorClassifier
+{
+    // Definitions
+
+    /** Recovery */
+    public enum Recovery
+    {
+        /** Not counted as an error, Actionscript is notified */
+        NOTIFY,
+        /** Not recoverable, Actionscript is notified */
+        FAIL,
+        /** Transient, retried in the same player */
+        RETRY,
+        /** Player lost, retried in a new player */
+        REINIT;
+    }
+
+    /** Classification */
+    public static final class Classification
+    {
+        /** Error code sent to Actionscript */
+        public final int code;
+
+        /** Error message sent to Actionscript */
+        public final String msg;
+
+        /** Recovery */
+        public final Recovery recovery;
+
+        /** Create a new Classification */
+        Classification(int code, String msg, Recovery recovery)
+        {
+            this.code=code;
+            this.msg=msg;
+            this.recovery=recovery;
+        }
+    }
+
+    // Class vars
+
+    /** Classifications, by reason */
+    private static final EnumMap<YouTubePlayer.ErrorReason, Classification> TABLE=createTable();
+
+    // Public Methods
+
+    /** Classify error */
+    public static Classification classify(YouTubePlayer.ErrorReason reason)
+    {
+        return TABLE.get(reason);
+    }
+
+    // Implementation
+
+    /** Create table */
+    private static EnumMap<YouTubePlayer.ErrorReason, Classification> createTable()
+    {
+        EnumMap<YouTubePlayer.ErrorReason, Classification> table=new EnumMap<YouTubePlayer.ErrorReason, Classification>(YouTubePlayer.ErrorReason.class);
+
+        // Unknown reasons
+        for (YouTubePlayer.ErrorReason reason : YouTubePlayer.ErrorReason.values())
+        {
+            table.put(reason, new Classification(500, reason.toString(), Recovery.FAIL)); // Meez API Error Code
+        }
+
+        // 1st two are not counted as errors, but Actionscript player needs to be notified
+        put(table, 0,   YouTubePlayerAdapter.PLAYER_ERROR_OVERLAID,  Recovery.NOTIFY, YouTubePlayer.ErrorReason.UNAUTHORIZED_OVERLAY);
+        put(table, 0,   YouTubePlayerAdapter.PLAYER_ERROR_TOO_SMALL, Recovery.NOTIFY, YouTubePlayer.ErrorReason.PLAYER_VIEW_TOO_SMALL);
+
+        put(table, 2,   YouTubePlayerAdapter.PLAYER_ERROR_INVALID,   Recovery.FAIL,
+                YouTubePlayer.ErrorReason.NOT_PLAYABLE,
+                YouTubePlayer.ErrorReason.AUTOPLAY_DISABLED,
+                YouTubePlayer.ErrorReason.INTERNAL_ERROR);
+        put(table, 100, YouTubePlayerAdapter.PLAYER_ERROR_NOT_FOUND, Recovery.FAIL, YouTubePlayer.ErrorReason.EMPTY_PLAYLIST);
+        put(table, 101, YouTubePlayerAdapter.PLAYER_ERROR_EMBED,     Recovery.FAIL,
+                YouTubePlayer.ErrorReason.USER_DECLINED_RESTRICTED_CONTENT,
+                YouTubePlayer.ErrorReason.USER_DECLINED_HIGH_BANDWIDTH);
+
+        // Meez API Error Code
+        put(table, 500, YouTubePlayerAdapter.PLAYER_ERROR_NETWORK,   Recovery.RETRY,  YouTubePlayer.ErrorReason.NETWORK_ERROR);
+        put(table, 500, YouTubePlayerAdapter.PLAYER_ERROR_NETWORK,   Recovery.REINIT, YouTubePlayer.ErrorReason.UNEXPECTED_SERVICE_DISCONNECTION);
+
+        return table;
+    }
+
+    /** Put classification for reasons */
+    private static void put(EnumMap<YouTubePlayer.ErrorReason, Classification> table, int code, String msg, Recovery recovery, YouTubePlayer.ErrorReason... reasons)
+    {
+        Classification classification = new Classification(code, msg, recovery);
+        for (YouTubePlayer.ErrorReason reason : reasons)
+        {
+            table.put(reason, classification);
+        }
+    }
+}
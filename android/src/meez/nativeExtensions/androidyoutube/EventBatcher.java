@@ -0,0 +1,236 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Accumulates status events and flushes them to Actionscript as a single 'batch' event
+ *
+ * Events are flushed on the next Choreographer frame (flush interval of 0, API 16+), or after the
+ * flush interval. A flush is only scheduled when the first event of a batch is added.
+ *
+ * Batch encoding: for each event, '<type length>:<type><reason length>:<reason>'
+ */
+public class EventBatcher
+{
+    // Definitions
+
+    /** Batch event type */
+    public static final String BATCH_EVENT="batch";
+
+    /** Maximum events per batch before an immediate flush */
+    public static final int MAX_BATCH_SIZE=64;
+
+    /** Flush interval used when frame callbacks are not available */
+    private static final long FALLBACK_FRAME_INTERVAL=16L;
+
+    /** Dispatcher */
+    public interface Dispatcher
+    {
+        void dispatch(String type, String reason);
+    }
+
+    // Instance vars
+
+    /** Dispatcher */
+    private final Dispatcher dispatcher;
+
+    /** Flush interval (0 to flush on next frame) */
+    private final long flushInterval;
+
+    /** Handler (main thread) */
+    private final Handler handler;
+
+    /** Flush Runnable */
+    private final Runnable flushRunnable;
+
+    /** Frame scheduler (null if flushing on interval) */
+    private final FrameScheduler frameScheduler;
+
+    /** Pending event types */
+    private final String[] types;
+
+    /** Pending event reasons */
+    private final String[] reasons;
+
+    /** Number of pending events */
+    private int count;
+
+    /** Batch buffer (reused) */
+    private final StringBuilder buffer;
+
+    // Public Methods
+
+    /**
+     * Create a new EventBatcher
+     * @param dispatcher Dispatcher for batch events
+     * @param flushInterval Flush interval in ms, or 0 to flush on the next frame
+     */
+    public EventBatcher(Dispatcher dispatcher, long flushInterval)
+    {
+        if (flushInterval<0)
+            throw new IllegalArgumentException("Invalid flush interval ("+flushInterval+")");
+
+        this.dispatcher=dispatcher;
+        this.handler=new Handler(Looper.getMainLooper());
+        this.types=new String[MAX_BATCH_SIZE];
+        this.reasons=new String[MAX_BATCH_SIZE];
+        this.buffer=new StringBuilder(256);
+        this.flushRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        };
+
+        if (flushInterval==0 && Build.VERSION.SDK_INT>=Build.VERSION_CODES.JELLY_BEAN)
+        {
+            this.frameScheduler=new FrameScheduler();
+            this.flushInterval=0;
+        }
+        else
+        {
+            this.frameScheduler=null;
+            this.flushInterval=(flushInterval==0) ? FALLBACK_FRAME_INTERVAL : flushInterval;
+        }
+    }
+
+    /** Add event to batch */
+    public void add(String type, String reason)
+    {
+        boolean full;
+        synchronized (this)
+        {
+            this.types[this.count]=type;
+            this.reasons[this.count]=reason;
+            this.count++;
+            full=(this.count==MAX_BATCH_SIZE);
+
+            if (this.count==1 && !full)
+            {
+                scheduleFlush();
+            }
+        }
+
+        if (full)
+        {
+            flush();
+        }
+    }
+
+    /** Flush pending events */
+    public void flush()
+    {
+        String batch;
+        synchronized (this)
+        {
+            if (this.count==0)
+                return;
+
+            cancelFlush();
+
+            StringBuilder sb = this.buffer;
+            sb.setLength(0);
+            for (int i=0; i<this.count; i++)
+            {
+                appendField(sb, this.types[i]);
+                appendField(sb, this.reasons[i]);
+                this.types[i]=null;
+                this.reasons[i]=null;
+            }
+            this.count=0;
+            batch=sb.toString();
+        }
+
+        this.dispatcher.dispatch(BATCH_EVENT, batch);
+    }
+
+    /** Dispose, flushing pending events */
+    public void dispose()
+    {
+        flush();
+    }
+
+    // Implementation
+
+    /** Append length prefixed field */
+    private static void appendField(StringBuilder sb, String value)
+    {
+        if (value==null)
+        {
+            value="";
+        }
+        sb.append(value.length()).append(':').append(value);
+    }
+
+    /** Schedule flush */
+    private void scheduleFlush()
+    {
+        if (this.frameScheduler!=null)
+        {
+            this.frameScheduler.schedule();
+        }
+        else
+        {
+            this.handler.postDelayed(this.flushRunnable, this.flushInterval);
+        }
+    }
+
+    /** Cancel scheduled flush */
+    private void cancelFlush()
+    {
+        if (this.frameScheduler!=null)
+        {
+            this.frameScheduler.cancel();
+        }
+        else
+        {
+            this.handler.removeCallbacks(this.flushRunnable);
+        }
+    }
+
+    /** Flushes on the next Choreographer frame (API 16+) */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    class FrameScheduler implements Choreographer.FrameCallback, Runnable
+    {
+        /** Schedule frame callback (Choreographer is per thread, so always post from main thread) */
+        public void schedule()
+        {
+            if (Looper.myLooper()==Looper.getMainLooper())
+            {
+                run();
+            }
+            else
+            {
+                handler.post(this);
+            }
+        }
+
+        /** Cancel frame callback */
+        public void cancel()
+        {
+            handler.removeCallbacks(this);
+            if (Looper.myLooper()==Looper.getMainLooper())
+            {
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos)
+        {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * Encodes outbound messages (Java to Actionscript) without building JSONObjects
+ *
+ * Output is identical to org.json.JSONObject.toString() for the same messages. State messages for the
+ * known player states are precomputed; other messages are written into a reused StringBuilder, so the
+ * only allocation per message is the resulting String.
+ */
+public class EventEncoder
+{
+    // Definitions
+
+    /** Known player states */
+    private static final String[] STATES=
+    {
+        YouTubePlayerAdapter.PLAYER_STATE_PLAYING,
+        YouTubePlayerAdapter.PLAYER_STATE_UNSTARTED,
+        YouTubePlayerAdapter.PLAYER_STATE_ENDED,
+        YouTubePlayerAdapter.PLAYER_STATE_PAUSED,
+        YouTubePlayerAdapter.PLAYER_STATE_BUFFERING,
+        YouTubePlayerAdapter.PLAYER_STATE_CUED,
+        YouTubePlayerAdapter.PLAYER_STATE_UNKNOWN
+    };
+
+    /** Hex digits */
+    private static final char[] HEX="0123456789abcdef".toCharArray();
+
+    // Instance vars
+
+    /** Precomputed state messages, indexed as STATES */
+    private final String[] stateMessages;
+
+    /** Message buffer (reused) */
+    private final StringBuilder buffer;
+
+    // Public Methods
+
+    /** Create a new EventEncoder */
+    public EventEncoder()
+    {
+        this.buffer=new StringBuilder(128);
+        this.stateMessages=new String[STATES.length];
+        for (int i=0; i<STATES.length; i++)
+        {
+            this.stateMessages[i]=buildStateMessage(STATES[i]);
+        }
+    }
+
+    /** Encode {type:"time", time:{current:c, total:t}} */
+    public synchronized String encodeTime(int curSecs, int totalSecs)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"time\",\"time\":{\"current\":").append(curSecs)
+          .append(",\"total\":").append(totalSecs)
+          .append("}}");
+        return sb.toString();
+    }
+
+    /** Encode time anchor as 'position,duration,rate' */
+    public synchronized String encodeTimeAnchor(int positionMillis, int durationMillis, int rate)
+    {
+        StringBuilder sb = reset();
+        sb.append(positionMillis).append(',').append(durationMillis).append(',').append(rate);
+        return sb.toString();
+    }
+
+    /** Encode {type:"state", state:state} */
+    public String encodeState(String state)
+    {
+        for (int i=0; i<STATES.length; i++)
+        {
+            if (STATES[i]==state)
+                return this.stateMessages[i];
+        }
+        return buildStateMessage(state);
+    }
+
+    /** Encode {type:"advanced", index:index, videoId:videoId} */
+    public synchronized String encodeAdvanced(int index, String videoId)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"advanced\",\"index\":").append(index);
+        if (videoId!=null)
+        {
+            sb.append(",\"videoId\":");
+            appendQuoted(sb, videoId);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /** Encode {type:"err", code:code, msg:msg} */
+    public synchronized String encodeError(int code, String msg)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"err\",\"code\":").append(code);
+        if (msg!=null)
+        {
+            sb.append(",\"msg\":");
+            appendQuoted(sb, msg);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /** Encode {type:"session", videoId:id, join:ms, rebuffers:n, stall:ms, watched:ms, errors:{REASON:n}} */
+    public synchronized String encodeSession(SessionTelemetry session, long now)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"session\",");
+        session.appendTo(sb, now);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /** Encode {type:"data", data:data} */
+    public synchronized String encodeData(String data)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"data\"");
+        if (data!=null)
+        {
+            sb.append(",\"data\":");
+            appendQuoted(sb, data);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    // Implementation
+
+    /** Build a state message */
+    private synchronized String buildStateMessage(String state)
+    {
+        StringBuilder sb = reset();
+        sb.append("{\"type\":\"state\"");
+        if (state!=null)
+        {
+            sb.append(",\"state\":");
+            appendQuoted(sb, state);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /** Reset buffer */
+    private StringBuilder reset()
+    {
+        this.buffer.setLength(0);
+        return this.buffer;
+    }
+
+    /** Append quoted string, escaped as org.json.JSONStringer */
+    static void appendQuoted(StringBuilder sb, String value)
+    {
+        sb.append('"');
+        for (int i=0, length=value.length(); i<length; i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append('\\').append(c);
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                default:
+                    if (c<=0x1F)
+                    {
+                        sb.append("\\u00").append(HEX[c>>4]).append(HEX[c&0xF]);
+                    }
+                    else
+                    {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+}
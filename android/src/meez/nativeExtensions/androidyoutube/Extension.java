@@ -1,6 +1,5 @@
 package meez.nativeExtensions.androidyoutube;
 
-import android.util.Log;
 import com.adobe.fre.FREContext;
 import com.adobe.fre.FREExtension;
 
@@ -15,14 +14,14 @@ public class Extension implements FREExtension
 	/** Create the context (AS to Java). */
 	public FREContext createContext(String extId)
 	{
-		Log.d(TAG, "AndroidYouTubeExtension.createContext()");
+		ExtensionLog.d("AndroidYouTubeExtension.createContext()");
 		return context = new AndroidYoutubeContext();
 	}
 
 	/** Dispose */
 	public void dispose()
 	{
-		Log.d(TAG, "AndroidYouTubeExtension.dispose");
+		ExtensionLog.d("AndroidYouTubeExtension.dispose");
 
         // Context is disposed within AndroidYouTubeContext
 	}
@@ -30,7 +29,7 @@ public class Extension implements FREExtension
 	/** Initialize the context. */
 	public void initialize()
     {
-        Log.d(TAG, "AndroidYouTubeExtension.initialize");
+        ExtensionLog.d("AndroidYouTubeExtension.initialize");
         // nothing happening here.
     }
 
@@ -0,0 +1,345 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Extension logging
+ *
+ * Messages are templates with '{}' placeholders, formatted only when written to logcat, so a filtered out
+ * call does not allocate. Recent messages are also recorded, unformatted, in a ring buffer that can be
+ * dumped for field diagnostics (@see dump). Only String and boxed primitive arguments are recorded as is
+ * (long ones truncated); other arguments are recorded as their toString(), so the ring does not keep
+ * objects alive or show their later state. Levels are android.util.Log levels:
+ *   COMPILED_LEVEL - calls below are dead code (build property log.compiled.level, default WARN; 3 for debug builds)
+ *   logcat level   - minimum level written to logcat (runtime, default WARN)
+ *   record level   - minimum level recorded in the ring buffer (runtime, default WARN)
+ * A level above Log.ERROR disables logcat or recording.
+ */
+public final class ExtensionLog
+{
+    // Definitions
+
+    /** Calls below this level are compiled out */
+    public static final int COMPILED_LEVEL=BuildConfig.LOG_COMPILED_LEVEL;
+
+    /** Disabled level */
+    public static final int LEVEL_OFF=Log.ERROR+1;
+
+    /** Ring buffer capacity */
+    public static final int RING_CAPACITY=256;
+
+    /** Maximum length of a recorded String argument */
+    public static final int MAX_RECORDED_LENGTH=160;
+
+    /** Placeholder */
+    private static final String PLACEHOLDER="{}";
+
+    /** Argument kinds */
+    private static final byte ARG_NONE=0;
+    private static final byte ARG_OBJECT=1;
+    private static final byte ARG_INT=2;
+
+    // Class vars
+
+    /** Minimum level written to logcat */
+    private static volatile int logcatLevel=Log.WARN;
+
+    /** Minimum level recorded */
+    private static volatile int recordLevel=Log.WARN;
+
+    /** Minimum of logcat and record level */
+    private static volatile int minLevel=Log.WARN;
+
+    /** Ring buffer: time, level, template, arguments */
+    private static final long[] times=new long[RING_CAPACITY];
+    private static final byte[] levels=new byte[RING_CAPACITY];
+    private static final String[] templates=new String[RING_CAPACITY];
+    private static final byte[] kinds0=new byte[RING_CAPACITY];
+    private static final Object[] objects0=new Object[RING_CAPACITY];
+    private static final int[] ints0=new int[RING_CAPACITY];
+    private static final byte[] kinds1=new byte[RING_CAPACITY];
+    private static final Object[] objects1=new Object[RING_CAPACITY];
+    private static final int[] ints1=new int[RING_CAPACITY];
+    private static final String[] throwables=new String[RING_CAPACITY];
+
+    /** Number of messages recorded */
+    private static long recordCount;
+
+    // Public Methods
+
+    /** Set levels */
+    public static void setLevels(int newLogcatLevel, int newRecordLevel)
+    {
+        logcatLevel=newLogcatLevel;
+        recordLevel=newRecordLevel;
+        minLevel=Math.min(newLogcatLevel, newRecordLevel);
+    }
+
+    /** Is level written to logcat or recorded */
+    public static boolean isLoggable(int level)
+    {
+        return level>=COMPILED_LEVEL && level>=minLevel;
+    }
+
+    /** Debug */
+    public static void d(String msg)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_NONE, null, 0, ARG_NONE, null, 0, null);
+    }
+
+    /** Debug, one argument */
+    public static void d(String msg, Object arg)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_OBJECT, arg, 0, ARG_NONE, null, 0, null);
+    }
+
+    /** Debug, one int argument */
+    public static void d(String msg, int arg)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_INT, null, arg, ARG_NONE, null, 0, null);
+    }
+
+    /** Debug, two arguments */
+    public static void d(String msg, Object arg0, Object arg1)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_OBJECT, arg0, 0, ARG_OBJECT, arg1, 0, null);
+    }
+
+    /** Debug, two int arguments */
+    public static void d(String msg, int arg0, int arg1)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_INT, null, arg0, ARG_INT, null, arg1, null);
+    }
+
+    /** Debug, int and object arguments */
+    public static void d(String msg, int arg0, Object arg1)
+    {
+        if (Log.DEBUG<COMPILED_LEVEL || Log.DEBUG<minLevel)
+            return;
+        log(Log.DEBUG, msg, ARG_INT, null, arg0, ARG_OBJECT, arg1, 0, null);
+    }
+
+    /** Warning */
+    public static void w(String msg)
+    {
+        if (Log.WARN<COMPILED_LEVEL || Log.WARN<minLevel)
+            return;
+        log(Log.WARN, msg, ARG_NONE, null, 0, ARG_NONE, null, 0, null);
+    }
+
+    /** Warning, one argument */
+    public static void w(String msg, Object arg)
+    {
+        if (Log.WARN<COMPILED_LEVEL || Log.WARN<minLevel)
+            return;
+        log(Log.WARN, msg, ARG_OBJECT, arg, 0, ARG_NONE, null, 0, null);
+    }
+
+    /** Warning, two arguments */
+    public static void w(String msg, Object arg0, Object arg1)
+    {
+        if (Log.WARN<COMPILED_LEVEL || Log.WARN<minLevel)
+            return;
+        log(Log.WARN, msg, ARG_OBJECT, arg0, 0, ARG_OBJECT, arg1, 0, null);
+    }
+
+    /** Warning with exception */
+    public static void w(String msg, Throwable t)
+    {
+        if (Log.WARN<COMPILED_LEVEL || Log.WARN<minLevel)
+            return;
+        log(Log.WARN, msg, ARG_NONE, null, 0, ARG_NONE, null, 0, t);
+    }
+
+    /** Error with exception */
+    public static void e(String msg, Throwable t)
+    {
+        if (Log.ERROR<minLevel)
+            return;
+        log(Log.ERROR, msg, ARG_NONE, null, 0, ARG_NONE, null, 0, t);
+    }
+
+    /** Error with exception, one argument */
+    public static void e(String msg, Object arg, Throwable t)
+    {
+        if (Log.ERROR<minLevel)
+            return;
+        log(Log.ERROR, msg, ARG_OBJECT, arg, 0, ARG_NONE, null, 0, t);
+    }
+
+    /** Error with exception, one int argument */
+    public static void e(String msg, int arg, Throwable t)
+    {
+        if (Log.ERROR<minLevel)
+            return;
+        log(Log.ERROR, msg, ARG_INT, null, arg, ARG_NONE, null, 0, t);
+    }
+
+    /** Dump recorded messages, oldest first, one per line: 'uptime level message' */
+    public static String dump()
+    {
+        StringBuilder sb = new StringBuilder(RING_CAPACITY*64);
+        synchronized (times)
+        {
+            long start = Math.max(0, recordCount-RING_CAPACITY);
+            for (long n=start; n<recordCount; n++)
+            {
+                int i = (int)(n % RING_CAPACITY);
+                sb.append(times[i]).append(' ').append(levelChar(levels[i])).append(' ');
+                format(sb, templates[i], kinds0[i], objects0[i], ints0[i], kinds1[i], objects1[i], ints1[i]);
+                if (throwables[i]!=null)
+                {
+                    sb.append(" (").append(throwables[i]).append(')');
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Clear recorded messages */
+    public static void clear()
+    {
+        synchronized (times)
+        {
+            for (int i=0; i<RING_CAPACITY; i++)
+            {
+                templates[i]=null;
+                objects0[i]=null;
+                objects1[i]=null;
+                throwables[i]=null;
+            }
+            recordCount=0;
+        }
+    }
+
+    // Implementation
+
+    /** Log message to logcat and ring buffer */
+    private static void log(int level, String msg, byte kind0, Object obj0, int int0, byte kind1, Object obj1, int int1, Throwable t)
+    {
+        if (level>=recordLevel)
+        {
+            record(level, msg, kind0, obj0, int0, kind1, obj1, int1, t);
+        }
+
+        if (level<logcatLevel)
+            return;
+
+        StringBuilder sb = new StringBuilder(msg.length()+32);
+        format(sb, msg, kind0, obj0, int0, kind1, obj1, int1);
+        String text = sb.toString();
+
+        switch (level)
+        {
+            case Log.ERROR:
+                Log.e(Extension.TAG, text, t);
+                break;
+
+            case Log.WARN:
+                if (t!=null)
+                {
+                    Log.w(Extension.TAG, text, t);
+                }
+                else
+                {
+                    Log.w(Extension.TAG, text);
+                }
+                break;
+
+            default:
+                Log.d(Extension.TAG, text);
+                break;
+        }
+    }
+
+    /** Record unformatted message */
+    private static void record(int level, String msg, byte kind0, Object obj0, int int0, byte kind1, Object obj1, int int1, Throwable t)
+    {
+        long now = SystemClock.uptimeMillis();
+        Object arg0 = recordable(obj0);
+        Object arg1 = recordable(obj1);
+        String error = (t!=null) ? (String)recordable(t) : null;
+        synchronized (times)
+        {
+            int i = (int)(recordCount % RING_CAPACITY);
+            times[i]=now;
+            levels[i]=(byte)level;
+            templates[i]=msg;
+            kinds0[i]=kind0;
+            objects0[i]=arg0;
+            ints0[i]=int0;
+            kinds1[i]=kind1;
+            objects1[i]=arg1;
+            ints1[i]=int1;
+            throwables[i]=error;
+            recordCount++;
+        }
+    }
+
+    /** Argument as recorded: String (truncated) and boxed primitives as is, anything else as its toString() */
+    private static Object recordable(Object arg)
+    {
+        if (arg==null || arg instanceof Number || arg instanceof Boolean || arg instanceof Character)
+            return arg;
+
+        String str = arg.toString();
+        if (str==null || str.length()<=MAX_RECORDED_LENGTH)
+            return str;
+
+        // copy, so the recorded prefix does not share the long string's chars
+        return new StringBuilder(MAX_RECORDED_LENGTH+3).append(str, 0, MAX_RECORDED_LENGTH).append("...").toString();
+    }
+
+    /** Format template, replacing placeholders with arguments in order */
+    private static void format(StringBuilder sb, String msg, byte kind0, Object obj0, int int0, byte kind1, Object obj1, int int1)
+    {
+        int pos = 0;
+        for (int arg=0; arg<2; arg++)
+        {
+            byte kind = (arg==0) ? kind0 : kind1;
+            if (kind==ARG_NONE)
+                break;
+
+            int at = msg.indexOf(PLACEHOLDER, pos);
+            if (at<0)
+                break;
+
+            sb.append(msg, pos, at);
+            if (kind==ARG_INT)
+            {
+                sb.append((arg==0) ? int0 : int1);
+            }
+            else
+            {
+                sb.append((arg==0) ? obj0 : obj1);
+            }
+            pos=at+PLACEHOLDER.length();
+        }
+        sb.append(msg, pos, msg.length());
+    }
+
+    /** Level character */
+    private static char levelChar(int level)
+    {
+        switch (level)
+        {
+            case Log.ERROR: return 'E';
+            case Log.WARN:  return 'W';
+            case Log.INFO:  return 'I';
+            case Log.DEBUG: return 'D';
+            default:        return 'V';
+        }
+    }
+}
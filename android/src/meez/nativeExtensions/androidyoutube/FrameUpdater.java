@@ -0,0 +1,224 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.annotation.TargetApi;
+import android.app.Dialog;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.Window;
+import android.view.WindowManager;
+
+/**
+ * Applies video frame changes to the player Dialog window at most once per display frame
+ *
+ * Only the latest requested frame is kept; frames superseded before they are applied are counted as dropped,
+ * and frames equal to the applied frame are skipped. A position-only change updates the window layout
+ * directly through the WindowManager, skipping the Window attribute copy and change callbacks.
+ * Must be used from the main thread.
+ */
+public class FrameUpdater
+{
+    // Instance vars
+
+    /** Dialog holding the player view */
+    private final Dialog dialog;
+
+    /** Layout Parameters */
+    private final WindowManager.LayoutParams layoutParams;
+
+    /** Main thread handler (used before API 16) */
+    private final Handler handler;
+
+    /** Applies pending frame on the next display frame (null before API 16) */
+    private final FrameScheduler frameScheduler;
+
+    /** Applies pending frame (used before API 16) */
+    private final Runnable applyRunnable;
+
+    /** Is a frame pending */
+    private boolean pending;
+
+    /** Pending frame */
+    private int pendingX, pendingY, pendingWidth, pendingHeight;
+
+    /** Has a frame been applied */
+    private boolean applied;
+
+    /** Number of frames applied */
+    private int appliedCount;
+
+    /** Number of frames superseded before being applied */
+    private int droppedCount;
+
+    /** Number of frames equal to the applied frame */
+    private int skippedCount;
+
+    // Public Methods
+
+    /** Create a new FrameUpdater */
+    public FrameUpdater(Dialog dialog, WindowManager.LayoutParams layoutParams)
+    {
+        this.dialog=dialog;
+        this.layoutParams=layoutParams;
+        this.handler=new Handler(Looper.getMainLooper());
+        this.applyRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        };
+        this.frameScheduler=(Build.VERSION.SDK_INT>=Build.VERSION_CODES.JELLY_BEAN) ? new FrameScheduler() : null;
+    }
+
+    /** Set frame, applied on the next display frame */
+    public void setFrame(int x, int y, int width, int height)
+    {
+        if (this.pending)
+        {
+            this.droppedCount++;
+        }
+        else if (this.applied && isApplied(x, y, width, height))
+        {
+            this.skippedCount++;
+            return;
+        }
+
+        this.pendingX=x;
+        this.pendingY=y;
+        this.pendingWidth=width;
+        this.pendingHeight=height;
+
+        if (!this.pending)
+        {
+            this.pending=true;
+            schedule();
+        }
+    }
+
+    /** Apply pending frame now */
+    public void flush()
+    {
+        if (!this.pending)
+            return;
+
+        cancel();
+        this.pending=false;
+
+        if (this.applied && isApplied(this.pendingX, this.pendingY, this.pendingWidth, this.pendingHeight))
+        {
+            this.skippedCount++;
+            return;
+        }
+
+        boolean moveOnly = this.applied && this.dialog.isShowing() &&
+                this.layoutParams.width==this.pendingWidth && this.layoutParams.height==this.pendingHeight;
+
+        this.layoutParams.x=this.pendingX;
+        this.layoutParams.y=this.pendingY;
+        this.layoutParams.width=this.pendingWidth;
+        this.layoutParams.height=this.pendingHeight;
+
+        Window window = this.dialog.getWindow();
+        if (moveOnly)
+        {
+            // Update the window's own attributes, so later attribute changes do not restore the old position
+            WindowManager.LayoutParams attributes = window.getAttributes();
+            attributes.x=this.pendingX;
+            attributes.y=this.pendingY;
+            window.getWindowManager().updateViewLayout(window.getDecorView(), attributes);
+        }
+        else
+        {
+            window.setAttributes(this.layoutParams);
+        }
+
+        this.applied=true;
+        this.appliedCount++;
+    }
+
+    /** Cancel pending frame */
+    public void dispose()
+    {
+        cancel();
+        this.pending=false;
+    }
+
+    /** Number of frames applied */
+    public int getAppliedCount()
+    {
+        return this.appliedCount;
+    }
+
+    /** Number of frames superseded before being applied */
+    public int getDroppedCount()
+    {
+        return this.droppedCount;
+    }
+
+    /** Number of frames equal to the applied frame */
+    public int getSkippedCount()
+    {
+        return this.skippedCount;
+    }
+
+    // Implementation
+
+    /** Is frame equal to the applied frame */
+    private boolean isApplied(int x, int y, int width, int height)
+    {
+        return this.layoutParams.x==x && this.layoutParams.y==y &&
+                this.layoutParams.width==width && this.layoutParams.height==height;
+    }
+
+    /** Schedule apply */
+    private void schedule()
+    {
+        if (this.frameScheduler!=null)
+        {
+            this.frameScheduler.schedule();
+        }
+        else
+        {
+            this.handler.post(this.applyRunnable);
+        }
+    }
+
+    /** Cancel scheduled apply */
+    private void cancel()
+    {
+        if (this.frameScheduler!=null)
+        {
+            this.frameScheduler.cancel();
+        }
+        else
+        {
+            this.handler.removeCallbacks(this.applyRunnable);
+        }
+    }
+
+    /** Applies on the next Choreographer frame (API 16+) */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    class FrameScheduler implements Choreographer.FrameCallback
+    {
+        /** Schedule frame callback */
+        public void schedule()
+        {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        /** Cancel frame callback */
+        public void cancel()
+        {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos)
+        {
+            flush();
+        }
+    }
+}
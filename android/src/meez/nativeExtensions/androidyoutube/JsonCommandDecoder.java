@@ -0,0 +1,176 @@
+package meez.nativeExtensions.androidyoutube;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decodes JSON messages (Actionscript to Java) on a worker thread, into CommandRingBuffer slots
+ *
+ * The caller claims the slot, so commands keep the order they were sent in whether they arrive as JSON or
+ * binary; the ring drain waits at a claimed slot until the worker publishes it, so every claimed slot is
+ * published, even when the worker is shut down. Malformed messages are published as discarded commands
+ * carrying an error, which is reported from the main thread.
+ *
+ * Message format: {action:"play"|"pause"|"stop"|"dispose"}, {action:"seek", time:secs},
+ * {action:"playById", videoId:id, startTime:secs} (without startTime, resumes from the stored position)
+ */
+public class JsonCommandDecoder
+{
+    // Definitions
+
+    /** JSON action names to opcodes */
+    private static final Map<String, Integer> ACTION_OPCODES=new HashMap<String, Integer>();
+    static
+    {
+        ACTION_OPCODES.put("play",      CommandProtocol.OP_PLAY);
+        ACTION_OPCODES.put("pause",     CommandProtocol.OP_PAUSE);
+        ACTION_OPCODES.put("stop",      CommandProtocol.OP_STOP);
+        ACTION_OPCODES.put("seek",      CommandProtocol.OP_SEEK);
+        ACTION_OPCODES.put("playById",  CommandProtocol.OP_PLAY_BY_ID);
+        ACTION_OPCODES.put("dispose",   CommandProtocol.OP_DISPOSE);
+    }
+
+    // Instance vars
+
+    /** Command ring */
+    private final CommandRingBuffer ring;
+
+    /** Decode worker */
+    private final ExecutorService worker;
+
+    // Public Methods
+
+    /** Create a new JsonCommandDecoder */
+    public JsonCommandDecoder(CommandRingBuffer ring)
+    {
+        this.ring=ring;
+        this.worker=Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "AndroidYouTube-JsonCommandDecoder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Decode message into claimed slot on the worker, then publish it
+     * @param seq Claimed slot (@see CommandRingBuffer.claim)
+     */
+    public void decodeAsync(long seq, String json, int playerId)
+    {
+        try
+        {
+            this.worker.execute(new DecodeTask(seq, json, playerId));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // shut down, claimed slot must be published, discard it
+            discard(seq);
+        }
+    }
+
+    /** Stop worker. Messages not yet decoded are dropped, their slots published as discarded commands */
+    public void shutdown()
+    {
+        List<Runnable> dropped = this.worker.shutdownNow();
+        for (Runnable task : dropped)
+        {
+            discard(((DecodeTask)task).seq);
+        }
+    }
+
+    // Implementation
+
+    /** Publish claimed slot as a discarded command */
+    private void discard(long seq)
+    {
+        this.ring.get(seq).reset();
+        this.ring.publish(seq);
+    }
+
+    /** Decode message into claimed slot and publish it (worker) */
+    private void decode(long seq, String json, int playerId)
+    {
+        CommandProtocol.Command command = this.ring.get(seq);
+        try
+        {
+            decode(json, command);
+            command.playerId=playerId;
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("Malformed message received from actionscript: ({})", json);
+            command.reset();
+            command.error="Malformed message ("+t.getMessage()+")";
+        }
+        finally
+        {
+            this.ring.publish(seq);
+        }
+    }
+
+    /** Decode message into command. Unknown actions are left as OP_NONE */
+    private void decode(String json, CommandProtocol.Command command) throws Exception
+    {
+        JSONObject msgObj = new JSONObject(json);
+        String action = msgObj.getString("action");
+
+        ExtensionLog.d("onMessageReceived({})", action);
+
+        Integer opcode = ACTION_OPCODES.get(action);
+        if (opcode==null)
+        {
+            ExtensionLog.w("Unexpected message type received from actionscript: ({})", json);
+            return;
+        }
+
+        if (opcode==CommandProtocol.OP_PLAY_BY_ID)
+        {
+            command.videoId=msgObj.getString("videoId");
+            command.timeMillis=msgObj.has("startTime") ? (int)(1000 * msgObj.getDouble("startTime")) : CommandProtocol.TIME_RESUME;
+        }
+        else if (opcode==CommandProtocol.OP_SEEK)
+        {
+            command.timeMillis=(int)(1000 * msgObj.getDouble("time"));
+        }
+        command.opcode=opcode;
+    }
+
+    /** Decode task, for a claimed slot */
+    class DecodeTask implements Runnable
+    {
+        /** Claimed slot */
+        final long seq;
+
+        /** Message */
+        final String json;
+
+        /** Player */
+        final int playerId;
+
+        /** Create a new DecodeTask */
+        DecodeTask(long seq, String json, int playerId)
+        {
+            this.seq=seq;
+            this.json=json;
+            this.playerId=playerId;
+        }
+
+        @Override
+        public void run()
+        {
+            decode(this.seq, this.json, this.playerId);
+        }
+    }
+}
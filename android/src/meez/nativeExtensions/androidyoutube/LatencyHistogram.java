@@ -0,0 +1,99 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * Fixed bucket latency histogram (milliseconds). Recording does not allocate.
+ */
+public class LatencyHistogram
+{
+    // Definitions
+
+    /** Bucket upper bounds (inclusive, ms). Last bucket holds everything above */
+    private static final long[] BOUNDS={1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    // Instance vars
+
+    /** Name */
+    private final String name;
+
+    /** Bucket counts */
+    private final int[] buckets;
+
+    /** Number of samples */
+    private int count;
+
+    /** Sum of samples */
+    private long sum;
+
+    /** Max sample */
+    private long max;
+
+    // Public Methods
+
+    /** Create a new LatencyHistogram */
+    public LatencyHistogram(String name)
+    {
+        this.name=name;
+        this.buckets=new int[BOUNDS.length+1];
+    }
+
+    /** Record sample */
+    public synchronized void record(long millis)
+    {
+        if (millis<0)
+            return;
+
+        int i=0;
+        while (i<BOUNDS.length && millis>BOUNDS[i])
+        {
+            i++;
+        }
+        this.buckets[i]++;
+        this.count++;
+        this.sum+=millis;
+        if (millis>this.max)
+        {
+            this.max=millis;
+        }
+    }
+
+    /** Get Name */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /** Number of samples */
+    public synchronized int getCount()
+    {
+        return this.count;
+    }
+
+    /** Reset */
+    public synchronized void reset()
+    {
+        for (int i=0; i<this.buckets.length; i++)
+        {
+            this.buckets[i]=0;
+        }
+        this.count=0;
+        this.sum=0;
+        this.max=0;
+    }
+
+    /** Append snapshot as 'name:count,sum,max,b0 b1 ... bn' */
+    public synchronized void appendTo(StringBuilder sb)
+    {
+        sb.append(this.name).append(':')
+          .append(this.count).append(',')
+          .append(this.sum).append(',')
+          .append(this.max).append(',');
+        for (int i=0; i<this.buckets.length; i++)
+        {
+            if (i>0)
+            {
+                sb.append(' ');
+            }
+            sb.append(this.buckets[i]);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.Bundle;
+
+/**
+ * Releases pooled players under memory pressure, and restores them when the app returns to the foreground
+ *
+ * Trim levels map to how much of each player is released:
+ *   RUNNING_LOW       - YouTubePlayer of idle players
+ *   RUNNING_CRITICAL  - YouTubePlayer, fragment and dialog of idle players
+ *   UI_HIDDEN         - YouTubePlayer of all players
+ *   BACKGROUND and up - YouTubePlayer, fragment and dialog of all players
+ * After a trim at UI_HIDDEN or above, released players are restored when the activity is started again.
+ * Otherwise they are restored by the next action or prewarm (@see YouTubePlayerAdapter.trim)
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+public class MemoryTrimmer implements ComponentCallbacks2, Application.ActivityLifecycleCallbacks
+{
+    // Instance vars
+
+    /** Application (null if not registered) */
+    private Application application;
+
+    /** Activity whose return to the foreground restores players */
+    private Activity activity;
+
+    /** Were players released while the UI was hidden */
+    private boolean trimmedHidden;
+
+    // Public Methods
+
+    /** Register for memory and activity lifecycle callbacks (API 14+) */
+    public void register(Activity activity)
+    {
+        if (Build.VERSION.SDK_INT<Build.VERSION_CODES.ICE_CREAM_SANDWICH || this.application!=null)
+            return;
+
+        this.activity=activity;
+        this.application=activity.getApplication();
+        this.application.registerComponentCallbacks(this);
+        this.application.registerActivityLifecycleCallbacks(this);
+    }
+
+    /** Unregister callbacks */
+    public void unregister()
+    {
+        if (this.application==null)
+            return;
+
+        this.application.unregisterComponentCallbacks(this);
+        this.application.unregisterActivityLifecycleCallbacks(this);
+        this.application=null;
+        this.activity=null;
+    }
+
+    // ComponentCallbacks2 Implementation
+
+    @Override
+    public void onTrimMemory(int level)
+    {
+        ExtensionLog.d("MemoryTrimmer.onTrimMemory({})", level);
+
+        if (level>=TRIM_MEMORY_UI_HIDDEN)
+        {
+            this.trimmedHidden=true;
+        }
+
+        if (level>=TRIM_MEMORY_BACKGROUND)
+        {
+            YouTubePlayerPool.trim(YouTubePlayerAdapter.TRIM_VIEWS, false);
+        }
+        else if (level>=TRIM_MEMORY_UI_HIDDEN)
+        {
+            YouTubePlayerPool.trim(YouTubePlayerAdapter.TRIM_PLAYER, false);
+        }
+        else if (level>=TRIM_MEMORY_RUNNING_CRITICAL)
+        {
+            YouTubePlayerPool.trim(YouTubePlayerAdapter.TRIM_VIEWS, true);
+        }
+        else if (level>=TRIM_MEMORY_RUNNING_LOW)
+        {
+            YouTubePlayerPool.trim(YouTubePlayerAdapter.TRIM_PLAYER, true);
+        }
+    }
+
+    @Override
+    public void onLowMemory()
+    {
+        ExtensionLog.d("MemoryTrimmer.onLowMemory()");
+
+        YouTubePlayerPool.trim(YouTubePlayerAdapter.TRIM_VIEWS, true);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig)
+    {
+    }
+
+    // Application.ActivityLifecycleCallbacks Implementation
+
+    @Override
+    public void onActivityStarted(Activity activity)
+    {
+        if (activity!=this.activity || !this.trimmedHidden)
+            return;
+
+        ExtensionLog.d("MemoryTrimmer.onActivityStarted() restoring players");
+
+        this.trimmedHidden=false;
+        YouTubePlayerPool.restore();
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState)
+    {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity)
+    {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity)
+    {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity)
+    {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState)
+    {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity)
+    {
+    }
+}
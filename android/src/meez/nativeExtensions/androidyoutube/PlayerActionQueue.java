@@ -0,0 +1,164 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * Bounded queue of PlayerActions that coalesces superseded actions while they are pending
+ *
+ * - a load supersedes any pending load, cue, seek, play or pause
+ * - a cue supersedes any pending cue
+ * - a seek supersedes any pending seek
+ * - a play or pause supersedes any pending play or pause, so only the newest playback intent is kept
+ */
+public class PlayerActionQueue
+{
+    // Definitions
+
+    /** Default capacity */
+    public static final int DEFAULT_CAPACITY=32;
+
+    // Instance vars
+
+    /** Pending actions, in execution order */
+    private final YouTubePlayerAdapter.PlayerAction[] actions;
+
+    /** Enqueue times of pending actions */
+    private final long[] enqueueTimes;
+
+    /** Number of pending actions */
+    private int size;
+
+    /** Number of actions removed by coalescing */
+    private int mergedCount;
+
+    /** Number of actions dropped because the queue was full */
+    private int droppedCount;
+
+    // Public Methods
+
+    /** Create a new PlayerActionQueue */
+    public PlayerActionQueue(int capacity)
+    {
+        if (capacity<1)
+            throw new IllegalArgumentException("Invalid capacity ("+capacity+")");
+
+        this.actions=new YouTubePlayerAdapter.PlayerAction[capacity];
+        this.enqueueTimes=new long[capacity];
+    }
+
+    /** Add action, coalescing with pending actions */
+    public void add(YouTubePlayerAdapter.PlayerAction action, long enqueueTime)
+    {
+        switch (action.getType())
+        {
+            case LOAD:
+                removeType(YouTubePlayerAdapter.ActionType.LOAD);
+                removeType(YouTubePlayerAdapter.ActionType.CUE);
+                removeType(YouTubePlayerAdapter.ActionType.SEEK);
+                removeType(YouTubePlayerAdapter.ActionType.PLAY);
+                removeType(YouTubePlayerAdapter.ActionType.PAUSE);
+                break;
+
+            case CUE:
+                removeType(YouTubePlayerAdapter.ActionType.CUE);
+                break;
+
+            case SEEK:
+                removeType(YouTubePlayerAdapter.ActionType.SEEK);
+                break;
+
+            case PLAY:
+            case PAUSE:
+                removeType(YouTubePlayerAdapter.ActionType.PLAY);
+                removeType(YouTubePlayerAdapter.ActionType.PAUSE);
+                break;
+
+            default:
+                break;
+        }
+
+        if (this.size==this.actions.length)
+        {
+            // drop oldest
+            removeAt(0);
+            this.droppedCount++;
+        }
+        this.enqueueTimes[this.size]=enqueueTime;
+        this.actions[this.size++]=action;
+    }
+
+    /** Enqueue time of the oldest action */
+    public long peekEnqueueTime()
+    {
+        if (this.size==0)
+            throw new IllegalStateException("Queue is empty");
+
+        return this.enqueueTimes[0];
+    }
+
+    /** Remove and return the oldest action, or null if empty */
+    public YouTubePlayerAdapter.PlayerAction poll()
+    {
+        if (this.size==0)
+            return null;
+
+        YouTubePlayerAdapter.PlayerAction action = this.actions[0];
+        removeAt(0);
+        return action;
+    }
+
+    /** Is empty */
+    public boolean isEmpty()
+    {
+        return this.size==0;
+    }
+
+    /** Number of pending actions */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /** Clear pending actions */
+    public void clear()
+    {
+        for (int i=0; i<this.size; i++)
+        {
+            this.actions[i]=null;
+        }
+        this.size=0;
+    }
+
+    /** Number of actions removed by coalescing */
+    public int getMergedCount()
+    {
+        return this.mergedCount;
+    }
+
+    /** Number of actions dropped because the queue was full */
+    public int getDroppedCount()
+    {
+        return this.droppedCount;
+    }
+
+    // Implementation
+
+    /** Remove all pending actions of type */
+    private void removeType(YouTubePlayerAdapter.ActionType type)
+    {
+        for (int i=this.size-1; i>=0; i--)
+        {
+            if (this.actions[i].getType()==type)
+            {
+                removeAt(i);
+                this.mergedCount++;
+            }
+        }
+    }
+
+    /** Remove action at index */
+    private void removeAt(int index)
+    {
+        System.arraycopy(this.actions, index+1, this.actions, index, this.size-index-1);
+        System.arraycopy(this.enqueueTimes, index+1, this.enqueueTimes, index, this.size-index-1);
+        this.actions[--this.size]=null;
+    }
+}
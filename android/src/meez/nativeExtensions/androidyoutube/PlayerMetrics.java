@@ -0,0 +1,189 @@
+package meez.nativeExtensions.androidyoutube;
+
+/**
+ * Command-to-effect timings for a player
+ *
+ * Actions are timestamped when requested (their command claimed, @see CommandProtocol.Command.claimTime),
+ * dequeued and executed, and matched to the listener callback that shows their effect (e.g. a load to the
+ * first onPlaying). Seeks are timed by SeekController, from the request of the final target of coalesced
+ * seeks to the player settling. Timings use SystemClock.uptimeMillis(). Recording does not allocate, so
+ * metrics are always on.
+ */
+public class PlayerMetrics
+{
+    // Instance vars
+
+    /** init() to player ready */
+    private final LatencyHistogram startup;
+
+    /** Action requested to dequeued */
+    private final LatencyHistogram queueWait;
+
+    /** Action run() duration */
+    private final LatencyHistogram execute;
+
+    /** Load or cue requested to onLoaded */
+    private final LatencyHistogram loaded;
+
+    /** Load requested to first onPlaying */
+    private final LatencyHistogram firstFrame;
+
+    /** Play enqueued to onPlaying */
+    private final LatencyHistogram play;
+
+    /** Final seek target requested to settled (@see SeekController) */
+    private final LatencyHistogram seek;
+
+    /** Buffering stall duration */
+    private final LatencyHistogram stall;
+
+    /** All histograms */
+    private final LatencyHistogram[] histograms;
+
+    /** init() time (0 if none) */
+    private long initTime;
+
+    /** Enqueue time of load or cue awaiting onLoaded (0 if none) */
+    private long pendingLoadedTime;
+
+    /** Enqueue time of load awaiting first frame (0 if none) */
+    private long pendingLoadTime;
+
+    /** Enqueue time of play awaiting onPlaying (0 if none) */
+    private long pendingPlayTime;
+
+    /** Buffering start time (0 if not buffering) */
+    private long stallStartTime;
+
+    // Public Methods
+
+    /** Create a new PlayerMetrics */
+    public PlayerMetrics()
+    {
+        this.startup=new LatencyHistogram("startup");
+        this.queueWait=new LatencyHistogram("queueWait");
+        this.execute=new LatencyHistogram("execute");
+        this.loaded=new LatencyHistogram("loaded");
+        this.firstFrame=new LatencyHistogram("firstFrame");
+        this.play=new LatencyHistogram("play");
+        this.seek=new LatencyHistogram("seek");
+        this.stall=new LatencyHistogram("stall");
+        this.histograms=new LatencyHistogram[]{this.startup, this.queueWait, this.execute, this.loaded, this.firstFrame, this.play, this.seek, this.stall};
+    }
+
+    /** On init() */
+    public void onInit(long now)
+    {
+        this.initTime=now;
+    }
+
+    /** On player ready */
+    public void onReady(long now)
+    {
+        if (this.initTime!=0)
+        {
+            this.startup.record(now-this.initTime);
+            this.initTime=0;
+        }
+    }
+
+    /** On action executed */
+    public void onActionExecuted(YouTubePlayerAdapter.ActionType type, long enqueueTime, long dequeueTime, long endTime)
+    {
+        this.queueWait.record(dequeueTime-enqueueTime);
+        this.execute.record(endTime-dequeueTime);
+
+        switch (type)
+        {
+            case LOAD:
+                this.pendingLoadedTime=enqueueTime;
+                this.pendingLoadTime=enqueueTime;
+                this.pendingPlayTime=0;
+                break;
+
+            case CUE:
+                this.pendingLoadedTime=enqueueTime;
+                break;
+
+            case PLAY:
+                this.pendingPlayTime=enqueueTime;
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /** On video loaded */
+    public void onLoaded(long now)
+    {
+        if (this.pendingLoadedTime!=0)
+        {
+            this.loaded.record(now-this.pendingLoadedTime);
+            this.pendingLoadedTime=0;
+        }
+    }
+
+    /** On playing */
+    public void onPlaying(long now)
+    {
+        if (this.pendingLoadTime!=0)
+        {
+            this.firstFrame.record(now-this.pendingLoadTime);
+            this.pendingLoadTime=0;
+        }
+        if (this.pendingPlayTime!=0)
+        {
+            this.play.record(now-this.pendingPlayTime);
+            this.pendingPlayTime=0;
+        }
+        onBuffering(false, now);
+    }
+
+    /** On buffering */
+    public void onBuffering(boolean isBuffering, long now)
+    {
+        if (isBuffering)
+        {
+            if (this.stallStartTime==0)
+            {
+                this.stallStartTime=now;
+            }
+            return;
+        }
+
+        if (this.stallStartTime!=0)
+        {
+            this.stall.record(now-this.stallStartTime);
+            this.stallStartTime=0;
+        }
+    }
+
+    /** Record seek latency (@see SeekController) */
+    public void recordSeek(long millis)
+    {
+        this.seek.record(millis);
+    }
+
+    /** Append snapshot as histograms separated by ';' (@see LatencyHistogram.appendTo) */
+    public void appendTo(StringBuilder sb)
+    {
+        for (int i=0; i<this.histograms.length; i++)
+        {
+            if (i>0)
+            {
+                sb.append(';');
+            }
+            this.histograms[i].appendTo(sb);
+        }
+    }
+
+    /** Reset histograms */
+    public void reset()
+    {
+        for (LatencyHistogram histogram : this.histograms)
+        {
+            histogram.reset();
+        }
+    }
+}
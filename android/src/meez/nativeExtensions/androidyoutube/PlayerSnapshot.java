@@ -0,0 +1,45 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.List;
+
+/**
+ * Playback state of a player, taken before the player is released so it can be restored
+ */
+public class PlayerSnapshot
+{
+    // Instance vars
+
+    /** Video Id */
+    public final String videoId;
+
+    /** Position in milliseconds */
+    public final int positionMillis;
+
+    /** Was the video playing */
+    public final boolean playing;
+
+    /** Playlist video ids (null if not playing a playlist) */
+    public final List<String> playlist;
+
+    /** Index of video in playlist */
+    public final int playlistIndex;
+
+    // Public Methods
+
+    /** Create a new PlayerSnapshot */
+    public PlayerSnapshot(String videoId, int positionMillis, boolean playing, List<String> playlist, int playlistIndex)
+    {
+        this.videoId=videoId;
+        this.positionMillis=positionMillis;
+        this.playing=playing;
+        this.playlist=playlist;
+        this.playlistIndex=playlistIndex;
+    }
+
+    @Override
+    public String toString()
+    {
+        String item = (this.playlist!=null) ? " ("+this.playlistIndex+"/"+this.playlist.size()+")" : "";
+        return this.videoId+item+"@"+this.positionMillis+(this.playing ? " playing" : " paused");
+    }
+}
@@ -0,0 +1,258 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.Random;
+
+/**
+ * Recovers a player from transient errors (@see ErrorClassifier)
+ *
+ * Playback is retried from the last known position after a jittered exponential backoff, in a new player
+ * if the YouTube service disconnected. Actionscript is sent one outcome per recovery: a 'playerRecovered'
+ * data message once playback resumes, or the original error when retries are exhausted. Main thread only.
+ */
+public class RecoveryController
+{
+    // Definitions
+
+    /** Default maximum retries per recovery */
+    public static final int DEFAULT_MAX_ATTEMPTS=3;
+
+    /** Default base backoff delay (ms) */
+    public static final long DEFAULT_BASE_DELAY=500;
+
+    /** Maximum backoff delay (ms) */
+    private static final long MAX_DELAY=10000;
+
+    // Instance vars
+
+    /** Adapter */
+    private final YouTubePlayerAdapter adapter;
+
+    /** Main thread handler */
+    private final Handler handler;
+
+    /** Runs next retry */
+    private final Runnable retryRunnable;
+
+    /** Backoff jitter */
+    private final Random random;
+
+    /** Maximum retries per recovery. 0 disables recovery */
+    private int maxAttempts;
+
+    /** Base backoff delay (ms) */
+    private long baseDelay;
+
+    /** Is a recovery in progress */
+    private boolean recovering;
+
+    /** Retries made in current recovery */
+    private int attempt;
+
+    /** Error being recovered */
+    private ErrorClassifier.Classification error;
+
+    /** Resumes playback where the error occurred */
+    private YouTubePlayerAdapter.PlayerAction resumeAction;
+
+    /** Time recovery started */
+    private long startTime;
+
+    /** Number of retries */
+    private int retryCount;
+
+    /** Number of recoveries that resumed playback */
+    private int recoveredCount;
+
+    /** Number of recoveries that failed */
+    private int failedCount;
+
+    /** Recovery times (error to playback resumed) */
+    private final LatencyHistogram recoveryTime;
+
+    // Public Methods
+
+    /** Create a new RecoveryController */
+    public RecoveryController(YouTubePlayerAdapter adapter)
+    {
+        this.adapter=adapter;
+        this.maxAttempts=DEFAULT_MAX_ATTEMPTS;
+        this.baseDelay=DEFAULT_BASE_DELAY;
+        this.random=new Random();
+        this.recoveryTime=new LatencyHistogram("recoveryTime");
+        this.handler=new Handler(Looper.getMainLooper());
+        this.retryRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                retry();
+            }
+        };
+    }
+
+    /**
+     * Set policy
+     * @param maxAttempts Maximum retries per recovery. 0 disables recovery
+     * @param baseDelay Base backoff delay (ms). Retry n is delayed by baseDelay*2^n, with up to half of it jittered
+     */
+    public void setPolicy(int maxAttempts, long baseDelay)
+    {
+        if (maxAttempts<0 || baseDelay<0)
+            throw new IllegalArgumentException("Invalid recovery policy ("+maxAttempts+","+baseDelay+")");
+
+        this.maxAttempts=maxAttempts;
+        this.baseDelay=baseDelay;
+    }
+
+    /**
+     * On player error
+     * @return true if the error is being recovered (Actionscript is not notified yet), false if it must be sent
+     */
+    public boolean onError(ErrorClassifier.Classification classification)
+    {
+        switch (classification.recovery)
+        {
+            case NOTIFY:
+                return false;
+
+            case FAIL:
+                finish(false);
+                return false;
+
+            default:
+                break;
+        }
+
+        if (!this.recovering)
+        {
+            if (this.maxAttempts==0)
+                return false;
+
+            this.resumeAction=this.adapter.createResumeAction();
+            if (this.resumeAction==null)
+                return false;
+
+            this.recovering=true;
+            this.attempt=0;
+            this.startTime=SystemClock.uptimeMillis();
+        }
+
+        this.error=classification;
+
+        if (this.attempt>=this.maxAttempts)
+        {
+            ExtensionLog.w("RecoveryController: giving up after {} retries ({})", this.attempt, classification.msg);
+            finish(false);
+            return false;
+        }
+
+        long delay = getBackoff(this.attempt);
+        ExtensionLog.d("RecoveryController: retry {} in {}ms", this.attempt+1, (int)delay);
+        this.handler.removeCallbacks(this.retryRunnable);
+        this.handler.postAtTime(this.retryRunnable, SystemClock.uptimeMillis()+delay);
+        return true;
+    }
+
+    /**
+     * On playing
+     * @return true if this completes a recovery ('playerRecovered' must be sent)
+     */
+    public boolean onPlaying(long now)
+    {
+        if (!this.recovering)
+            return false;
+
+        this.recoveryTime.record(now-this.startTime);
+        finish(true);
+        return true;
+    }
+
+    /**
+     * On player initialization failed
+     * @return Error to send if a recovery failed, or null
+     */
+    public ErrorClassifier.Classification onInitializationFailure()
+    {
+        if (!this.recovering)
+            return null;
+
+        ErrorClassifier.Classification failed = this.error;
+        finish(false);
+        return failed;
+    }
+
+    /** Is a recovery in progress */
+    public boolean isRecovering()
+    {
+        return this.recovering;
+    }
+
+    /** Cancel recovery without an outcome (e.g. superseded by a new video) */
+    public void cancel()
+    {
+        if (!this.recovering)
+            return;
+
+        this.handler.removeCallbacks(this.retryRunnable);
+        this.recovering=false;
+        this.resumeAction=null;
+        this.error=null;
+    }
+
+    /** Append 'recovery:retries,recovered,failed;' and the recovery time histogram */
+    public void appendTo(StringBuilder sb)
+    {
+        sb.append("recovery:").append(this.retryCount).append(',').append(this.recoveredCount).append(',').append(this.failedCount);
+        sb.append(';');
+        this.recoveryTime.appendTo(sb);
+    }
+
+    // Implementation
+
+    /** Backoff before retry n: baseDelay*2^n, capped, with the upper half jittered */
+    private long getBackoff(int n)
+    {
+        long delay = Math.min(MAX_DELAY, this.baseDelay << Math.min(n, 16));
+        long half = delay/2;
+        return half + (half>0 ? (long)(this.random.nextDouble()*(delay-half)) : 0);
+    }
+
+    /** Retry */
+    private void retry()
+    {
+        if (!this.recovering)
+            return;
+
+        this.attempt++;
+        this.retryCount++;
+
+        ExtensionLog.d("RecoveryController: retry {} ({})", this.attempt, this.error.recovery);
+
+        if (this.error.recovery==ErrorClassifier.Recovery.REINIT)
+        {
+            this.adapter.reinitialize();
+        }
+        this.adapter.execute(this.resumeAction);
+    }
+
+    /** Finish recovery */
+    private void finish(boolean recovered)
+    {
+        if (!this.recovering)
+            return;
+
+        if (recovered)
+        {
+            this.recoveredCount++;
+        }
+        else
+        {
+            this.failedCount++;
+        }
+        cancel();
+    }
+}
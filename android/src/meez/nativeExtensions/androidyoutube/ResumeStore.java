@@ -0,0 +1,459 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resume positions by video id, persisted in a memory-mapped file
+ *
+ * Lookups and updates use an in-memory LRU index, so they are O(1) and never wait on disk. The file is
+ * read, and slots are written, on a single worker thread. The store holds at most SLOT_COUNT videos;
+ * the least recently used is evicted. Positions stored before the file is loaded are written once it is.
+ *
+ * File layout (big endian):
+ *   [0]   magic       (int32)
+ *   [4]   slot count  (int32)
+ *   [8..] slots of SLOT_SIZE bytes:
+ *     [0]   last used    (int64, wall clock ms; 0 if empty)
+ *     [8]   position ms  (int32)
+ *     [12]  id length    (uint8)
+ *     [13]  id           (ASCII)
+ */
+public class ResumeStore
+{
+    // Definitions
+
+    /** File name, in the application files dir */
+    public static final String FILE_NAME="youtube_resume.dat";
+
+    /** Number of slots */
+    public static final int SLOT_COUNT=128;
+
+    /** Slot size */
+    private static final int SLOT_SIZE=80;
+
+    /** Header size */
+    private static final int HEADER_SIZE=8;
+
+    /** File magic */
+    private static final int MAGIC=0x59545253;
+
+    /** VideoId charset */
+    private static final Charset ASCII=Charset.forName("US-ASCII");
+
+    /** Entry */
+    private static final class Entry
+    {
+        /** Video Id */
+        final String videoId;
+
+        /** Position */
+        int positionMillis;
+
+        /** Last used (wall clock ms) */
+        long lastUsed;
+
+        /** File slot (-1 if not yet written) */
+        int slot;
+
+        /** Create a new Entry */
+        Entry(String videoId, int slot)
+        {
+            this.videoId=videoId;
+            this.slot=slot;
+        }
+    }
+
+    // Instance vars
+
+    /** Entries, in least recently used order (guarded by itself) */
+    private final LinkedHashMap<String, Entry> index;
+
+    /** Free file slots (worker only) */
+    private final List<Integer> freeSlots;
+
+    /** File worker */
+    private final ExecutorService worker;
+
+    /** Mapped file (worker only, null if not open) */
+    private MappedByteBuffer buffer;
+
+    /** File */
+    private RandomAccessFile file;
+
+    // Public Methods
+
+    /** Create a new ResumeStore */
+    public ResumeStore()
+    {
+        this.index=new LinkedHashMap<String, Entry>(SLOT_COUNT*2, 0.75f, true);
+        this.freeSlots=new ArrayList<Integer>(SLOT_COUNT);
+        this.worker=Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "AndroidYouTube-ResumeStore");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Open store, loading it in the background. Lookups before it is loaded miss */
+    public void open(Context context)
+    {
+        final File path = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                load(path);
+            }
+        });
+    }
+
+    /** Close store, after pending writes */
+    public void close()
+    {
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                closeFile();
+            }
+        });
+        this.worker.shutdown();
+    }
+
+    /** Wait until close() has flushed and closed the file (e.g. before it is opened again). Returns false on timeout */
+    public boolean awaitClosed(long timeoutMillis) throws InterruptedException
+    {
+        return this.worker.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Get resume position for video (0 if none) */
+    public int get(String videoId)
+    {
+        synchronized (this.index)
+        {
+            Entry entry = this.index.get(videoId);
+            return (entry!=null) ? entry.positionMillis : 0;
+        }
+    }
+
+    /** Store resume position for video */
+    public void put(String videoId, int positionMillis)
+    {
+        if (videoId==null || videoId.length()>CommandProtocol.MAX_VIDEO_ID_LENGTH)
+            return;
+
+        final Entry entry;
+        final int evictedSlot;
+        synchronized (this.index)
+        {
+            Entry current = this.index.get(videoId);
+            if (current==null)
+            {
+                current=new Entry(videoId, -1);
+                this.index.put(videoId, current);
+            }
+            current.positionMillis=Math.max(0, positionMillis);
+            current.lastUsed=System.currentTimeMillis();
+            entry=current;
+            evictedSlot=evict();
+        }
+
+        if (evictedSlot>=0)
+        {
+            clearAsync(evictedSlot);
+        }
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                write(entry);
+            }
+        });
+    }
+
+    /** Remove resume position for video (e.g. watched to the end) */
+    public void remove(String videoId)
+    {
+        if (videoId==null)
+            return;
+
+        Entry entry;
+        synchronized (this.index)
+        {
+            entry=this.index.remove(videoId);
+        }
+
+        if (entry!=null && entry.slot>=0)
+        {
+            clearAsync(entry.slot);
+        }
+    }
+
+    // Implementation
+
+    /** Evict least recently used entry if over capacity. Returns its slot to clear (-1 if none), or -2 if not over capacity (index lock held) */
+    private int evict()
+    {
+        if (this.index.size()<=SLOT_COUNT)
+            return -2;
+
+        Iterator<Entry> it = this.index.values().iterator();
+        Entry eldest = it.next();
+        it.remove();
+        return eldest.slot;
+    }
+
+    /** Run on the worker (dropped once closed) */
+    private void submit(Runnable task)
+    {
+        try
+        {
+            this.worker.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            ExtensionLog.d("ResumeStore: closed, update dropped");
+        }
+    }
+
+    /** Clear slot on the worker */
+    private void clearAsync(final int slot)
+    {
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                clear(slot);
+            }
+        });
+    }
+
+    /** Clear slot, then free it (worker) */
+    private void clear(int slot)
+    {
+        if (this.buffer!=null)
+        {
+            this.buffer.putLong(slotOffset(slot), 0);
+        }
+        this.freeSlots.add(slot);
+    }
+
+    /** Write entry to its slot, assigning one if needed (worker) */
+    private void write(Entry entry)
+    {
+        if (this.buffer==null)
+            return;
+
+        int slot;
+        int position;
+        long lastUsed;
+        synchronized (this.index)
+        {
+            // removed or evicted since
+            if (this.index.get(entry.videoId)!=entry)
+                return;
+
+            if (entry.slot<0)
+            {
+                entry.slot=takeSlot(entry);
+                if (entry.slot<0)
+                {
+                    ExtensionLog.w("ResumeStore: no slot for ({}), position not persisted", entry.videoId);
+                    return;
+                }
+            }
+            slot=entry.slot;
+            position=entry.positionMillis;
+            lastUsed=entry.lastUsed;
+        }
+
+        byte[] id = entry.videoId.getBytes(ASCII);
+        int offset = slotOffset(slot);
+        this.buffer.putLong(offset, lastUsed);
+        this.buffer.putInt(offset+8, position);
+        this.buffer.put(offset+12, (byte)id.length);
+        for (int i=0; i<id.length; i++)
+        {
+            this.buffer.put(offset+13+i, id[i]);
+        }
+    }
+
+    /**
+     * Take a free slot for entry. If none is free, evicts the least recently used entry holding a slot and
+     * reuses its slot. Returns -1 if no other entry holds one (worker, index lock held)
+     */
+    private int takeSlot(Entry entry)
+    {
+        if (!this.freeSlots.isEmpty())
+            return this.freeSlots.remove(this.freeSlots.size()-1);
+
+        Iterator<Entry> it = this.index.values().iterator();
+        while (it.hasNext())
+        {
+            Entry eldest = it.next();
+            if (eldest!=entry && eldest.slot>=0)
+            {
+                ExtensionLog.d("ResumeStore: no free slot, evicting ({})", eldest.videoId);
+                it.remove();
+                return eldest.slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Map file and load entries into the index (worker) */
+    private void load(File path)
+    {
+        final List<Entry> loaded = new ArrayList<Entry>();
+        try
+        {
+            this.file=new RandomAccessFile(path, "rw");
+            int size = HEADER_SIZE+SLOT_COUNT*SLOT_SIZE;
+            boolean valid = (this.file.length()==size);
+            this.file.setLength(size);
+            this.buffer=this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (!valid || this.buffer.getInt(0)!=MAGIC || this.buffer.getInt(4)!=SLOT_COUNT)
+            {
+                ExtensionLog.d("ResumeStore: creating ({})", path);
+                for (int i=0; i<size; i++)
+                {
+                    this.buffer.put(i, (byte)0);
+                }
+                this.buffer.putInt(0, MAGIC);
+                this.buffer.putInt(4, SLOT_COUNT);
+            }
+
+            byte[] id = new byte[CommandProtocol.MAX_VIDEO_ID_LENGTH];
+            for (int slot=0; slot<SLOT_COUNT; slot++)
+            {
+                int offset = slotOffset(slot);
+                long lastUsed = this.buffer.getLong(offset);
+                int length = this.buffer.get(offset+12) & 0xFF;
+                if (lastUsed==0 || length==0 || length>id.length)
+                {
+                    this.freeSlots.add(slot);
+                    continue;
+                }
+
+                for (int i=0; i<length; i++)
+                {
+                    id[i]=this.buffer.get(offset+13+i);
+                }
+                Entry entry = new Entry(new String(id, 0, length, ASCII), slot);
+                entry.positionMillis=this.buffer.getInt(offset+8);
+                entry.lastUsed=lastUsed;
+                loaded.add(entry);
+            }
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("ResumeStore: could not open file, positions are not persisted", t);
+            closeFile();
+            return;
+        }
+
+        // least recently used first
+        Collections.sort(loaded, new Comparator<Entry>()
+        {
+            @Override
+            public int compare(Entry a, Entry b)
+            {
+                return (a.lastUsed<b.lastUsed) ? -1 : ((a.lastUsed==b.lastUsed) ? 0 : 1);
+            }
+        });
+
+        List<Entry> recent;
+        synchronized (this.index)
+        {
+            // entries stored before loading are newer, keep them
+            recent=new ArrayList<Entry>(this.index.values());
+            this.index.clear();
+            for (Entry entry : loaded)
+            {
+                this.index.put(entry.videoId, entry);
+            }
+            for (Entry entry : recent)
+            {
+                Entry stale = this.index.put(entry.videoId, entry);
+                if (stale!=null)
+                {
+                    entry.slot=stale.slot;
+                }
+            }
+
+            int slot;
+            while ((slot=evict())!=-2)
+            {
+                if (slot>=0)
+                {
+                    clear(slot);
+                }
+            }
+        }
+
+        // their writes ran before the file was mapped, or are still pending (and then rewrite the same slot)
+        for (Entry entry : recent)
+        {
+            write(entry);
+        }
+
+        ExtensionLog.d("ResumeStore: loaded {} positions", loaded.size());
+    }
+
+    /** Flush and close file (worker) */
+    private void closeFile()
+    {
+        try
+        {
+            if (this.buffer!=null)
+            {
+                this.buffer.force();
+            }
+            if (this.file!=null)
+            {
+                this.file.close();
+            }
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("ResumeStore: could not close file", t);
+        }
+        this.buffer=null;
+        this.file=null;
+    }
+
+    /** Offset of slot */
+    private static int slotOffset(int slot)
+    {
+        return HEADER_SIZE+slot*SLOT_SIZE;
+    }
+}
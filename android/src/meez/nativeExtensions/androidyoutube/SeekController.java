@@ -0,0 +1,221 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.google.android.youtube.player.YouTubePlayer;
+
+/**
+ * Throttles seeks to a player (e.g. from a scrubber being dragged)
+ *
+ * A seek is applied immediately if none was applied within the window. Seeks within the window are
+ * coalesced, and the latest target is applied when the window ends, so at most one seek per window
+ * reaches the YouTube service and the final target is always applied. Settle latency is measured from
+ * the request of the applied final target to the player settling (playing, paused or buffering ended)
+ * after reporting the seek with onSeekTo; a new load discards it (@see PlayerMetrics). Main thread only.
+ */
+public class SeekController
+{
+    // Definitions
+
+    /** Default window (ms) */
+    public static final long DEFAULT_WINDOW=250;
+
+    // Instance vars
+
+    /** Adapter */
+    private final YouTubePlayerAdapter adapter;
+
+    /** Main thread handler */
+    private final Handler handler;
+
+    /** Applies pending target */
+    private final Runnable applyPendingRunnable;
+
+    /** Window (ms). 0 applies every seek */
+    private long window;
+
+    /** Time last seek was applied (0 if none) */
+    private long lastApplyTime;
+
+    /** Is a target pending */
+    private boolean pending;
+
+    /** Pending target (ms) */
+    private int pendingTarget;
+
+    /** Request time of pending target */
+    private long pendingRequestTime;
+
+    /** Request time of applied target awaiting settle (0 if none) */
+    private long appliedRequestTime;
+
+    /** Has the player reported the applied target (onSeekTo) */
+    private boolean appliedReached;
+
+    /** Number of seeks requested */
+    private int requestCount;
+
+    /** Number of seeks applied */
+    private int appliedCount;
+
+    // Public Methods
+
+    /** Create a new SeekController */
+    public SeekController(YouTubePlayerAdapter adapter)
+    {
+        this.adapter=adapter;
+        this.window=DEFAULT_WINDOW;
+        this.handler=new Handler(Looper.getMainLooper());
+        this.applyPendingRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                applyPending();
+            }
+        };
+    }
+
+    /** Set window (ms). 0 applies every seek */
+    public void setWindow(long window)
+    {
+        if (window<0)
+            throw new IllegalArgumentException("Invalid seek window ("+window+")");
+
+        this.window=window;
+    }
+
+    /** Seek to target (ms), requested now */
+    public void seek(int targetMillis)
+    {
+        seek(targetMillis, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Seek to target (ms)
+     * @param requestTime Time the seek was requested (uptime), e.g. when its command was claimed
+     */
+    public void seek(int targetMillis, long requestTime)
+    {
+        long now = SystemClock.uptimeMillis();
+        this.requestCount++;
+
+        long windowEnd = this.lastApplyTime+this.window;
+        if (this.lastApplyTime==0 || now>=windowEnd)
+        {
+            cancel();
+            apply(targetMillis, requestTime, now);
+            return;
+        }
+
+        this.pendingTarget=targetMillis;
+        this.pendingRequestTime=requestTime;
+        if (!this.pending)
+        {
+            this.pending=true;
+            this.handler.postAtTime(this.applyPendingRunnable, windowEnd);
+        }
+    }
+
+    /** On player reporting a seek (onSeekTo) */
+    public void onSeekTo()
+    {
+        if (this.appliedRequestTime!=0)
+        {
+            this.appliedReached=true;
+        }
+    }
+
+    /** On player settled (playing, paused or buffering ended). Only counts after the applied target was reported */
+    public void onSettled(long now)
+    {
+        // intermediate seeks do not count, only the final target
+        if (this.pending || this.appliedRequestTime==0 || !this.appliedReached)
+            return;
+
+        this.adapter.getMetrics().recordSeek(now-this.appliedRequestTime);
+        this.appliedRequestTime=0;
+        this.appliedReached=false;
+    }
+
+    /** On new video loaded or cued: drops the pending target, and the applied target awaiting settle */
+    public void reset()
+    {
+        cancel();
+        this.appliedRequestTime=0;
+        this.appliedReached=false;
+    }
+
+    /** Cancel pending target */
+    public void cancel()
+    {
+        if (!this.pending)
+            return;
+
+        this.handler.removeCallbacks(this.applyPendingRunnable);
+        this.pending=false;
+    }
+
+    /** Number of seeks requested */
+    public int getRequestCount()
+    {
+        return this.requestCount;
+    }
+
+    /** Number of seeks applied */
+    public int getAppliedCount()
+    {
+        return this.appliedCount;
+    }
+
+    // Implementation
+
+    /** Apply pending target */
+    private void applyPending()
+    {
+        if (!this.pending)
+            return;
+
+        this.pending=false;
+        apply(this.pendingTarget, this.pendingRequestTime, SystemClock.uptimeMillis());
+    }
+
+    /** Apply target */
+    private void apply(int targetMillis, long requestTime, long now)
+    {
+        this.lastApplyTime=now;
+        this.appliedRequestTime=requestTime;
+        this.appliedReached=false;
+        this.appliedCount++;
+        this.adapter.execute(createSeekAction(targetMillis), requestTime);
+    }
+
+    /** Create seek action, clamped to the cached duration */
+    private YouTubePlayerAdapter.PlayerAction createSeekAction(final int targetMillis)
+    {
+        return new YouTubePlayerAdapter.PlayerAction()
+        {
+            @Override
+            public YouTubePlayerAdapter.ActionType getType()
+            {
+                return YouTubePlayerAdapter.ActionType.SEEK;
+            }
+
+            @Override
+            public void run(YouTubePlayer player) throws Exception
+            {
+                int dur = adapter.getDurationMillis();
+                int timeInMilliseconds = targetMillis;
+
+                // prevent seeking past video end
+                if (dur>0 && timeInMilliseconds>=dur)
+                {
+                    // go back 1 second from video end
+                    timeInMilliseconds = Math.max(0, dur-1000);
+                }
+                player.seekToMillis(timeInMilliseconds);
+            }
+        };
+    }
+}
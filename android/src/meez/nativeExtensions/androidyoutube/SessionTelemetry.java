@@ -0,0 +1,212 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/**
+ * Playback session summary for the current video
+ *
+ * Aggregated natively from player events, so Actionscript receives one summary per video instead of
+ * reconstructing it from state messages. A session starts when a video is started, and is published when
+ * it ends (@see YouTubePlayerAdapter). Times use SystemClock.uptimeMillis(). Main thread only.
+ */
+public class SessionTelemetry
+{
+    // Definitions
+
+    /** Error reasons, by ordinal */
+    private static final YouTubePlayer.ErrorReason[] ERROR_REASONS=YouTubePlayer.ErrorReason.values();
+
+    // Instance vars
+
+    /** Video Id (null if unknown) */
+    private String videoId;
+
+    /** Session start time (0 if no session) */
+    private long startTime;
+
+    /** Join time: start to first playing (-1 if not joined) */
+    private long joinMillis;
+
+    /** Number of rebuffers (buffering after joining) */
+    private int rebufferCount;
+
+    /** Total rebuffer stall time */
+    private long stallMillis;
+
+    /** Total time playing */
+    private long watchedMillis;
+
+    /** Time current play interval started (0 if not playing) */
+    private long playStartTime;
+
+    /** Time current stall started (0 if not stalled) */
+    private long stallStartTime;
+
+    /** Error counts, by ErrorReason ordinal */
+    private final int[] errorCounts;
+
+    // Public Methods
+
+    /** Create a new SessionTelemetry */
+    public SessionTelemetry()
+    {
+        this.errorCounts=new int[ERROR_REASONS.length];
+        reset();
+    }
+
+    /** Start a new session */
+    public void onStart(long now)
+    {
+        reset();
+        this.startTime=now;
+    }
+
+    /** Is a session active */
+    public boolean isActive()
+    {
+        return this.startTime!=0;
+    }
+
+    /** Video Id (null if unknown) */
+    public String getVideoId()
+    {
+        return this.videoId;
+    }
+
+    /** On video loaded */
+    public void onLoaded(String videoId)
+    {
+        this.videoId=videoId;
+    }
+
+    /** On playing */
+    public void onPlaying(long now)
+    {
+        if (!isActive())
+            return;
+
+        if (this.joinMillis<0)
+        {
+            this.joinMillis=now-this.startTime;
+        }
+        endStall(now);
+        if (this.playStartTime==0)
+        {
+            this.playStartTime=now;
+        }
+    }
+
+    /** On paused, stopped, ended or error */
+    public void onStopped(long now)
+    {
+        endPlay(now);
+        endStall(now);
+    }
+
+    /** On buffering */
+    public void onBuffering(boolean isBuffering, long now)
+    {
+        if (!isActive() || this.joinMillis<0)
+            return;
+
+        if (!isBuffering)
+        {
+            endStall(now);
+            return;
+        }
+
+        endPlay(now);
+        if (this.stallStartTime==0)
+        {
+            this.stallStartTime=now;
+            this.rebufferCount++;
+        }
+    }
+
+    /** On error */
+    public void onError(YouTubePlayer.ErrorReason reason, long now)
+    {
+        this.errorCounts[reason.ordinal()]++;
+        onStopped(now);
+    }
+
+    /**
+     * Append summary fields (as JSON, without braces):
+     *   "videoId":id, "join":ms (-1 if not joined), "rebuffers":n, "stall":ms, "watched":ms, "errors":{REASON:n}
+     * Open play and stall intervals are counted up to now.
+     */
+    public void appendTo(StringBuilder sb, long now)
+    {
+        long watched = this.watchedMillis + ((this.playStartTime!=0) ? now-this.playStartTime : 0);
+        long stall = this.stallMillis + ((this.stallStartTime!=0) ? now-this.stallStartTime : 0);
+
+        sb.append("\"videoId\":");
+        if (this.videoId!=null)
+        {
+            EventEncoder.appendQuoted(sb, this.videoId);
+        }
+        else
+        {
+            sb.append("null");
+        }
+        sb.append(",\"join\":").append(this.joinMillis)
+          .append(",\"rebuffers\":").append(this.rebufferCount)
+          .append(",\"stall\":").append(stall)
+          .append(",\"watched\":").append(watched)
+          .append(",\"errors\":{");
+
+        boolean first = true;
+        for (int i=0; i<this.errorCounts.length; i++)
+        {
+            if (this.errorCounts[i]==0)
+                continue;
+
+            if (!first)
+            {
+                sb.append(',');
+            }
+            first=false;
+            sb.append('"').append(ERROR_REASONS[i].name()).append("\":").append(this.errorCounts[i]);
+        }
+        sb.append('}');
+    }
+
+    /** Reset */
+    public void reset()
+    {
+        this.videoId=null;
+        this.startTime=0;
+        this.joinMillis=-1;
+        this.rebufferCount=0;
+        this.stallMillis=0;
+        this.watchedMillis=0;
+        this.playStartTime=0;
+        this.stallStartTime=0;
+        for (int i=0; i<this.errorCounts.length; i++)
+        {
+            this.errorCounts[i]=0;
+        }
+    }
+
+    // Implementation
+
+    /** End current play interval */
+    private void endPlay(long now)
+    {
+        if (this.playStartTime!=0)
+        {
+            this.watchedMillis+=now-this.playStartTime;
+            this.playStartTime=0;
+        }
+    }
+
+    /** End current stall */
+    private void endStall(long now)
+    {
+        if (this.stallStartTime!=0)
+        {
+            this.stallMillis+=now-this.stallStartTime;
+            this.stallStartTime=0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Player state for polling, kept updated from player callbacks and copied into a caller's buffer
+ *
+ * Layout (big endian int32s, matches default Actionscript ByteArray endian):
+ *   [0]   sequence     - incremented on every update
+ *   [4]   state        - STATE_* ordinal
+ *   [8]   position ms  - extrapolated to the time of the copy while playing
+ *   [12]  duration ms  - 0 if unknown
+ *   [16]  buffering    - 1 if buffering
+ *   [20]  error code   - code of last error sent to Actionscript, 0 if none since the last load
+ *
+ * Copying does not allocate.
+ */
+public class StateBuffer
+{
+    // Definitions
+
+    /** Size (bytes) */
+    public static final int SIZE=24;
+
+    /** State ordinals */
+    public static final int STATE_UNKNOWN=0;
+    public static final int STATE_UNSTARTED=1;
+    public static final int STATE_ENDED=2;
+    public static final int STATE_PLAYING=3;
+    public static final int STATE_PAUSED=4;
+    public static final int STATE_BUFFERING=5;
+    public static final int STATE_CUED=6;
+
+    // Instance vars
+
+    /** Sequence */
+    private int sequence;
+
+    /** State ordinal */
+    private int state;
+
+    /** Anchor position */
+    private int anchorPositionMillis;
+
+    /** Anchor uptime */
+    private long anchorUptime;
+
+    /** Anchor playback rate (0 when not advancing) */
+    private int anchorRate;
+
+    /** Duration */
+    private int durationMillis;
+
+    /** Is buffering */
+    private boolean buffering;
+
+    /** Last error code */
+    private int errorCode;
+
+    // Public Methods
+
+    /** Get state ordinal for player state (@see YouTubePlayerAdapter.PLAYER_STATE_*) */
+    public static int getStateOrdinal(String state)
+    {
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_UNSTARTED)
+            return STATE_UNSTARTED;
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_ENDED)
+            return STATE_ENDED;
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_PLAYING)
+            return STATE_PLAYING;
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_PAUSED)
+            return STATE_PAUSED;
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_BUFFERING)
+            return STATE_BUFFERING;
+        if (state==YouTubePlayerAdapter.PLAYER_STATE_CUED)
+            return STATE_CUED;
+        return STATE_UNKNOWN;
+    }
+
+    /** Set player state */
+    public synchronized void setState(String state)
+    {
+        this.state=getStateOrdinal(state);
+        if (this.state==STATE_UNSTARTED)
+        {
+            this.errorCode=0;
+        }
+        this.sequence++;
+    }
+
+    /** Set position anchor (@see TimeReporter) */
+    public synchronized void setAnchor(int positionMillis, long uptime, int rate, int durationMillis)
+    {
+        this.anchorPositionMillis=positionMillis;
+        this.anchorUptime=uptime;
+        this.anchorRate=rate;
+        this.durationMillis=durationMillis;
+        this.sequence++;
+    }
+
+    /** Set buffering */
+    public synchronized void setBuffering(boolean buffering)
+    {
+        this.buffering=buffering;
+        this.sequence++;
+    }
+
+    /** Set last error code */
+    public synchronized void setError(int code)
+    {
+        this.errorCode=code;
+        this.sequence++;
+    }
+
+    /**
+     * Copy into buffer, from its start
+     * @return sequence
+     */
+    public synchronized int copyTo(ByteBuffer dst)
+    {
+        if (dst.capacity()<SIZE)
+            throw new IllegalArgumentException("State buffer too small ("+dst.capacity()+" < "+SIZE+")");
+
+        long position = this.anchorPositionMillis;
+        if (this.anchorRate!=0)
+        {
+            position+=(SystemClock.uptimeMillis()-this.anchorUptime)*this.anchorRate;
+            if (this.durationMillis>0 && position>this.durationMillis)
+            {
+                position=this.durationMillis;
+            }
+        }
+
+        dst.order(ByteOrder.BIG_ENDIAN);
+        dst.putInt(0, this.sequence);
+        dst.putInt(4, this.state);
+        dst.putInt(8, (int)position);
+        dst.putInt(12, this.durationMillis);
+        dst.putInt(16, this.buffering ? 1 : 0);
+        dst.putInt(20, this.errorCode);
+        return this.sequence;
+    }
+}
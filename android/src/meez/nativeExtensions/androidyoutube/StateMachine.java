@@ -0,0 +1,189 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Enum-indexed state machine with a transition table
+ *
+ * Allowed transitions are precomputed as a bitmask of target ordinals per state, so checks are O(1).
+ * Entry and exit actions run on each transition, then listeners are notified. Time spent in each state
+ * is recorded in a histogram per state (e.g. time to leave an initializing state is startup latency).
+ * Not thread safe.
+ */
+public class StateMachine<S extends Enum<S>>
+{
+    // Definitions
+
+    /** Transition Listener */
+    public interface Listener<S>
+    {
+        /**
+         * On transition
+         * @param from Previous state
+         * @param to New state
+         * @param elapsedMillis Time spent in previous state
+         */
+        void onTransition(S from, S to, long elapsedMillis);
+    }
+
+    // Instance vars
+
+    /** States, by ordinal */
+    private final S[] states;
+
+    /** Allowed target ordinals, as bitmask, by state ordinal */
+    private final int[] allowed;
+
+    /** Entry actions, by state ordinal */
+    private final Runnable[] entryActions;
+
+    /** Exit actions, by state ordinal */
+    private final Runnable[] exitActions;
+
+    /** Time spent in state, by state ordinal */
+    private final LatencyHistogram[] timings;
+
+    /** Listeners */
+    private final List<Listener<S>> listeners;
+
+    /** Current state */
+    private S state;
+
+    /** Time current state was entered */
+    private long enterTime;
+
+    // Public Methods
+
+    /** Create a new StateMachine */
+    public StateMachine(Class<S> type, S initial)
+    {
+        this.states=type.getEnumConstants();
+        if (this.states.length>Integer.SIZE)
+            throw new IllegalArgumentException("Too many states ("+this.states.length+")");
+
+        this.allowed=new int[this.states.length];
+        this.entryActions=new Runnable[this.states.length];
+        this.exitActions=new Runnable[this.states.length];
+        this.timings=new LatencyHistogram[this.states.length];
+        for (int i=0; i<this.states.length; i++)
+        {
+            this.timings[i]=new LatencyHistogram(this.states[i].name());
+        }
+        this.listeners=new ArrayList<Listener<S>>();
+        this.state=initial;
+        this.enterTime=SystemClock.uptimeMillis();
+    }
+
+    /** Allow transitions from state to targets (e.g. EnumSet.of(...)) */
+    public StateMachine<S> allow(S from, Collection<S> targets)
+    {
+        for (S to : targets)
+        {
+            this.allowed[from.ordinal()] |= (1 << to.ordinal());
+        }
+        return this;
+    }
+
+    /** Set action run when state is entered */
+    public StateMachine<S> onEntry(S state, Runnable action)
+    {
+        this.entryActions[state.ordinal()]=action;
+        return this;
+    }
+
+    /** Set action run when state is exited */
+    public StateMachine<S> onExit(S state, Runnable action)
+    {
+        this.exitActions[state.ordinal()]=action;
+        return this;
+    }
+
+    /** Add transition listener */
+    public void addListener(Listener<S> listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /** Remove transition listener */
+    public void removeListener(Listener<S> listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /** Get current state */
+    public S getState()
+    {
+        return this.state;
+    }
+
+    /** Is current state */
+    public boolean is(S state)
+    {
+        return this.state==state;
+    }
+
+    /** Is transition from current state allowed */
+    public boolean canTransition(S to)
+    {
+        return (this.allowed[this.state.ordinal()] & (1 << to.ordinal()))!=0;
+    }
+
+    /**
+     * Transition to state. A transition to the current state is a no-op
+     * @return false if the transition is not allowed (state is unchanged)
+     */
+    public boolean transition(S to)
+    {
+        S from = this.state;
+        if (from==to)
+            return true;
+
+        if (!canTransition(to))
+        {
+            ExtensionLog.w("Transition not allowed ({} -> {})", from, to);
+            return false;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now-this.enterTime;
+        this.timings[from.ordinal()].record(elapsed);
+
+        Runnable exit = this.exitActions[from.ordinal()];
+        if (exit!=null)
+        {
+            exit.run();
+        }
+
+        this.state=to;
+        this.enterTime=now;
+
+        Runnable entry = this.entryActions[to.ordinal()];
+        if (entry!=null)
+        {
+            entry.run();
+        }
+
+        for (int i=0; i<this.listeners.size(); i++)
+        {
+            this.listeners.get(i).onTransition(from, to, elapsed);
+        }
+        return true;
+    }
+
+    /** Append time spent in each state, as histograms separated by ';' (@see LatencyHistogram.appendTo) */
+    public void appendTo(StringBuilder sb)
+    {
+        for (int i=0; i<this.timings.length; i++)
+        {
+            if (i>0)
+            {
+                sb.append(';');
+            }
+            this.timings[i].appendTo(sb);
+        }
+    }
+}
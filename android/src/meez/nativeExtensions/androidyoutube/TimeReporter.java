@@ -0,0 +1,244 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.google.android.youtube.player.YouTubePlayer;
+
+/**
+ * Reports playback time to Actionscript
+ *
+ * Playback position is extrapolated from an anchor (position, uptime, rate) taken at sync points, so
+ * regular ticks do not query the YouTube service. The anchor is refreshed from the player on
+ * sync points (playing, paused, buffering, seek) and at most every resync interval while playing.
+ *
+ * - time ticks ('time' message) are only sent when the whole second value changes, or after a seek or a new
+ *   video re-anchors the position
+ * - anchors ('timeAnchor' event) allow Actionscript to interpolate the position locally
+ */
+public class TimeReporter
+{
+    // Definitions
+
+    /** Default tick interval */
+    public static final long DEFAULT_TICK_INTERVAL=1000L;
+
+    /** Default interval between player queries while playing */
+    public static final long DEFAULT_RESYNC_INTERVAL=10000L;
+
+    // Instance vars
+
+    /** Event Callback */
+    private final YouTubePlayerAdapter.PlayerEventCallback callback;
+
+    /** Polled state, updated with each anchor */
+    private final StateBuffer stateBuffer;
+
+    /** Handler */
+    private final Handler handler;
+
+    /** Tick Runnable */
+    private final Runnable tickRunnable;
+
+    /** Tick interval */
+    private long tickInterval;
+
+    /** Resync interval */
+    private long resyncInterval;
+
+    /** Send time ticks */
+    private boolean ticksEnabled;
+
+    /** Send time anchors */
+    private boolean anchorsEnabled;
+
+    /** Player */
+    private YouTubePlayer player;
+
+    /** Anchor position */
+    private int anchorPositionMillis;
+
+    /** Anchor uptime */
+    private long anchorUptime;
+
+    /** Anchor playback rate (0 when not advancing) */
+    private int anchorRate;
+
+    /** Duration */
+    private int durationMillis;
+
+    /** Last whole second sent (-1 if none since the position was re-anchored) */
+    private int lastSentSecs;
+
+    /** Running */
+    private boolean running;
+
+    // Public Methods
+
+    /** Create a new TimeReporter */
+    public TimeReporter(YouTubePlayerAdapter.PlayerEventCallback callback, StateBuffer stateBuffer)
+    {
+        this.callback=callback;
+        this.stateBuffer=stateBuffer;
+        this.handler=new Handler(Looper.getMainLooper());
+        this.tickInterval=DEFAULT_TICK_INTERVAL;
+        this.resyncInterval=DEFAULT_RESYNC_INTERVAL;
+        this.ticksEnabled=true;
+        this.anchorsEnabled=false;
+        this.lastSentSecs=-1;
+        this.tickRunnable=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    tick();
+                }
+                catch (Throwable t)
+                {
+                    ExtensionLog.e("Could not send time data", t);
+                }
+                handler.postDelayed(tickRunnable, tickInterval);
+            }
+        };
+    }
+
+    /**
+     * Configure
+     * @param tickInterval Interval between time ticks (ms)
+     * @param resyncInterval Maximum interval between player queries while playing (ms)
+     * @param ticksEnabled Send 'time' messages
+     * @param anchorsEnabled Send 'timeAnchor' events
+     */
+    public void configure(long tickInterval, long resyncInterval, boolean ticksEnabled, boolean anchorsEnabled)
+    {
+        if (tickInterval<=0 || resyncInterval<=0)
+            throw new IllegalArgumentException("Invalid interval ("+tickInterval+","+resyncInterval+")");
+
+        this.tickInterval=tickInterval;
+        this.resyncInterval=resyncInterval;
+        this.ticksEnabled=ticksEnabled;
+        this.anchorsEnabled=anchorsEnabled;
+
+        if (this.running)
+        {
+            start();
+        }
+    }
+
+    /** Set player */
+    public void setPlayer(YouTubePlayer player)
+    {
+        this.player=player;
+    }
+
+    /** Start ticks */
+    public void start()
+    {
+        // ensure not already started to prevent doubling up callbacks
+        stop();
+        this.running=true;
+        if (this.ticksEnabled)
+        {
+            this.handler.postDelayed(this.tickRunnable, this.tickInterval);
+        }
+    }
+
+    /** Stop ticks */
+    public void stop()
+    {
+        this.running=false;
+        this.handler.removeCallbacks(this.tickRunnable);
+    }
+
+    /** Sync anchor from player */
+    public void sync(boolean advancing)
+    {
+        if (this.player==null)
+            return;
+
+        // duration does not change for a loaded video, only queried until known
+        if (this.durationMillis<=0)
+        {
+            this.durationMillis=this.player.getDurationMillis();
+        }
+        setAnchor(this.player.getCurrentTimeMillis(), advancing);
+    }
+
+    /** Sync anchor to known position (e.g. seek target), keeping the current rate. The next tick is sent */
+    public void syncTo(int positionMillis)
+    {
+        this.lastSentSecs=-1;
+        setAnchor(positionMillis, this.anchorRate!=0);
+    }
+
+    /** On new video loaded or cued: the duration is read again on the next sync, and the next tick is sent */
+    public void reset()
+    {
+        this.durationMillis=0;
+        this.lastSentSecs=-1;
+    }
+
+    /** Set duration of loaded video (0 if not known, read from the player on the next sync) */
+    public void setDurationMillis(int durationMillis)
+    {
+        this.durationMillis=durationMillis;
+    }
+
+    /** Get duration (0 if not known) */
+    public int getDurationMillis()
+    {
+        return this.durationMillis;
+    }
+
+    /** Get extrapolated position */
+    public int getPositionMillis()
+    {
+        long elapsed = SystemClock.uptimeMillis() - this.anchorUptime;
+        long position = this.anchorPositionMillis + elapsed*this.anchorRate;
+        if (this.durationMillis>0 && position>this.durationMillis)
+        {
+            position=this.durationMillis;
+        }
+        return (int)position;
+    }
+
+    // Implementation
+
+    /** Set anchor */
+    private void setAnchor(int positionMillis, boolean advancing)
+    {
+        this.anchorPositionMillis=positionMillis;
+        this.anchorUptime=SystemClock.uptimeMillis();
+        this.anchorRate=advancing ? 1 : 0;
+        this.stateBuffer.setAnchor(positionMillis, this.anchorUptime, this.anchorRate, this.durationMillis);
+
+        if (this.anchorsEnabled)
+        {
+            this.callback.sendTimeAnchor(positionMillis, this.durationMillis, this.anchorRate);
+        }
+    }
+
+    /** Tick */
+    private void tick()
+    {
+        if (this.anchorRate!=0 && SystemClock.uptimeMillis()-this.anchorUptime>=this.resyncInterval)
+        {
+            sync(true);
+        }
+
+        // if not playing, send no data
+        if (this.anchorRate==0)
+            return;
+
+        int curSecs = getPositionMillis()/1000;
+        if (curSecs==this.lastSentSecs)
+            return;
+
+        this.lastSentSecs=curSecs;
+
+        //sendMessage({type:"time", time:{current:c, total:t}});
+        this.callback.sendTimeData(curSecs, this.durationMillis/1000);
+    }
+}
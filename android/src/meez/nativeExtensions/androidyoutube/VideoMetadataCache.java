@@ -0,0 +1,147 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Metadata of recently loaded videos, so the duration of a video is read from the YouTube service once
+ *
+ * Filled when a video is loaded, and with the first valid duration read if the duration was not known
+ * when loaded. Bounded, least recently used videos are evicted. Main thread only.
+ */
+public class VideoMetadataCache
+{
+    // Definitions
+
+    /** Default capacity */
+    public static final int DEFAULT_CAPACITY=64;
+
+    /** Video Metadata */
+    public static final class VideoMetadata
+    {
+        /** Video Id */
+        public final String videoId;
+
+        /** Duration (0 if not yet known) */
+        public int durationMillis;
+
+        /** Time loaded (uptime) */
+        public long loadTime;
+
+        /** Create a new VideoMetadata */
+        VideoMetadata(String videoId)
+        {
+            this.videoId=videoId;
+        }
+    }
+
+    // Instance vars
+
+    /** Metadata, in least recently used order */
+    private final LinkedHashMap<String, VideoMetadata> videos;
+
+    /** Capacity */
+    private final int capacity;
+
+    /** Number of lookups found with a duration */
+    private int hitCount;
+
+    /** Number of lookups not found, or without a duration */
+    private int missCount;
+
+    // Public Methods
+
+    /** Create a new VideoMetadataCache */
+    public VideoMetadataCache(int capacity)
+    {
+        if (capacity<1)
+            throw new IllegalArgumentException("Invalid capacity ("+capacity+")");
+
+        this.capacity=capacity;
+        this.videos=new LinkedHashMap<String, VideoMetadata>(capacity*2, 0.75f, true);
+    }
+
+    /** Get duration of video, counting a hit or miss (0 if not known) */
+    public int getDurationMillis(String videoId)
+    {
+        VideoMetadata metadata = (videoId!=null) ? this.videos.get(videoId) : null;
+        if (metadata==null || metadata.durationMillis<=0)
+        {
+            this.missCount++;
+            return 0;
+        }
+
+        this.hitCount++;
+        return metadata.durationMillis;
+    }
+
+    /** Get metadata of video (null if not cached). Not counted as a lookup */
+    public VideoMetadata get(String videoId)
+    {
+        return this.videos.get(videoId);
+    }
+
+    /**
+     * On video loaded
+     * @param durationMillis Duration (0 if not yet known; a known duration is kept)
+     */
+    public void onLoaded(String videoId, int durationMillis, long now)
+    {
+        if (videoId==null)
+            return;
+
+        VideoMetadata metadata = this.videos.get(videoId);
+        if (metadata==null)
+        {
+            metadata=new VideoMetadata(videoId);
+            this.videos.put(videoId, metadata);
+            evict();
+        }
+        metadata.loadTime=now;
+        if (durationMillis>0)
+        {
+            metadata.durationMillis=durationMillis;
+        }
+    }
+
+    /** Set duration of cached video, once known */
+    public void setDurationMillis(String videoId, int durationMillis)
+    {
+        VideoMetadata metadata = (videoId!=null) ? this.videos.get(videoId) : null;
+        if (metadata!=null && durationMillis>0)
+        {
+            metadata.durationMillis=durationMillis;
+        }
+    }
+
+    /** Number of lookups found with a duration */
+    public int getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /** Number of lookups not found, or without a duration */
+    public int getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /** Number of cached videos */
+    public int size()
+    {
+        return this.videos.size();
+    }
+
+    // Implementation
+
+    /** Evict least recently used videos over capacity */
+    private void evict()
+    {
+        Iterator<VideoMetadata> it = this.videos.values().iterator();
+        for (int excess=this.videos.size()-this.capacity; excess>0; excess--)
+        {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -5,27 +5,29 @@ import android.app.Dialog;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
-import android.os.Handler;
-import android.util.Log;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.view.*;
 import android.widget.FrameLayout;
 import com.google.android.youtube.player.YouTubeInitializationResult;
 import com.google.android.youtube.player.YouTubePlayer;
 import com.google.android.youtube.player.YouTubePlayerFragment;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-/** YouTubePlayerAdapter */
-public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener, YouTubePlayer.PlayerStateChangeListener,YouTubePlayer.PlaybackEventListener
+/** YouTubePlayerAdapter. State is confined to the main thread */
+public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener, YouTubePlayer.PlayerStateChangeListener,YouTubePlayer.PlaybackEventListener,YouTubePlayer.PlaylistEventListener
 {
     /** ANE State */
-    private enum State
+    enum State
     {
         INITIALIZING,
         PLAYER_INIT,
         READY,
+        COLD,
         DISPOSING,
         DISPOSED;
     }
@@ -48,8 +50,19 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     public static final String PLAYER_ERROR_TOO_SMALL="player view too small";
     public static final String PLAYER_ERROR_OVERLAID="unauthorized overlay";
 
-    /** Instance */
-    private static YouTubePlayerAdapter _instance;
+    /** Fragment argument holding the player id */
+    private static final String ARG_PLAYER_ID="playerId";
+
+    /** View creation stages (container, dialog, fragment) */
+    private static final int VIEW_STAGE_COUNT=3;
+
+    /** Memory trim levels (@see trim) */
+    public static final int TRIM_NONE=0;
+    public static final int TRIM_PLAYER=1;
+    public static final int TRIM_VIEWS=2;
+
+    /** Player Id */
+    private final int playerId;
 
     /** Dialog Box to hold video player view */
     private Dialog dialog;
@@ -57,8 +70,17 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     /** Layout Parameters */
     private WindowManager.LayoutParams layoutParams;
 
-    /** Current State */
-    private State state;
+    /** Applies video frame changes once per display frame */
+    private FrameUpdater frameUpdater;
+
+    /** Has a video frame been set */
+    private boolean frameSet;
+
+    /** Latest video frame set, applied when views are created */
+    private int frameX, frameY, frameWidth, frameHeight;
+
+    /** State machine */
+    private final StateMachine<State> stateMachine;
 
     /** YouTube Player */
     private YouTubePlayer player;
@@ -72,50 +94,105 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     /** Developer Key */
     private String devKey;
 
-    /** Video Time Timer */
-    private VideoTimer videoTimer;
+    /** Video Time Reporter */
+    private TimeReporter timeReporter;
 
     /** Action Queue */
-    private Queue<PlayerAction> actionQueue;
+    private PlayerActionQueue actionQueue;
+
+    /** Command-to-effect timings */
+    private final PlayerMetrics metrics;
+
+    /** Seek throttling */
+    private final SeekController seekController;
+
+    /** Duration of loaded video (0 if unknown) */
+    private int durationMillis;
+
+    /** Playback session telemetry for current video */
+    private final SessionTelemetry session;
+
+    /** Transient error recovery */
+    private final RecoveryController recoveryController;
+
+    /** Polled state */
+    private final StateBuffer stateBuffer;
+
+    /** Resume positions (null if not stored) */
+    private ResumeStore resumeStore;
+
+    /** Video metadata (null if not cached) */
+    private VideoMetadataCache metadataCache;
 
     /** Player Fragment */
     private CustomPlayerFragment fragment;
 
+    /** Cued (preloaded) Video Id, not yet played */
+    private String cuedVideoId;
+
+    /** Start time of cued video */
+    private int cuedStartMillis;
+
+    /** Playlist video ids (null if not playing a playlist) */
+    private List<String> playlist;
+
+    /** Index of current video in playlist */
+    private int playlistIndex;
+
+    /** Is video playing (tracked from playback events) */
+    private boolean playing;
+
     /** Event Callback */
     private YouTubePlayerAdapter.PlayerEventCallback callback;
 
-    // Public Methods
+    /** Number of view creation stages completed */
+    private int viewStage;
 
-    /** YouTubePlayerAdapter */
-    public YouTubePlayerAdapter()
-    {
-        changeState(State.INITIALIZING);
-        this.actionQueue=new LinkedList<PlayerAction>();
-    }
+    /** Runs deferred view creation stages in main thread idle slots (null if not scheduled) */
+    private MessageQueue.IdleHandler viewStageHandler;
+
+    /** Video Id of loaded video */
+    private String loadedVideoId;
+
+    /** Memory trim level */
+    private int trimLevel;
+
+    /** Playback state taken when trimmed (null if none) */
+    private PlayerSnapshot snapshot;
+
+    /** Is player being restored after a trim */
+    private boolean restoring;
+
+    // Public Methods
 
-    /** Get Instance */
-    public static YouTubePlayerAdapter fetchInstance()
+    /** YouTubePlayerAdapter (@see YouTubePlayerPool) */
+    YouTubePlayerAdapter(int playerId)
     {
-        if(_instance==null)
-        {
-            _instance=new YouTubePlayerAdapter();
-        }
-        return _instance;
+        this.playerId=playerId;
+        this.stateMachine=createStateMachine();
+        this.actionQueue=new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        this.metrics=new PlayerMetrics();
+        this.seekController=new SeekController(this);
+        this.session=new SessionTelemetry();
+        this.recoveryController=new RecoveryController(this);
+        this.stateBuffer=new StateBuffer();
     }
 
-    /** Release */
-    public static void releaseInstance()
+    /** Player Action Type (used to coalesce pending actions) */
+    public enum ActionType
     {
-        if(_instance==null)
-            return;
-
-        _instance.dispose();
-        _instance=null;
+        LOAD,
+        CUE,
+        SEEK,
+        PLAY,
+        PAUSE,
+        OTHER;
     }
 
     /** Player Action */
     public interface PlayerAction
     {
+        ActionType getType();
         void run(YouTubePlayer player) throws Exception;
     }
 
@@ -125,7 +202,10 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         void sendState(String state);
         void sendData(String data);
         void sendTimeData(int curSecs, int totalSecs);
+        void sendTimeAnchor(int positionMillis, int durationMillis, int rate);
+        void sendPlaylistAdvanced(int index, String videoId);
         void sendError(int code, String msg);
+        void sendSession(SessionTelemetry session);
         void dispatchEventWithReason(String type, String reason);
     }
 
@@ -137,46 +217,123 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
      */
     public void init(Activity activity, String devKey, PlayerEventCallback eventCallback)
     {
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.init()");
+        init(activity, devKey, eventCallback, false);
+    }
+
+    /**
+     * Initialize the video player
+     * @param activity Target activity that the YouTubePlayerFragment will belong to
+     * @param devKey Developer key from google/youtube
+     * @param eventCallback Callback object for sending back player events and state changes
+     * @param lazy Defer view, dialog and fragment creation until the first action or createViews()
+     */
+    public void init(Activity activity, String devKey, PlayerEventCallback eventCallback, boolean lazy)
+    {
+        ExtensionLog.d("YouTubePlayerAdapter.init()");
 
         // Should only be called 1x during init state
         assertState(State.INITIALIZING);
 
+        this.metrics.onInit(SystemClock.uptimeMillis());
+
         this.activity=activity;
         this.devKey=devKey;
         this.callback=eventCallback;
+        this.timeReporter=new TimeReporter(eventCallback, this.stateBuffer);
+
+        if (lazy)
+        {
+            ExtensionLog.d("YouTubePlayerAdapter.init() deferring view creation");
+            return;
+        }
 
         // Create views
-        this.videoContainer = createVideoContainer();
-        this.videoContainer.setId(YouTubePlayerAdapter.generateViewId());
-        this.layoutParams = createLayoutParams();
-        this.dialog = createDialog();
+        while (runViewStage())
+        {
+        }
+    }
+
+    /** Create views deferred by a lazy init(), one stage per main thread idle slot. No-op if already created or scheduled */
+    public void createViews()
+    {
+        if (!isInitialized() || this.viewStage==VIEW_STAGE_COUNT || this.viewStageHandler!=null)
+            return;
+
+        this.viewStageHandler=new MessageQueue.IdleHandler()
+        {
+            @Override
+            public boolean queueIdle()
+            {
+                boolean more = runViewStage();
+                if (!more)
+                {
+                    viewStageHandler=null;
+                }
+                return more;
+            }
+        };
+        Looper.myQueue().addIdleHandler(this.viewStageHandler);
+    }
 
-        //Hack - videoContainer is only added to root view long enough to attach fragment (fragment must be attached to view in Android 'display list').
-        // In Fragment's onViewCreated() videoContainer is removed from root container and set as view of Dialog
-        this.videoContainer.setVisibility(View.INVISIBLE);
-        getRootContainer().addView(this.videoContainer);
+    /** Has init() been called */
+    public boolean isInitialized()
+    {
+        return this.activity!=null;
+    }
 
-        YouTubePlayerFragment playerFragment = createPlayerFragment();
+    /** Is the player initialized and ready for actions */
+    public boolean isReady()
+    {
+        return this.stateMachine.is(State.READY);
+    }
 
-        // Add YouTube fragment to video container
-        this.activity
-                .getFragmentManager()
-                .beginTransaction()
-                .add(this.videoContainer.getId(), playerFragment)
-                .commit();
+    /** Get State Machine (for transition listeners and timings) */
+    public StateMachine<State> getStateMachine()
+    {
+        return this.stateMachine;
+    }
+
+    /** Get Player Id */
+    public int getPlayerId()
+    {
+        return this.playerId;
+    }
+
+    /** Is video playing */
+    public boolean isPlaying()
+    {
+        return this.playing;
     }
 
     /** Dispose */
     public void dispose()
     {
+        if (!isInitialized())
+        {
+            changeState(State.DISPOSED);
+            return;
+        }
+
         changeState(State.DISPOSING);
 
-        stopUpdateTimer();
+        this.seekController.cancel();
+        this.recoveryController.cancel();
+
+        if (this.viewStageHandler!=null)
+        {
+            Looper.myQueue().removeIdleHandler(this.viewStageHandler);
+            this.viewStageHandler=null;
+        }
 
-        getRootContainer().removeView(videoContainer);
-        this.videoContainer.removeAllViews();
-        this.dialog.dismiss();
+        if (this.viewStage<VIEW_STAGE_COUNT)
+        {
+            // lazy init, fragment not added yet
+            disposeViews();
+            changeState(State.DISPOSED);
+            return;
+        }
+
+        disposeViews();
 
         try
         {
@@ -191,7 +348,7 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         }
         catch (Throwable t)
         {
-            Log.w(Extension.TAG, "Error removing player fragment", t);
+            ExtensionLog.w("Error removing player fragment", t);
         }
         finally
         {
@@ -201,17 +358,326 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
 
     // Actions
 
-    /** Execute */
+    /** On evicted from player pool */
+    public void onEvicted()
+    {
+        if (this.callback!=null)
+        {
+            this.callback.sendData("playerEvicted");
+        }
+    }
+
+    /** Execute, enqueued now (main thread only; commands from Actionscript reach it through CommandRingBuffer) */
     public void execute(PlayerAction action)
     {
-        this.actionQueue.add(action);
+        execute(action, SystemClock.uptimeMillis());
+    }
 
-        if(!checkState(State.READY))
+    /**
+     * Execute (main thread only)
+     * @param enqueueTime Time the action was requested (uptime), e.g. when its command was claimed (@see PlayerMetrics)
+     */
+    public void execute(PlayerAction action, long enqueueTime)
+    {
+        // restore snapshot first, so the action applies on top of it
+        restore();
+
+        this.actionQueue.add(action, enqueueTime);
+
+        // first action after a lazy init
+        createViews();
+
+        // queued until ready
+        if (!this.stateMachine.is(State.READY))
             return;
 
         executeOutstandingActions();
     }
 
+    /**
+     * Release resources under memory pressure. The playback state (video or playlist, position) and the
+     * video frame are kept and restored by the next action or restore(), and Actionscript is sent
+     * 'playerCold' and later 'playerRestored' data messages
+     * @param level TRIM_PLAYER releases the YouTubePlayer. TRIM_VIEWS also releases the fragment and dialog
+     */
+    public void trim(int level)
+    {
+        if (level<=this.trimLevel || this.viewStage<VIEW_STAGE_COUNT)
+            return;
+
+        if (!this.stateMachine.is(State.READY) && !this.stateMachine.is(State.COLD))
+            return;
+
+        ExtensionLog.d("YouTubePlayerAdapter.trim({}) player ({})", level, this.playerId);
+
+        // playback is resumed from the snapshot instead
+        this.recoveryController.cancel();
+
+        boolean wasWarm = (this.trimLevel==TRIM_NONE);
+        if (this.stateMachine.is(State.READY))
+        {
+            releasePlayer();
+        }
+
+        if (level>=TRIM_VIEWS && !releaseViews())
+        {
+            // views kept, restored as a player trim
+            level=TRIM_PLAYER;
+        }
+
+        this.trimLevel=level;
+        this.restoring=false;
+
+        if (wasWarm)
+        {
+            this.callback.sendData("playerCold");
+        }
+    }
+
+    /** Restore player released by trim(). No-op if not trimmed */
+    public void restore()
+    {
+        if (this.trimLevel==TRIM_NONE)
+            return;
+
+        ExtensionLog.d("YouTubePlayerAdapter.restore() player ({}) snapshot ({})", this.playerId, this.snapshot);
+
+        if (this.snapshot!=null)
+        {
+            this.actionQueue.add(createRestoreAction(this.snapshot), SystemClock.uptimeMillis());
+            this.snapshot=null;
+        }
+
+        int level = this.trimLevel;
+        this.trimLevel=TRIM_NONE;
+        this.restoring=true;
+
+        if (level==TRIM_PLAYER)
+        {
+            // views kept, initialize a new player in the existing fragment
+            changeState(State.PLAYER_INIT);
+            this.fragment.initialize(this.devKey, this);
+        }
+        else
+        {
+            createViews();
+        }
+    }
+
+    /** Is player released by trim() */
+    public boolean isCold()
+    {
+        return this.trimLevel!=TRIM_NONE;
+    }
+
+    /** Cue (preload) video, to be started by a later playVideo() of the same video */
+    public void cueVideo(YouTubePlayer player, String videoId, int startTimeMillis)
+    {
+        this.recoveryController.cancel();
+        this.seekController.reset();
+        this.playlist=null;
+        this.loadedVideoId=null;
+        resetTime();
+
+        // the previous video is replaced, its session is over
+        publishSession();
+
+        player.cueVideo(videoId, startTimeMillis);
+        this.cuedVideoId=videoId;
+        this.cuedStartMillis=startTimeMillis;
+    }
+
+    /** Play video, starting from the cued (already buffered) state when the video was preloaded */
+    public void playVideo(YouTubePlayer player, String videoId, int startTimeMillis)
+    {
+        this.recoveryController.cancel();
+        this.seekController.reset();
+        String cued = this.cuedVideoId;
+        this.cuedVideoId=null;
+        this.playlist=null;
+        startSession(videoId);
+
+        if (cued==null || !cued.equals(videoId))
+        {
+            // set again by onLoaded(); until then errors resume, and positions are stored, for this video
+            this.loadedVideoId=null;
+            resetTime();
+            player.loadVideo(videoId, startTimeMillis);
+            return;
+        }
+
+        if (startTimeMillis!=this.cuedStartMillis)
+        {
+            player.seekToMillis(startTimeMillis);
+        }
+        player.play();
+    }
+
+    /**
+     * Play playlist. The player buffers ahead and advances to the next video natively; Actionscript is
+     * sent one 'advanced' message per advance instead of an 'ended' state
+     */
+    public void playPlaylist(YouTubePlayer player, List<String> videoIds, int startIndex, int startTimeMillis)
+    {
+        this.recoveryController.cancel();
+        this.seekController.reset();
+        this.cuedVideoId=null;
+        this.playlist=videoIds;
+        this.playlistIndex=startIndex;
+        this.loadedVideoId=null;
+        resetTime();
+        startSession(startIndex>=0 && startIndex<videoIds.size() ? videoIds.get(startIndex) : null);
+        player.loadVideos(videoIds, startIndex, startTimeMillis);
+    }
+
+    /** Cue (preload) playlist, advancing natively like playPlaylist() once started */
+    public void cuePlaylist(YouTubePlayer player, List<String> videoIds, int startIndex, int startTimeMillis)
+    {
+        this.recoveryController.cancel();
+        this.seekController.reset();
+        this.cuedVideoId=null;
+        this.playlist=videoIds;
+        this.playlistIndex=startIndex;
+        this.loadedVideoId=null;
+        resetTime();
+
+        // the previous video is replaced, its session is over
+        publishSession();
+
+        player.cueVideos(videoIds, startIndex, startTimeMillis);
+    }
+
+    /** Get Seek Controller */
+    public SeekController getSeekController()
+    {
+        return this.seekController;
+    }
+
+    /** Duration of loaded video (0 if unknown). Taken from the cache or the first valid read, not queried each call */
+    public int getDurationMillis()
+    {
+        if (this.durationMillis<=0 && this.timeReporter!=null)
+        {
+            // first valid duration read by the time reporter
+            int duration = this.timeReporter.getDurationMillis();
+            if (duration>0)
+            {
+                this.durationMillis=duration;
+                if (this.metadataCache!=null)
+                {
+                    this.metadataCache.setDurationMillis(this.loadedVideoId, duration);
+                }
+            }
+        }
+        return this.durationMillis;
+    }
+
+    /** Get transient error recovery */
+    public RecoveryController getRecoveryController()
+    {
+        return this.recoveryController;
+    }
+
+    /**
+     * Create action resuming the current video (or playlist) from the current position, or null if
+     * nothing is loaded (@see RecoveryController). A video still loading is taken from its session
+     */
+    PlayerAction createResumeAction()
+    {
+        final String videoId = (this.loadedVideoId!=null) ? this.loadedVideoId : this.session.getVideoId();
+        if (videoId==null)
+            return null;
+
+        final List<String> resumePlaylist = this.playlist;
+        final int resumeIndex = this.playlistIndex;
+        final int position = getPositionMillis();
+
+        return new PlayerAction() {
+            @Override public ActionType getType() {
+                return ActionType.LOAD;
+            }
+            @Override public void run(YouTubePlayer player) {
+                // not playVideo(), the interrupted video keeps its session
+                if (resumePlaylist!=null)
+                {
+                    playlist=resumePlaylist;
+                    playlistIndex=resumeIndex;
+                    player.loadVideos(resumePlaylist, resumeIndex, position);
+                }
+                else
+                {
+                    player.loadVideo(videoId, position);
+                }
+            }
+        };
+    }
+
+    /**
+     * Release the YouTubePlayer and initialize a new one in the existing fragment (e.g. after the YouTube
+     * service disconnected). Queued actions run once the new player is ready
+     */
+    void reinitialize()
+    {
+        if (!this.stateMachine.is(State.READY))
+            return;
+
+        ExtensionLog.d("YouTubePlayerAdapter.reinitialize() player ({})", this.playerId);
+
+        releasePlayer();
+        this.snapshot=null;
+
+        changeState(State.PLAYER_INIT);
+        this.fragment.initialize(this.devKey, this);
+    }
+
+    /** Set cache of video metadata, filled when videos are loaded */
+    public void setMetadataCache(VideoMetadataCache metadataCache)
+    {
+        this.metadataCache=metadataCache;
+    }
+
+    /** Set store updated with resume positions when paused, stopped or ended */
+    public void setResumeStore(ResumeStore resumeStore)
+    {
+        this.resumeStore=resumeStore;
+    }
+
+    /** Get polled state */
+    public StateBuffer getStateBuffer()
+    {
+        return this.stateBuffer;
+    }
+
+    /** Get playback session telemetry for current video */
+    public SessionTelemetry getSession()
+    {
+        return this.session;
+    }
+
+    /** Get command-to-effect timings */
+    public PlayerMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /** Number of queued actions removed because a later action superseded them */
+    public int getMergedActionCount()
+    {
+        return this.actionQueue.getMergedCount();
+    }
+
+    /** Number of queued actions dropped because the action queue was full */
+    public int getDroppedActionCount()
+    {
+        return this.actionQueue.getDroppedCount();
+    }
+
+    /** Get Time Reporter */
+    public TimeReporter getTimeReporter()
+    {
+        return this.timeReporter;
+    }
+
     // Views
 
     /** Get Root Container ViewGroup */
@@ -234,10 +700,80 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     public YouTubePlayerFragment createPlayerFragment()
     {
         YouTubePlayerAdapter.CustomPlayerFragment fragment = new YouTubePlayerAdapter.CustomPlayerFragment();
+        Bundle args = new Bundle();
+        args.putInt(ARG_PLAYER_ID, this.playerId);
+        fragment.setArguments(args);
         fragment.setRetainInstance(true);
         return fragment;
     }
 
+    /** Run next view creation stage. Returns true if stages remain */
+    private boolean runViewStage()
+    {
+        switch (this.viewStage)
+        {
+            case 0:
+                this.videoContainer = createVideoContainer();
+                this.videoContainer.setId(YouTubePlayerAdapter.generateViewId());
+                this.layoutParams = createLayoutParams();
+                break;
+
+            case 1:
+                this.dialog = createDialog();
+                this.frameUpdater = new FrameUpdater(this.dialog, this.layoutParams);
+                if (this.frameSet)
+                {
+                    this.frameUpdater.setFrame(this.frameX, this.frameY, this.frameWidth, this.frameHeight);
+                }
+                else
+                {
+                    // hide video offscreen until explicitly positioned by Actionscript call
+                    this.frameUpdater.setFrame(-5000, -5000, 600, 400);
+                }
+                break;
+
+            case 2:
+                //Hack - videoContainer is only added to root view long enough to attach fragment (fragment must be attached to view in Android 'display list').
+                // In Fragment's onViewCreated() videoContainer is removed from root container and set as view of Dialog
+                this.videoContainer.setVisibility(View.INVISIBLE);
+                getRootContainer().addView(this.videoContainer);
+
+                YouTubePlayerFragment playerFragment = createPlayerFragment();
+
+                // Add YouTube fragment to video container
+                this.activity
+                        .getFragmentManager()
+                        .beginTransaction()
+                        .add(this.videoContainer.getId(), playerFragment)
+                        .commit();
+                break;
+
+            default:
+                return false;
+        }
+
+        this.viewStage++;
+        return this.viewStage<VIEW_STAGE_COUNT;
+    }
+
+    /** Remove and dismiss views created so far */
+    private void disposeViews()
+    {
+        if (this.videoContainer!=null)
+        {
+            getRootContainer().removeView(this.videoContainer);
+            this.videoContainer.removeAllViews();
+        }
+        if (this.frameUpdater!=null)
+        {
+            this.frameUpdater.dispose();
+        }
+        if (this.dialog!=null)
+        {
+            this.dialog.dismiss();
+        }
+    }
+
     /** Create Video layout params */
     public WindowManager.LayoutParams createLayoutParams()
     {
@@ -267,7 +803,14 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     @Override
     public void onInitializationFailure(YouTubePlayer.Provider provider, YouTubeInitializationResult errorReason)
     {
-        Log.w(Extension.TAG, "YouTubePlayerAdapter.onInitializaionFailure(). Could not Initialize player. Reason ("+errorReason.toString()+")");
+        ExtensionLog.w("YouTubePlayerAdapter.onInitializaionFailure(). Could not Initialize player. Reason ({})", errorReason);
+
+        ErrorClassifier.Classification failedRecovery = this.recoveryController.onInitializationFailure();
+        if (failedRecovery!=null)
+        {
+            this.stateBuffer.setError(failedRecovery.code);
+            this.callback.sendError(failedRecovery.code, failedRecovery.msg);
+        }
 
         this.callback.dispatchEventWithReason("videoError", "Could not initialize video player");
     }
@@ -275,16 +818,18 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     @Override
     public void onInitializationSuccess(YouTubePlayer.Provider provider, YouTubePlayer player, boolean wasRestored)
     {
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onInitSuccess (player="+player+", wasRestored="+wasRestored+")");
+        ExtensionLog.d("YouTubePlayerAdapter.onInitSuccess (player={}, wasRestored={})", player, wasRestored);
 
         if (!checkState(State.PLAYER_INIT))
             return;
 
-        changeState(State.READY);
+        this.metrics.onReady(SystemClock.uptimeMillis());
 
         this.player=player;
         this.player.setPlayerStateChangeListener(this);
         this.player.setPlaybackEventListener(this);
+        this.player.setPlaylistEventListener(this);
+        this.timeReporter.setPlayer(player);
 
         if (!wasRestored)
         {
@@ -292,8 +837,25 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
             this.player.setPlayerStyle(YouTubePlayer.PlayerStyle.CHROMELESS);
         }
 
-        executeOutstandingActions();
+        // entering READY executes outstanding actions
+        changeState(State.READY);
 
+        // a recovery sends its own outcome
+        if (!this.recoveryController.isRecovering())
+        {
+            onReady();
+        }
+
+        if (this.restoring)
+        {
+            this.restoring=false;
+            this.callback.sendData("playerRestored");
+        }
+    }
+
+    /** On Ready - notify Actionscript */
+    public void onReady()
+    {
         this.callback.sendData("playerReady");
     }
 
@@ -305,7 +867,7 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "Ad Started");
+        ExtensionLog.d("Ad Started");
         this.callback.sendData("Ad started");
     }
 
@@ -315,57 +877,17 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.w(Extension.TAG, "YouTubePlayerAdapter.onError() error: ("+errorReason.toString()+")");
-
-        String msg;
-        int code;
-
-        // 1st two are not counted as errors, but Actionscript player needs to be notified
-        if (errorReason==YouTubePlayer.ErrorReason.UNAUTHORIZED_OVERLAY)
-        {
-            msg=PLAYER_ERROR_OVERLAID;
-            code=0;
-        }
-        else if (errorReason==YouTubePlayer.ErrorReason.PLAYER_VIEW_TOO_SMALL)
-        {
-            msg=PLAYER_ERROR_TOO_SMALL;
-            code=0;
-        }
-
-        else if (errorReason==YouTubePlayer.ErrorReason.NOT_PLAYABLE ||
-                errorReason==YouTubePlayer.ErrorReason.AUTOPLAY_DISABLED ||
-                errorReason==YouTubePlayer.ErrorReason.INTERNAL_ERROR)
-        {
-            msg=PLAYER_ERROR_INVALID;
-            code=2;
-        }
+        ExtensionLog.w("YouTubePlayerAdapter.onError() error: ({})", errorReason);
 
-        else if (errorReason==YouTubePlayer.ErrorReason.EMPTY_PLAYLIST)
-        {
-            msg=PLAYER_ERROR_NOT_FOUND;
-            code=100;
-        }
+        this.session.onError(errorReason, SystemClock.uptimeMillis());
 
-        else if (errorReason==YouTubePlayer.ErrorReason.USER_DECLINED_RESTRICTED_CONTENT ||
-                errorReason==YouTubePlayer.ErrorReason.USER_DECLINED_HIGH_BANDWIDTH)
-        {
-            msg=PLAYER_ERROR_EMBED;
-            code=101;
-        }
-        else if (errorReason==YouTubePlayer.ErrorReason.NETWORK_ERROR ||
-                errorReason==YouTubePlayer.ErrorReason.UNEXPECTED_SERVICE_DISCONNECTION)
-        {
-            msg=PLAYER_ERROR_NETWORK;
-            code=500; // Meez API Error Code
-        }
-        // Unknown reason
-        else
-        {
-            msg=errorReason.toString();
-            code=500; // Meez API Error Code
-        }
+        // transient errors are recovered natively, Actionscript is sent the outcome
+        ErrorClassifier.Classification error = ErrorClassifier.classify(errorReason);
+        if (this.recoveryController.onError(error))
+            return;
 
-        this.callback.sendError(code, msg);
+        this.stateBuffer.setError(error.code);
+        this.callback.sendError(error.code, error.msg);
     }
 
     @Override
@@ -374,9 +896,14 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onLoaded("+arg0+")");
+        ExtensionLog.d("YouTubePlayerAdapter.onLoaded({})", arg0);
+
+        this.metrics.onLoaded(SystemClock.uptimeMillis());
+        this.loadedVideoId=arg0;
+        setDurationMillis(getLoadedDurationMillis(arg0));
+        this.session.onLoaded(arg0);
 
-        this.callback.sendState(PLAYER_STATE_UNSTARTED);
+        sendState(PLAYER_STATE_UNSTARTED);
     }
 
     @Override
@@ -385,9 +912,9 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onLoading");
+        ExtensionLog.d("YouTubePlayerAdapter.onLoading");
 
-        this.callback.sendState(PLAYER_STATE_BUFFERING);
+        sendState(PLAYER_STATE_BUFFERING);
     }
 
     @Override
@@ -396,9 +923,22 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onVideoEnded");
+        ExtensionLog.d("YouTubePlayerAdapter.onVideoEnded");
 
-        this.callback.sendState(PLAYER_STATE_ENDED);
+        this.playing=false;
+        this.session.onStopped(SystemClock.uptimeMillis());
+        publishSession();
+
+        if (this.resumeStore!=null)
+        {
+            this.resumeStore.remove(this.loadedVideoId);
+        }
+
+        // playlist advances natively, 'advanced' message is sent from onNext()
+        if (this.playlist!=null && this.playlistIndex<this.playlist.size()-1)
+            return;
+
+        sendState(PLAYER_STATE_ENDED);
     }
 
     @Override
@@ -407,7 +947,7 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onVideoStarted");
+        ExtensionLog.d("YouTubePlayerAdapter.onVideoStarted");
         // Nothing to send
     }
 
@@ -419,9 +959,21 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
+        long now = SystemClock.uptimeMillis();
+        this.metrics.onBuffering(isBuffering, now);
+        this.stateBuffer.setBuffering(isBuffering);
+        this.session.onBuffering(isBuffering, now);
+        if (!isBuffering)
+        {
+            this.seekController.onSettled(now);
+        }
+
+        // position does not advance while buffering
+        this.timeReporter.sync(!isBuffering && this.player.isPlaying());
+
         if (isBuffering)
         {
-            this.callback.sendState(PLAYER_STATE_BUFFERING);
+            sendState(PLAYER_STATE_BUFFERING);
         }
     }
 
@@ -431,10 +983,16 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onPaused");
+        ExtensionLog.d("YouTubePlayerAdapter.onPaused");
 
+        this.playing=false;
+        long now = SystemClock.uptimeMillis();
+        this.session.onStopped(now);
+        this.seekController.onSettled(now);
+        this.timeReporter.sync(false);
+        storeResumePosition();
         stopUpdateTimer();
-        this.callback.sendState(PLAYER_STATE_PAUSED);
+        sendState(PLAYER_STATE_PAUSED);
     }
 
     @Override
@@ -443,10 +1001,22 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onPlaying");
+        ExtensionLog.d("YouTubePlayerAdapter.onPlaying");
 
+        this.playing=true;
+        long now = SystemClock.uptimeMillis();
+        this.metrics.onPlaying(now);
+        this.session.onPlaying(now);
+        boolean recovered = this.recoveryController.onPlaying(now);
+        this.seekController.onSettled(now);
+        this.timeReporter.sync(true);
         startUpdateTimer();
-        this.callback.sendState(PLAYER_STATE_PLAYING);
+        sendState(PLAYER_STATE_PLAYING);
+
+        if (recovered)
+        {
+            this.callback.sendData("playerRecovered");
+        }
     }
 
     @Override
@@ -455,7 +1025,10 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onSeekTo("+Integer.toString(newPositionMillis)+")");
+        ExtensionLog.d("YouTubePlayerAdapter.onSeekTo({})", newPositionMillis);
+
+        this.seekController.onSeekTo();
+        this.timeReporter.syncTo(newPositionMillis);
     }
 
     @Override
@@ -464,11 +1037,76 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         if(!checkState(State.READY))
             return;
 
-        Log.d(Extension.TAG, "YouTubePlayerAdapter.onStopped");
+        ExtensionLog.d("YouTubePlayerAdapter.onStopped");
 
+        this.playing=false;
+        this.session.onStopped(SystemClock.uptimeMillis());
+        this.timeReporter.sync(false);
+        storeResumePosition();
         stopUpdateTimer();
     }
 
+    // YouTubePlayer.PlaylistEventListener Implementation
+
+    @Override
+    public void onNext()
+    {
+        if(!checkState(State.READY) || this.playlist==null)
+            return;
+
+        advancePlaylist(this.playlistIndex+1);
+    }
+
+    @Override
+    public void onPrevious()
+    {
+        if(!checkState(State.READY) || this.playlist==null)
+            return;
+
+        advancePlaylist(this.playlistIndex-1);
+    }
+
+    @Override
+    public void onPlaylistEnded()
+    {
+        if(!checkState(State.READY))
+            return;
+
+        ExtensionLog.d("YouTubePlayerAdapter.onPlaylistEnded");
+
+        this.playlist=null;
+    }
+
+    /** Advance playlist to index */
+    private void advancePlaylist(int index)
+    {
+        if (index<0 || index>=this.playlist.size())
+            return;
+
+        this.playlistIndex=index;
+        this.loadedVideoId=null;
+        startSession(this.playlist.get(index));
+        this.callback.sendPlaylistAdvanced(index, this.playlist.get(index));
+    }
+
+    /** Start playback session for video, publishing the previous session if it did not end */
+    private void startSession(String videoId)
+    {
+        publishSession();
+        this.session.onStart(SystemClock.uptimeMillis());
+        this.session.onLoaded(videoId);
+    }
+
+    /** Send playback session summary to Actionscript, and end session (no-op if no session) */
+    private void publishSession()
+    {
+        if (!this.session.isActive())
+            return;
+
+        this.callback.sendSession(this.session);
+        this.session.reset();
+    }
+
     // Fragment Callbacks
 
     /** On Fragment View Created */
@@ -482,8 +1120,8 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         // Remove from root and add to dialog
         getRootContainer().removeView(this.videoContainer);
 
-        // hide video offscreen until explicitly positioned by Actionscript call
-        setVideoFrame(-5000, -5000, 600, 400);
+        // latest frame set, or offscreen, before the dialog is shown
+        this.frameUpdater.flush();
         this.videoContainer.setVisibility(View.VISIBLE);
 
         // add to dialog and show
@@ -498,8 +1136,11 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     /** On Fragment View Destroyed */
     public void onFragmentViewDestroyed()
     {
-        // youtube player destroyed, set state to allow it to be initialized with dev key if created again
-        changeState(State.INITIALIZING);
+        // youtube player destroyed, set state to allow it to be initialized with dev key if created again (not after dispose)
+        if (this.stateMachine.canTransition(State.INITIALIZING))
+        {
+            changeState(State.INITIALIZING);
+        }
     }
 
     /** On Fragment View Started */
@@ -526,46 +1167,79 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
 
     // Frame
 
-    /** Set video frame */
+    /**
+     * Set video frame. Applied on the next display frame; only the latest frame set before then is applied.
+     * Before views are created (lazy init), the frame is kept and applied when they are
+     */
     public void setVideoFrame(int x, int y, int width, int height)
     {
-        Log.d(Extension.TAG, String.format("YouTubePlayerAdapter.setVideoFrame(%d, %d, %d, %d)", x, y, width, height));
+        this.frameSet=true;
+        this.frameX=x;
+        this.frameY=y;
+        this.frameWidth=width;
+        this.frameHeight=height;
 
-        this.layoutParams.width = width;
-        this.layoutParams.height = height;
-        this.layoutParams.x = x;
-        this.layoutParams.y = y;
+        if (this.frameUpdater!=null)
+        {
+            this.frameUpdater.setFrame(x, y, width, height);
+        }
+    }
 
-        this.dialog.getWindow().setAttributes(this.layoutParams);
+    /** Get Frame Updater (null until init) */
+    public FrameUpdater getFrameUpdater()
+    {
+        return this.frameUpdater;
     }
 
     // State
 
-    /** Change state */
-    private State changeState(State newState)
+    /** Create state machine */
+    private StateMachine<State> createStateMachine()
     {
-        State oldState = this.state;
-        this.state = newState;
-        return oldState;
+        StateMachine<State> machine = new StateMachine<State>(State.class, State.INITIALIZING);
+
+        machine.allow(State.INITIALIZING, EnumSet.of(State.PLAYER_INIT, State.DISPOSING, State.DISPOSED))
+               .allow(State.PLAYER_INIT, EnumSet.of(State.READY, State.INITIALIZING, State.DISPOSING))
+               .allow(State.READY, EnumSet.of(State.COLD, State.INITIALIZING, State.DISPOSING))
+               .allow(State.COLD, EnumSet.of(State.PLAYER_INIT, State.INITIALIZING, State.DISPOSING))
+               .allow(State.DISPOSING, EnumSet.of(State.DISPOSED));
+
+        machine.onEntry(State.READY, new Runnable() {
+            @Override public void run() {
+                executeOutstandingActions();
+            }
+        });
+        machine.onExit(State.READY, new Runnable() {
+            @Override public void run() {
+                stopUpdateTimer();
+            }
+        });
+
+        return machine;
+    }
+
+    /** Change state. Transitions not in the transition table are ignored */
+    private boolean changeState(State newState)
+    {
+        return this.stateMachine.transition(newState);
     }
 
     /** Check the current state */
     private boolean checkState(State expState)
     {
-        boolean correct=this.state.equals(expState);
-        if (!correct)
-        {
-            Log.w(Extension.TAG, "Check state failed. Expected ("+expState+"). Actual ("+this.state+")");
-        }
-        return correct;
+        if (this.stateMachine.is(expState))
+            return true;
+
+        ExtensionLog.d("Check state failed. Expected ({}). Actual ({})", expState, this.stateMachine.getState());
+        return false;
     }
 
     /** Assert a State */
     private void assertState(State s)
     {
-        if (!checkState(s))
+        if (!this.stateMachine.is(s))
         {
-            throw new IllegalStateException("Expected state("+s+"). Actual state ("+this.state+")");
+            throw new IllegalStateException("Expected state("+s+"). Actual state ("+this.stateMachine.getState()+")");
         }
     }
 
@@ -578,33 +1252,202 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
 
         while(!this.actionQueue.isEmpty())
         {
+            long enqueueTime = this.actionQueue.peekEnqueueTime();
+            PlayerAction action = this.actionQueue.poll();
+            long dequeueTime = SystemClock.uptimeMillis();
             try
             {
-                this.actionQueue.remove().run(this.player);
+                action.run(this.player);
+                this.metrics.onActionExecuted(action.getType(), enqueueTime, dequeueTime, SystemClock.uptimeMillis());
             }
             catch(Exception e)
             {
-                Log.w(Extension.TAG,"Error during player action execution", e);
+                ExtensionLog.w("Error during player action execution", e);
             }
         }
     }
 
-    /** Start the update timer */
-    private void startUpdateTimer()
+    /** Snapshot playback state and release the YouTubePlayer */
+    private void releasePlayer()
     {
-        if (this.videoTimer==null)
+        String videoId = (this.playlist!=null) ? this.playlist.get(this.playlistIndex) : this.loadedVideoId;
+        if (videoId!=null)
+        {
+            this.snapshot=new PlayerSnapshot(videoId, getPositionMillis(), this.playing, this.playlist, this.playlistIndex);
+        }
+
+        this.timeReporter.setPlayer(null);
+
+        try
         {
-            this.videoTimer = new VideoTimer(1000L);
+            this.player.release();
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("Error releasing player", t);
+        }
+
+        this.player=null;
+        this.playing=false;
+        this.cuedVideoId=null;
+        this.playlist=null;
+        this.loadedVideoId=null;
+        changeState(State.COLD);
+    }
+
+    /**
+     * Release fragment and dialog. Views are created again by createViews()
+     * @return false if the fragment could not be removed; views are kept
+     */
+    private boolean releaseViews()
+    {
+        if (this.fragment!=null)
+        {
+            try
+            {
+                // trimmed in the background, after the activity saved its state
+                this.activity.getFragmentManager()
+                        .beginTransaction()
+                        .remove(this.fragment)
+                        .commitAllowingStateLoss();
+                this.fragment.setRetainInstance(false);
+            }
+            catch (Throwable t)
+            {
+                ExtensionLog.w("Error removing player fragment", t);
+                return false;
+            }
+        }
+
+        disposeViews();
+
+        this.fragment=null;
+        this.frameUpdater=null;
+        this.dialog=null;
+        this.layoutParams=null;
+        this.videoContainer=null;
+        this.viewStage=0;
+        changeState(State.INITIALIZING);
+        return true;
+    }
+
+    /** Create action restoring a snapshot (video or playlist): load if it was playing, otherwise cue */
+    private PlayerAction createRestoreAction(final PlayerSnapshot snapshot)
+    {
+        return new PlayerAction() {
+            @Override public ActionType getType() {
+                return snapshot.playing ? ActionType.LOAD : ActionType.CUE;
+            }
+            @Override public void run(YouTubePlayer player) {
+                if (snapshot.playlist!=null)
+                {
+                    if (snapshot.playing)
+                    {
+                        playPlaylist(player, snapshot.playlist, snapshot.playlistIndex, snapshot.positionMillis);
+                    }
+                    else
+                    {
+                        cuePlaylist(player, snapshot.playlist, snapshot.playlistIndex, snapshot.positionMillis);
+                    }
+                }
+                else if (snapshot.playing)
+                {
+                    playVideo(player, snapshot.videoId, snapshot.positionMillis);
+                }
+                else
+                {
+                    cueVideo(player, snapshot.videoId, snapshot.positionMillis);
+                }
+            }
+        };
+    }
+
+    /** Reset time reporting for a new video: duration not known, and the first time tick is sent */
+    private void resetTime()
+    {
+        this.durationMillis=0;
+        if (this.timeReporter!=null)
+        {
+            this.timeReporter.reset();
+        }
+    }
+
+    /** Set duration of loaded video (0 if not known) */
+    private void setDurationMillis(int durationMillis)
+    {
+        this.durationMillis=durationMillis;
+        if (this.timeReporter!=null)
+        {
+            this.timeReporter.setDurationMillis(durationMillis);
         }
-        this.videoTimer.start();
+    }
+
+    /** Get duration of just loaded video, from the cache or else the player (0 if not known) */
+    private int getLoadedDurationMillis(String videoId)
+    {
+        if (this.metadataCache==null)
+            return this.player.getDurationMillis();
+
+        int duration = this.metadataCache.getDurationMillis(videoId);
+        if (duration<=0)
+        {
+            duration=this.player.getDurationMillis();
+        }
+        this.metadataCache.onLoaded(videoId, duration, SystemClock.uptimeMillis());
+        return duration;
+    }
+
+    /** Send player state to Actionscript, and update polled state */
+    private void sendState(String state)
+    {
+        this.stateBuffer.setState(state);
+        this.callback.sendState(state);
+    }
+
+    /** Store position of loaded video, just synced by the time reporter */
+    private void storeResumePosition()
+    {
+        if (this.resumeStore==null || this.loadedVideoId==null)
+            return;
+
+        // stopped at the end (onStopped may follow onVideoEnded), next play starts over
+        int position = this.timeReporter.getPositionMillis();
+        int duration = getDurationMillis();
+        if (duration>0 && position>=duration-1000)
+        {
+            this.resumeStore.remove(this.loadedVideoId);
+            return;
+        }
+        this.resumeStore.put(this.loadedVideoId, position);
+    }
+
+    /** Current position, from the player or else the last reported time */
+    private int getPositionMillis()
+    {
+        try
+        {
+            if (this.player!=null)
+                return this.player.getCurrentTimeMillis();
+        }
+        catch (Throwable t)
+        {
+            ExtensionLog.w("Could not get position from player", t);
+        }
+        return this.timeReporter.getPositionMillis();
+    }
+
+    /** Start the update timer */
+    private void startUpdateTimer()
+    {
+        this.timeReporter.start();
     }
 
     /** Stop the update timer */
     private void stopUpdateTimer()
     {
-        if (this.videoTimer!=null)
+        if (this.timeReporter!=null)
         {
-            this.videoTimer.stop();
+            this.timeReporter.stop();
         }
     }
 
@@ -643,12 +1486,24 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
     /** YouTube Player Fragment */
     public static class CustomPlayerFragment extends YouTubePlayerFragment
     {
+        /** Get adapter this fragment belongs to, or null if it has been released */
+        private YouTubePlayerAdapter getAdapter()
+        {
+            Bundle args = getArguments();
+            int playerId = (args==null) ? YouTubePlayerPool.DEFAULT_PLAYER_ID : args.getInt(ARG_PLAYER_ID);
+            return YouTubePlayerPool.peek(playerId);
+        }
+
         /** On Create View */
         @Override public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState)
         {
-            Log.d(Extension.TAG, "CustomPlayerFragment.onCreateView()");
+            ExtensionLog.d("CustomPlayerFragment.onCreateView()");
 
-            YouTubePlayerAdapter.fetchInstance().onFragmentViewCreated(this);
+            YouTubePlayerAdapter adapter = getAdapter();
+            if (adapter!=null)
+            {
+                adapter.onFragmentViewCreated(this);
+            }
 
             return super.onCreateView(inflater, container, savedInstanceState);
         }
@@ -656,9 +1511,13 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         @Override
         public void onStart()
         {
-            Log.d(Extension.TAG, "CustomPlayerFragment.onStart()");
+            ExtensionLog.d("CustomPlayerFragment.onStart()");
 
-            YouTubePlayerAdapter.fetchInstance().onFragmentViewStarted(this);
+            YouTubePlayerAdapter adapter = getAdapter();
+            if (adapter!=null)
+            {
+                adapter.onFragmentViewStarted(this);
+            }
 
             super.onStart();
         }
@@ -666,9 +1525,13 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         @Override
         public void onStop()
         {
-            Log.d(Extension.TAG, "CustomPlayerFragment.onStop()");
+            ExtensionLog.d("CustomPlayerFragment.onStop()");
 
-            YouTubePlayerAdapter.fetchInstance().onFragmentViewStopped(this);
+            YouTubePlayerAdapter adapter = getAdapter();
+            if (adapter!=null)
+            {
+                adapter.onFragmentViewStopped(this);
+            }
 
             super.onStop();
         }
@@ -677,9 +1540,13 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         @Override
         public void onDestroyView()
         {
-            Log.d(Extension.TAG, "CustomPlayerFragment.onDestroy()");
+            ExtensionLog.d("CustomPlayerFragment.onDestroy()");
 
-            YouTubePlayerAdapter.fetchInstance().onFragmentViewDestroyed();
+            YouTubePlayerAdapter adapter = getAdapter();
+            if (adapter!=null)
+            {
+                adapter.onFragmentViewDestroyed();
+            }
 
             super.onDestroyView();
         }
@@ -687,82 +1554,21 @@ public class YouTubePlayerAdapter implements YouTubePlayer.OnInitializedListener
         /** On Save Instance State */
         @Override public void onSaveInstanceState(Bundle bundle)
         {
-            Log.d(Extension.TAG, "CustomPlayerFragment.onSaveInstanceState()");
+            ExtensionLog.d("CustomPlayerFragment.onSaveInstanceState()");
 
             //HACK: This is in place to fix missing parcelable/no class def found errors.
             //see: https://stackoverflow.com/questions/44558166/fatal-exception-java-lang-noclassdeffounderror-rt
             //and: https://stackoverflow.com/questions/44379747/youtube-android-player-api-throws-badparcelableexception-classnotfoundexception
-            YouTubePlayerAdapter.fetchInstance().onFragmentSaveInstance(false);
-
-            super.onSaveInstanceState(bundle);
-        }
-    }
-
-
-    /** Video Timer */
-    class VideoTimer
-    {
-        /** Update time */
-        private long updateTime;
-
-        /** Runnable */
-        private Runnable runnable;
-
-        /** Handler */
-        private Handler handler;
-
-        /** Create a new VideoTimer */
-        public VideoTimer(final long updateTime)
-        {
-            // Handler created/run on UI Thread
-            this.updateTime = updateTime;
-            this.handler = new Handler();
-            this.runnable = new Runnable()
+            YouTubePlayerAdapter adapter = getAdapter();
+            if (adapter!=null)
             {
-                @Override
-                public void run()
-                {
-                    try
-                    {
-                        sendTimeData();
-                    }
-                    catch (Throwable t)
-                    {
-                        Log.e(Extension.TAG, "Could not send time data", t);
-                    }
-                    handler.postDelayed(runnable, updateTime);
-                }
-            };
-        }
-
-        /** Start */
-        public void start()
-        {
-            // ensure not already started to prevent doubling up callbacks
-            stop();
-            handler.postDelayed(runnable, updateTime);
-        }
+                adapter.onFragmentSaveInstance(false);
+            }
 
-        /** Stop */
-        public void stop()
-        {
-            handler.removeCallbacks(runnable);
+            super.onSaveInstanceState(bundle);
         }
     }
 
-    /** Send Time Data */
-    private void sendTimeData()
-    {
-        // if not playing, send no data
-        if (!this.player.isPlaying())
-            return;
-
-        //sendMessage({type:"time", time:{current:c, total:t}});
-        int curSecs = player.getCurrentTimeMillis()/1000;
-        int totalSecs = player.getDurationMillis()/1000;
-
-        this.callback.sendTimeData(curSecs,totalSecs);
-    }
 
     /** Atomic Integer for generating View ID's */
     private static final AtomicInteger sNextGeneratedId = new AtomicInteger(1);
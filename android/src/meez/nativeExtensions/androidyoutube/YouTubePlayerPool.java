@@ -0,0 +1,166 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of YouTubePlayerAdapters, keyed by player id
+ *
+ * Adapters are kept initialized after use, so switching back to a recently used player avoids a full
+ * fragment and service round-trip. When the pool exceeds its capacity, the least recently used idle
+ * (not playing) adapters are released.
+ *
+ * Adapters are main thread only. The state buffers of pooled adapters are published separately, so state
+ * can be polled from any thread.
+ */
+public class YouTubePlayerPool
+{
+    // Definitions
+
+    /** Default player id */
+    public static final int DEFAULT_PLAYER_ID=0;
+
+    /** Default capacity */
+    public static final int DEFAULT_CAPACITY=3;
+
+    // Class vars
+
+    /** Adapters, in least recently used order */
+    private static final LinkedHashMap<Integer, YouTubePlayerAdapter> adapters=new LinkedHashMap<Integer, YouTubePlayerAdapter>(8, 0.75f, true);
+
+    /** State buffers of pooled adapters, by player id (any thread) */
+    private static final ConcurrentHashMap<Integer, StateBuffer> stateBuffers=new ConcurrentHashMap<Integer, StateBuffer>();
+
+    /** Capacity */
+    private static int capacity=DEFAULT_CAPACITY;
+
+    // Public Methods
+
+    /** Get adapter for player id, creating it if needed. Marks adapter as most recently used */
+    public static YouTubePlayerAdapter fetch(int playerId)
+    {
+        YouTubePlayerAdapter adapter = adapters.get(playerId);
+        if (adapter==null)
+        {
+            adapter=new YouTubePlayerAdapter(playerId);
+            adapters.put(playerId, adapter);
+            stateBuffers.put(playerId, adapter.getStateBuffer());
+            evictIdle();
+        }
+        return adapter;
+    }
+
+    /** Get adapter for player id, or null. Marks adapter as most recently used; never creates or evicts */
+    public static YouTubePlayerAdapter get(int playerId)
+    {
+        return adapters.get(playerId);
+    }
+
+    /** Get adapter for player id, or null. Does not change recently used order (main thread only) */
+    public static YouTubePlayerAdapter peek(int playerId)
+    {
+        for (Map.Entry<Integer, YouTubePlayerAdapter> entry : adapters.entrySet())
+        {
+            if (entry.getKey()==playerId)
+                return entry.getValue();
+        }
+        return null;
+    }
+
+    /** Release adapter for player id */
+    public static void release(int playerId)
+    {
+        YouTubePlayerAdapter adapter = adapters.remove(playerId);
+        if (adapter!=null)
+        {
+            stateBuffers.remove(playerId);
+            adapter.dispose();
+        }
+    }
+
+    /** Get state buffer of pooled adapter for player id, or null. Any thread; does not change recently used order */
+    public static StateBuffer getStateBuffer(int playerId)
+    {
+        return stateBuffers.get(playerId);
+    }
+
+    /** Release all adapters */
+    public static void releaseAll()
+    {
+        List<YouTubePlayerAdapter> released = new ArrayList<YouTubePlayerAdapter>(adapters.values());
+        adapters.clear();
+        stateBuffers.clear();
+        for (YouTubePlayerAdapter adapter : released)
+        {
+            adapter.dispose();
+        }
+    }
+
+    /** Set capacity. Idle adapters over capacity are released */
+    public static void setCapacity(int newCapacity)
+    {
+        if (newCapacity<1)
+            throw new IllegalArgumentException("Invalid capacity ("+newCapacity+")");
+
+        capacity=newCapacity;
+        evictIdle();
+    }
+
+    /**
+     * Release players under memory pressure (@see YouTubePlayerAdapter.trim)
+     * @param level YouTubePlayerAdapter.TRIM_PLAYER or TRIM_VIEWS
+     * @param idleOnly Only trim players that are not playing
+     */
+    public static void trim(int level, boolean idleOnly)
+    {
+        for (YouTubePlayerAdapter adapter : adapters.values())
+        {
+            if (idleOnly && adapter.isPlaying())
+                continue;
+
+            adapter.trim(level);
+        }
+    }
+
+    /** Restore players released by trim() (@see YouTubePlayerAdapter.restore) */
+    public static void restore()
+    {
+        for (YouTubePlayerAdapter adapter : adapters.values())
+        {
+            adapter.restore();
+        }
+    }
+
+    /** Number of adapters in pool */
+    public static int size()
+    {
+        return adapters.size();
+    }
+
+    // Implementation
+
+    /** Release least recently used idle adapters while over capacity (most recently used is never released) */
+    private static void evictIdle()
+    {
+        int excess = adapters.size()-capacity;
+        Iterator<YouTubePlayerAdapter> it = adapters.values().iterator();
+        for (int i=adapters.size(); i>1 && excess>0; i--)
+        {
+            YouTubePlayerAdapter adapter = it.next();
+            if (adapter.isPlaying())
+                continue;
+
+            ExtensionLog.d("YouTubePlayerPool evicting player ({})", adapter.getPlayerId());
+
+            it.remove();
+            stateBuffers.remove(adapter.getPlayerId());
+            excess--;
+            adapter.onEvicted();
+            adapter.dispose();
+        }
+    }
+}
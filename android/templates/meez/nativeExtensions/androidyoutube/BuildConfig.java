@@ -0,0 +1,8 @@
+package meez.nativeExtensions.androidyoutube;
+
+/** Build configuration, generated from android/templates by the build (@see android/build.xml) */
+final class BuildConfig
+{
+    /** Calls below this android.util.Log level are compiled out (build property log.compiled.level) */
+    static final int LOG_COMPILED_LEVEL=@LOG_COMPILED_LEVEL@;
+}
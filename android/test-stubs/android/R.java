@@ -0,0 +1,10 @@
+package android;
+
+/** Plain JVM stand-in for android.R (tests only) */
+public final class R
+{
+    public static final class id
+    {
+        public static final int content=0x01020002;
+    }
+}
@@ -0,0 +1,105 @@
+package android.app;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+/**
+ * Plain JVM stand-in for android.app.Activity (tests only)
+ *
+ * The content view (android.R.id.content) holds one root view, as the AIR runtime's activity does.
+ * Create on the main looper thread. The activity starts started; performStop() and performStart()
+ * stop it (saving fragment state) and start it again.
+ */
+public class Activity extends Context
+{
+    // Instance vars
+
+    /** Application */
+    private final Application application;
+
+    /** Window */
+    private final Window window;
+
+    /** Fragment manager */
+    private final FragmentManagerImpl fragmentManager;
+
+    // Public Methods
+
+    /** Create a new Activity, of a new application */
+    public Activity()
+    {
+        this(new Application());
+    }
+
+    /** Create a new Activity */
+    public Activity(Application application)
+    {
+        this.application=application;
+        this.window=new Window(this) {};
+        this.fragmentManager=new FragmentManagerImpl(this);
+
+        FrameLayout content = new FrameLayout(this);
+        content.setId(android.R.id.content);
+        content.addView(new FrameLayout(this));
+        this.window.setContentView(content);
+    }
+
+    @Override
+    public Context getApplicationContext()
+    {
+        return this.application;
+    }
+
+    public final Application getApplication()
+    {
+        return this.application;
+    }
+
+    public View findViewById(int id)
+    {
+        return this.window.getDecorView().findViewById(id);
+    }
+
+    public FragmentManager getFragmentManager()
+    {
+        return this.fragmentManager;
+    }
+
+    public Window getWindow()
+    {
+        return this.window;
+    }
+
+    public WindowManager getWindowManager()
+    {
+        return this.window.getWindowManager();
+    }
+
+    /** Get root view of the content (tests only) */
+    public ViewGroup getContentRoot()
+    {
+        return (ViewGroup)((ViewGroup)findViewById(android.R.id.content)).getChildAt(0);
+    }
+
+    /** Save state and stop, as when the app goes to the background (tests only) */
+    public void performStop()
+    {
+        Bundle outState = new Bundle();
+        this.fragmentManager.saveAllState();
+        this.application.dispatchActivitySaveInstanceState(this, outState);
+        this.fragmentManager.dispatchStop();
+        this.application.dispatchActivityStopped(this);
+    }
+
+    /** Start again, as when the app returns to the foreground (tests only) */
+    public void performStart()
+    {
+        this.fragmentManager.dispatchStart();
+        this.application.dispatchActivityStarted(this);
+    }
+}
@@ -0,0 +1,116 @@
+package android.app;
+
+import android.content.ComponentCallbacks;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Plain JVM stand-in for android.app.Application (tests only) */
+public class Application extends Context implements ComponentCallbacks2
+{
+    /** Activity Lifecycle Callbacks */
+    public interface ActivityLifecycleCallbacks
+    {
+        void onActivityCreated(Activity activity, Bundle savedInstanceState);
+        void onActivityStarted(Activity activity);
+        void onActivityResumed(Activity activity);
+        void onActivityPaused(Activity activity);
+        void onActivityStopped(Activity activity);
+        void onActivitySaveInstanceState(Activity activity, Bundle outState);
+        void onActivityDestroyed(Activity activity);
+    }
+
+    // Instance vars
+
+    /** Activity lifecycle callbacks */
+    private final List<ActivityLifecycleCallbacks> activityCallbacks=new ArrayList<ActivityLifecycleCallbacks>();
+
+    // Public Methods
+
+    public void registerActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback)
+    {
+        synchronized (this.activityCallbacks)
+        {
+            this.activityCallbacks.add(callback);
+        }
+    }
+
+    public void unregisterActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback)
+    {
+        synchronized (this.activityCallbacks)
+        {
+            this.activityCallbacks.remove(callback);
+        }
+    }
+
+    /** Dispatch trim memory to registered component callbacks */
+    @Override
+    public void onTrimMemory(int level)
+    {
+        for (ComponentCallbacks callback : getComponentCallbacks())
+        {
+            if (callback instanceof ComponentCallbacks2)
+            {
+                ((ComponentCallbacks2)callback).onTrimMemory(level);
+            }
+        }
+    }
+
+    /** Dispatch low memory to registered component callbacks */
+    @Override
+    public void onLowMemory()
+    {
+        for (ComponentCallbacks callback : getComponentCallbacks())
+        {
+            callback.onLowMemory();
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig)
+    {
+        for (ComponentCallbacks callback : getComponentCallbacks())
+        {
+            callback.onConfigurationChanged(newConfig);
+        }
+    }
+
+    // Implementation
+
+    /** Get activity lifecycle callbacks */
+    private ActivityLifecycleCallbacks[] getActivityCallbacks()
+    {
+        synchronized (this.activityCallbacks)
+        {
+            return this.activityCallbacks.toArray(new ActivityLifecycleCallbacks[this.activityCallbacks.size()]);
+        }
+    }
+
+    void dispatchActivityStarted(Activity activity)
+    {
+        for (ActivityLifecycleCallbacks callback : getActivityCallbacks())
+        {
+            callback.onActivityStarted(activity);
+        }
+    }
+
+    void dispatchActivitySaveInstanceState(Activity activity, Bundle outState)
+    {
+        for (ActivityLifecycleCallbacks callback : getActivityCallbacks())
+        {
+            callback.onActivitySaveInstanceState(activity, outState);
+        }
+    }
+
+    void dispatchActivityStopped(Activity activity)
+    {
+        for (ActivityLifecycleCallbacks callback : getActivityCallbacks())
+        {
+            callback.onActivityStopped(activity);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package android.app;
+
+import android.content.Context;
+import android.view.View;
+import android.view.Window;
+
+/** Plain JVM stand-in for android.app.Dialog (tests only) */
+public class Dialog
+{
+    // Instance vars
+
+    /** Window */
+    private final Window window;
+
+    /** Is showing */
+    private boolean showing;
+
+    /** Cancelable */
+    private boolean cancelable=true;
+
+    // Public Methods
+
+    /** Create a new Dialog */
+    public Dialog(Context context)
+    {
+        this.window=new Window(context) {};
+    }
+
+    public void setCancelable(boolean flag)
+    {
+        this.cancelable=flag;
+    }
+
+    public boolean requestWindowFeature(int featureId)
+    {
+        return true;
+    }
+
+    public Window getWindow()
+    {
+        return this.window;
+    }
+
+    public void setContentView(View view)
+    {
+        this.window.setContentView(view);
+    }
+
+    public void show()
+    {
+        this.showing=true;
+    }
+
+    public void hide()
+    {
+        this.showing=false;
+    }
+
+    public void dismiss()
+    {
+        this.showing=false;
+    }
+
+    public boolean isShowing()
+    {
+        return this.showing;
+    }
+}
@@ -0,0 +1,95 @@
+package android.app;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/** Plain JVM stand-in for android.app.Fragment (tests only). Lifecycle callbacks are called by the activity's FragmentManager */
+public class Fragment
+{
+    // Instance vars
+
+    /** Arguments (null if none) */
+    private Bundle arguments;
+
+    /** Retain instance */
+    private boolean retainInstance;
+
+    /** Activity (null if not added) */
+    Activity activity;
+
+    /** View (null if not created) */
+    View view;
+
+    /** Is started */
+    boolean started;
+
+    // Public Methods
+
+    public void setArguments(Bundle args)
+    {
+        if (this.activity!=null)
+            throw new IllegalStateException("Fragment already active");
+        this.arguments=args;
+    }
+
+    public final Bundle getArguments()
+    {
+        return this.arguments;
+    }
+
+    public void setRetainInstance(boolean retain)
+    {
+        this.retainInstance=retain;
+    }
+
+    public final boolean getRetainInstance()
+    {
+        return this.retainInstance;
+    }
+
+    public final Activity getActivity()
+    {
+        return this.activity;
+    }
+
+    public final boolean isAdded()
+    {
+        return this.activity!=null;
+    }
+
+    public View getView()
+    {
+        return this.view;
+    }
+
+    public void onCreate(Bundle savedInstanceState)
+    {
+    }
+
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState)
+    {
+        return null;
+    }
+
+    public void onStart()
+    {
+    }
+
+    public void onStop()
+    {
+    }
+
+    public void onSaveInstanceState(Bundle outState)
+    {
+    }
+
+    public void onDestroyView()
+    {
+    }
+
+    public void onDestroy()
+    {
+    }
+}
@@ -0,0 +1,9 @@
+package android.app;
+
+/** Plain JVM stand-in for android.app.FragmentManager (tests only) */
+public abstract class FragmentManager
+{
+    public abstract FragmentTransaction beginTransaction();
+
+    public abstract boolean executePendingTransactions();
+}
@@ -0,0 +1,275 @@
+package android.app;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FragmentManager of the Activity stand-in (tests only)
+ *
+ * As on Android, committed transactions run later on the main looper, and commit() throws once the
+ * activity saved its state. Added fragments get onCreate, onCreateView (then the view is added to the
+ * container) and onStart; removed fragments get onStop, onDestroyView and, unless retained, onDestroy.
+ */
+final class FragmentManagerImpl extends FragmentManager
+{
+    // Instance vars
+
+    /** Activity */
+    private final Activity activity;
+
+    /** Added fragments */
+    private final List<Fragment> added;
+
+    /** Committed transactions not yet run */
+    private final List<Transaction> pending;
+
+    /** Runs pending transactions */
+    private final Runnable execPending;
+
+    /** Main thread handler (created on first commit) */
+    private Handler handler;
+
+    /** Has the activity saved its state */
+    private boolean stateSaved;
+
+    /** Is the activity started */
+    private boolean started;
+
+    /** Transaction ids */
+    private int nextId;
+
+    // Public Methods
+
+    /** Create a new FragmentManagerImpl */
+    FragmentManagerImpl(Activity activity)
+    {
+        this.activity=activity;
+        this.added=new ArrayList<Fragment>();
+        this.pending=new ArrayList<Transaction>();
+        this.started=true;
+        this.execPending=new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                executePendingTransactions();
+            }
+        };
+    }
+
+    @Override
+    public FragmentTransaction beginTransaction()
+    {
+        return new Transaction();
+    }
+
+    @Override
+    public boolean executePendingTransactions()
+    {
+        checkMainThread();
+
+        boolean ran = false;
+        while (!this.pending.isEmpty())
+        {
+            this.pending.remove(0).run();
+            ran=true;
+        }
+        return ran;
+    }
+
+    // Implementation
+
+    /** Enqueue committed transaction */
+    private int enqueue(Transaction transaction, boolean allowStateLoss)
+    {
+        checkMainThread();
+        if (this.stateSaved && !allowStateLoss)
+            throw new IllegalStateException("Can not perform this action after onSaveInstanceState");
+
+        if (this.handler==null)
+        {
+            this.handler=new Handler(Looper.getMainLooper());
+        }
+
+        this.pending.add(transaction);
+        if (this.pending.size()==1)
+        {
+            this.handler.post(this.execPending);
+        }
+        return this.nextId++;
+    }
+
+    /** Add fragment */
+    private void addFragment(int containerViewId, Fragment fragment)
+    {
+        ViewGroup container = (ViewGroup)this.activity.findViewById(containerViewId);
+        if (container==null)
+            throw new IllegalArgumentException("No view found for id 0x"+Integer.toHexString(containerViewId)+" for fragment "+fragment);
+
+        this.added.add(fragment);
+        fragment.activity=this.activity;
+        fragment.onCreate(null);
+
+        View view = fragment.onCreateView(new LayoutInflater() {}, container, null);
+        fragment.view=view;
+        if (view!=null)
+        {
+            container.addView(view);
+        }
+
+        if (this.started)
+        {
+            fragment.started=true;
+            fragment.onStart();
+        }
+    }
+
+    /** Remove fragment */
+    private void removeFragment(Fragment fragment)
+    {
+        if (!this.added.remove(fragment))
+            return;
+
+        if (fragment.started)
+        {
+            fragment.started=false;
+            fragment.onStop();
+        }
+
+        fragment.onDestroyView();
+        View view = fragment.view;
+        if (view!=null && view.getParent() instanceof ViewGroup)
+        {
+            ((ViewGroup)view.getParent()).removeView(view);
+        }
+        fragment.view=null;
+
+        if (!fragment.getRetainInstance())
+        {
+            fragment.onDestroy();
+        }
+        fragment.activity=null;
+    }
+
+    /** Save state of added fragments */
+    void saveAllState()
+    {
+        this.stateSaved=true;
+        for (Fragment fragment : new ArrayList<Fragment>(this.added))
+        {
+            fragment.onSaveInstanceState(new Bundle());
+        }
+    }
+
+    /** Stop added fragments */
+    void dispatchStop()
+    {
+        this.started=false;
+        for (Fragment fragment : new ArrayList<Fragment>(this.added))
+        {
+            if (fragment.started)
+            {
+                fragment.started=false;
+                fragment.onStop();
+            }
+        }
+    }
+
+    /** Start added fragments */
+    void dispatchStart()
+    {
+        this.stateSaved=false;
+        this.started=true;
+        for (Fragment fragment : new ArrayList<Fragment>(this.added))
+        {
+            if (!fragment.started)
+            {
+                fragment.started=true;
+                fragment.onStart();
+            }
+        }
+    }
+
+    /** Check the main thread is calling */
+    private void checkMainThread()
+    {
+        if (Looper.myLooper()==null || Looper.myLooper()!=Looper.getMainLooper())
+            throw new IllegalStateException("Fragment transactions must run on the main thread");
+    }
+
+    /** Transaction */
+    private final class Transaction extends FragmentTransaction implements Runnable
+    {
+        /** Operations, run in order */
+        private final List<Runnable> ops=new ArrayList<Runnable>();
+
+        /** Committed */
+        private boolean committed;
+
+        @Override
+        public FragmentTransaction add(final int containerViewId, final Fragment fragment)
+        {
+            this.ops.add(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    addFragment(containerViewId, fragment);
+                }
+            });
+            return this;
+        }
+
+        @Override
+        public FragmentTransaction remove(final Fragment fragment)
+        {
+            this.ops.add(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    removeFragment(fragment);
+                }
+            });
+            return this;
+        }
+
+        @Override
+        public int commit()
+        {
+            return commitInternal(false);
+        }
+
+        @Override
+        public int commitAllowingStateLoss()
+        {
+            return commitInternal(true);
+        }
+
+        @Override
+        public void run()
+        {
+            for (Runnable op : this.ops)
+            {
+                op.run();
+            }
+        }
+
+        /** Commit */
+        private int commitInternal(boolean allowStateLoss)
+        {
+            if (this.committed)
+                throw new IllegalStateException("commit already called");
+            int id = enqueue(this, allowStateLoss);
+            this.committed=true;
+            return id;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package android.app;
+
+/** Plain JVM stand-in for android.app.FragmentTransaction (tests only) */
+public abstract class FragmentTransaction
+{
+    public abstract FragmentTransaction add(int containerViewId, Fragment fragment);
+
+    public abstract FragmentTransaction remove(Fragment fragment);
+
+    public abstract int commit();
+
+    public abstract int commitAllowingStateLoss();
+}
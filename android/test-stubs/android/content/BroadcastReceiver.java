@@ -0,0 +1,7 @@
+package android.content;
+
+/** Plain JVM stand-in for android.content.BroadcastReceiver (tests only) */
+public abstract class BroadcastReceiver
+{
+    public abstract void onReceive(Context context, Intent intent);
+}
@@ -0,0 +1,11 @@
+package android.content;
+
+import android.content.res.Configuration;
+
+/** Plain JVM stand-in for android.content.ComponentCallbacks (tests only) */
+public interface ComponentCallbacks
+{
+    void onConfigurationChanged(Configuration newConfig);
+
+    void onLowMemory();
+}
@@ -0,0 +1,191 @@
+package android.content;
+
+import android.content.pm.PackageManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JVM stand-in for android.content.Context (tests only)
+ *
+ * Broadcasts are delivered synchronously on the sending thread. Components other than the application
+ * context use the application's receivers, callbacks, packages and files.
+ */
+public abstract class Context
+{
+    // Instance vars
+
+    /** Registered receivers and their filters */
+    private final List<Object[]> receivers=new ArrayList<Object[]>();
+
+    /** Registered component callbacks */
+    private final List<ComponentCallbacks> componentCallbacks=new ArrayList<ComponentCallbacks>();
+
+    /** Package manager (created on first use) */
+    private PackageManager packageManager;
+
+    /** Files directory (created on first use) */
+    private File filesDir;
+
+    // Public Methods
+
+    /** Get application context (this context by default) */
+    public Context getApplicationContext()
+    {
+        return this;
+    }
+
+    public PackageManager getPackageManager()
+    {
+        if (!isApplicationContext())
+            return getApplicationContext().getPackageManager();
+
+        synchronized (this)
+        {
+            if (this.packageManager==null)
+            {
+                this.packageManager=new PackageManager() {};
+            }
+            return this.packageManager;
+        }
+    }
+
+    public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter)
+    {
+        if (!isApplicationContext())
+            return getApplicationContext().registerReceiver(receiver, filter);
+
+        synchronized (this.receivers)
+        {
+            this.receivers.add(new Object[] {receiver, filter});
+        }
+        return null;
+    }
+
+    public void unregisterReceiver(BroadcastReceiver receiver)
+    {
+        if (!isApplicationContext())
+        {
+            getApplicationContext().unregisterReceiver(receiver);
+            return;
+        }
+
+        synchronized (this.receivers)
+        {
+            for (int i=0; i<this.receivers.size(); i++)
+            {
+                if (this.receivers.get(i)[0]==receiver)
+                {
+                    this.receivers.remove(i);
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Receiver not registered: "+receiver);
+    }
+
+    /** Send broadcast to matching receivers (synchronously) */
+    public void sendBroadcast(Intent intent)
+    {
+        if (!isApplicationContext())
+        {
+            getApplicationContext().sendBroadcast(intent);
+            return;
+        }
+
+        List<Object[]> registered;
+        synchronized (this.receivers)
+        {
+            registered=new ArrayList<Object[]>(this.receivers);
+        }
+        for (Object[] entry : registered)
+        {
+            if (((IntentFilter)entry[1]).matches(intent))
+            {
+                ((BroadcastReceiver)entry[0]).onReceive(this, intent);
+            }
+        }
+    }
+
+    public void registerComponentCallbacks(ComponentCallbacks callback)
+    {
+        if (!isApplicationContext())
+        {
+            getApplicationContext().registerComponentCallbacks(callback);
+            return;
+        }
+
+        synchronized (this.componentCallbacks)
+        {
+            this.componentCallbacks.add(callback);
+        }
+    }
+
+    public void unregisterComponentCallbacks(ComponentCallbacks callback)
+    {
+        if (!isApplicationContext())
+        {
+            getApplicationContext().unregisterComponentCallbacks(callback);
+            return;
+        }
+
+        synchronized (this.componentCallbacks)
+        {
+            this.componentCallbacks.remove(callback);
+        }
+    }
+
+    /** Get files directory, a new temporary directory per application */
+    public File getFilesDir()
+    {
+        if (!isApplicationContext())
+            return getApplicationContext().getFilesDir();
+
+        synchronized (this)
+        {
+            if (this.filesDir==null)
+            {
+                try
+                {
+                    File dir = File.createTempFile("AndroidYouTube-files", "");
+                    if (!dir.delete() || !dir.mkdir())
+                        throw new IllegalStateException("Could not create files directory ("+dir+")");
+                    this.filesDir=dir;
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return this.filesDir;
+        }
+    }
+
+    public File getCacheDir()
+    {
+        return getFilesDir();
+    }
+
+    public Object getSystemService(String name)
+    {
+        return null;
+    }
+
+    // Implementation
+
+    /** Get registered component callbacks */
+    protected List<ComponentCallbacks> getComponentCallbacks()
+    {
+        synchronized (this.componentCallbacks)
+        {
+            return new ArrayList<ComponentCallbacks>(this.componentCallbacks);
+        }
+    }
+
+    /** Is this the application context */
+    private boolean isApplicationContext()
+    {
+        return getApplicationContext()==this;
+    }
+}
@@ -0,0 +1,51 @@
+package android.content;
+
+import android.net.Uri;
+
+/** Plain JVM stand-in for android.content.Intent (tests only) */
+public class Intent
+{
+    public static final String ACTION_PACKAGE_ADDED="android.intent.action.PACKAGE_ADDED";
+    public static final String ACTION_PACKAGE_REMOVED="android.intent.action.PACKAGE_REMOVED";
+    public static final String ACTION_PACKAGE_CHANGED="android.intent.action.PACKAGE_CHANGED";
+    public static final String ACTION_PACKAGE_REPLACED="android.intent.action.PACKAGE_REPLACED";
+
+    // Instance vars
+
+    /** Action */
+    private final String action;
+
+    /** Data (null if none) */
+    private Uri data;
+
+    // Public Methods
+
+    /** Create a new Intent */
+    public Intent(String action)
+    {
+        this.action=action;
+    }
+
+    /** Create a new Intent */
+    public Intent(String action, Uri data)
+    {
+        this.action=action;
+        this.data=data;
+    }
+
+    public String getAction()
+    {
+        return this.action;
+    }
+
+    public Uri getData()
+    {
+        return this.data;
+    }
+
+    public Intent setData(Uri data)
+    {
+        this.data=data;
+        return this;
+    }
+}
@@ -0,0 +1,48 @@
+package android.content;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Plain JVM stand-in for android.content.IntentFilter (tests only) */
+public class IntentFilter
+{
+    /** Actions */
+    private final List<String> actions=new ArrayList<String>();
+
+    /** Data schemes */
+    private final List<String> schemes=new ArrayList<String>();
+
+    public IntentFilter()
+    {
+    }
+
+    public final void addAction(String action)
+    {
+        this.actions.add(action);
+    }
+
+    public final boolean hasAction(String action)
+    {
+        return this.actions.contains(action);
+    }
+
+    public final void addDataScheme(String scheme)
+    {
+        this.schemes.add(scheme);
+    }
+
+    public final boolean hasDataScheme(String scheme)
+    {
+        return this.schemes.contains(scheme);
+    }
+
+    /** Does intent match the actions and data schemes */
+    boolean matches(Intent intent)
+    {
+        if (!hasAction(intent.getAction()))
+            return false;
+        if (this.schemes.isEmpty())
+            return intent.getData()==null;
+        return intent.getData()!=null && hasDataScheme(intent.getData().getScheme());
+    }
+}
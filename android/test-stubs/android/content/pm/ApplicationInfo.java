@@ -0,0 +1,8 @@
+package android.content.pm;
+
+/** Plain JVM stand-in for android.content.pm.ApplicationInfo (tests only) */
+public class ApplicationInfo
+{
+    public String packageName;
+    public boolean enabled=true;
+}
@@ -0,0 +1,10 @@
+package android.content.pm;
+
+/** Plain JVM stand-in for android.content.pm.PackageInfo (tests only) */
+public class PackageInfo
+{
+    public String packageName;
+    public String versionName;
+    public int versionCode;
+    public ApplicationInfo applicationInfo;
+}
@@ -0,0 +1,58 @@
+package android.content.pm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Plain JVM stand-in for android.content.pm.PackageManager (tests only). Packages are installed by the test */
+public abstract class PackageManager
+{
+    /** Name Not Found Exception */
+    public static class NameNotFoundException extends Exception
+    {
+        public NameNotFoundException()
+        {
+        }
+
+        public NameNotFoundException(String name)
+        {
+            super(name);
+        }
+    }
+
+    // Instance vars
+
+    /** Installed packages, by name */
+    private final Map<String, PackageInfo> packages=new ConcurrentHashMap<String, PackageInfo>();
+
+    // Public Methods
+
+    public PackageInfo getPackageInfo(String packageName, int flags) throws NameNotFoundException
+    {
+        PackageInfo info = this.packages.get(packageName);
+        if (info==null)
+            throw new NameNotFoundException(packageName);
+        return info;
+    }
+
+    public ApplicationInfo getApplicationInfo(String packageName, int flags) throws NameNotFoundException
+    {
+        return getPackageInfo(packageName, flags).applicationInfo;
+    }
+
+    /** Install package (tests only) */
+    public void installPackage(String packageName, String versionName)
+    {
+        PackageInfo info = new PackageInfo();
+        info.packageName=packageName;
+        info.versionName=versionName;
+        info.applicationInfo=new ApplicationInfo();
+        info.applicationInfo.packageName=packageName;
+        this.packages.put(packageName, info);
+    }
+
+    /** Uninstall package (tests only) */
+    public void uninstallPackage(String packageName)
+    {
+        this.packages.remove(packageName);
+    }
+}
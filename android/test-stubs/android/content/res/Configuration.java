@@ -0,0 +1,6 @@
+package android.content.res;
+
+/** Plain JVM stand-in for android.content.res.Configuration (tests only) */
+public class Configuration
+{
+}
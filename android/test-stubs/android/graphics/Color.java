@@ -0,0 +1,7 @@
+package android.graphics;
+
+/** Plain JVM stand-in for android.graphics.Color (tests only) */
+public class Color
+{
+    public static final int TRANSPARENT=0;
+}
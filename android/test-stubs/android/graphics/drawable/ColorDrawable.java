@@ -0,0 +1,18 @@
+package android.graphics.drawable;
+
+/** Plain JVM stand-in for android.graphics.drawable.ColorDrawable (tests only) */
+public class ColorDrawable extends Drawable
+{
+    /** Color */
+    private final int color;
+
+    public ColorDrawable(int color)
+    {
+        this.color=color;
+    }
+
+    public int getColor()
+    {
+        return this.color;
+    }
+}
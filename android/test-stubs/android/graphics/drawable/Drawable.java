@@ -0,0 +1,6 @@
+package android.graphics.drawable;
+
+/** Plain JVM stand-in for android.graphics.drawable.Drawable (tests only) */
+public abstract class Drawable
+{
+}
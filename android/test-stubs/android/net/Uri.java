@@ -0,0 +1,35 @@
+package android.net;
+
+/** Plain JVM stand-in for android.net.Uri (tests only). Only scheme and scheme specific part are parsed */
+public abstract class Uri
+{
+    public abstract String getScheme();
+
+    public abstract String getSchemeSpecificPart();
+
+    /** Parse uri string */
+    public static Uri parse(final String uriString)
+    {
+        final int colon = uriString.indexOf(':');
+        return new Uri()
+        {
+            @Override
+            public String getScheme()
+            {
+                return (colon<0) ? null : uriString.substring(0, colon);
+            }
+
+            @Override
+            public String getSchemeSpecificPart()
+            {
+                return uriString.substring(colon+1);
+            }
+
+            @Override
+            public String toString()
+            {
+                return uriString;
+            }
+        };
+    }
+}
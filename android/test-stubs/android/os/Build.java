@@ -0,0 +1,18 @@
+package android.os;
+
+/** Plain JVM stand-in for android.os.Build (tests only) */
+public class Build
+{
+    public static class VERSION
+    {
+        /** API level run at (not a compile time constant, as on Android) */
+        public static final int SDK_INT=Integer.parseInt(System.getProperty("android.sdk", "19"));
+    }
+
+    public static class VERSION_CODES
+    {
+        public static final int HONEYCOMB=11;
+        public static final int ICE_CREAM_SANDWICH=14;
+        public static final int JELLY_BEAN=16;
+    }
+}
@@ -0,0 +1,33 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Plain JVM stand-in for android.os.Bundle (tests only) */
+public class Bundle
+{
+    /** Values */
+    private final Map<String, Object> values=new HashMap<String, Object>();
+
+    public void putString(String key, String value)
+    {
+        this.values.put(key, value);
+    }
+
+    public String getString(String key)
+    {
+        Object value = this.values.get(key);
+        return (value instanceof String) ? (String)value : null;
+    }
+
+    public void putInt(String key, int value)
+    {
+        this.values.put(key, value);
+    }
+
+    public int getInt(String key)
+    {
+        Object value = this.values.get(key);
+        return (value instanceof Integer) ? (Integer)value : 0;
+    }
+}
@@ -0,0 +1,132 @@
+package android.os;
+
+/** Plain JVM stand-in for android.os.Handler (tests only) */
+public class Handler
+{
+    /** Callback */
+    public interface Callback
+    {
+        boolean handleMessage(Message msg);
+    }
+
+    // Instance vars
+
+    /** Looper */
+    private final Looper looper;
+
+    /** Callback (null if none) */
+    private final Callback callback;
+
+    // Public Methods
+
+    /** Create a new Handler for the current thread's looper */
+    public Handler()
+    {
+        this(Looper.myLooper(), null);
+    }
+
+    /** Create a new Handler */
+    public Handler(Looper looper)
+    {
+        this(looper, null);
+    }
+
+    /** Create a new Handler */
+    public Handler(Looper looper, Callback callback)
+    {
+        if (looper==null)
+            throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+
+        this.looper=looper;
+        this.callback=callback;
+    }
+
+    /** Get looper */
+    public final Looper getLooper()
+    {
+        return this.looper;
+    }
+
+    public final boolean post(Runnable r)
+    {
+        return postAtTime(r, SystemClock.uptimeMillis());
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis)
+    {
+        return postAtTime(r, SystemClock.uptimeMillis()+Math.max(0, delayMillis));
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis)
+    {
+        Message msg = Message.obtain();
+        msg.callback=r;
+        return sendMessageAtTime(msg, uptimeMillis);
+    }
+
+    public final void removeCallbacks(Runnable r)
+    {
+        this.looper.getQueue().removeCallbacks(this, r);
+    }
+
+    public final Message obtainMessage(int what, Object obj)
+    {
+        Message msg = Message.obtain();
+        msg.what=what;
+        msg.obj=obj;
+        return msg;
+    }
+
+    public final boolean sendMessage(Message msg)
+    {
+        return sendMessageAtTime(msg, SystemClock.uptimeMillis());
+    }
+
+    public final boolean sendEmptyMessage(int what)
+    {
+        return sendEmptyMessageDelayed(what, 0);
+    }
+
+    public final boolean sendEmptyMessageDelayed(int what, long delayMillis)
+    {
+        Message msg = Message.obtain();
+        msg.what=what;
+        return sendMessageAtTime(msg, SystemClock.uptimeMillis()+Math.max(0, delayMillis));
+    }
+
+    public boolean sendMessageAtTime(Message msg, long uptimeMillis)
+    {
+        msg.target=this;
+        msg.when=uptimeMillis;
+        return this.looper.getQueue().enqueue(msg);
+    }
+
+    public final void removeMessages(int what)
+    {
+        this.looper.getQueue().removeMessages(this, what);
+    }
+
+    public final boolean hasMessages(int what)
+    {
+        return this.looper.getQueue().hasMessages(this, what);
+    }
+
+    /** Handle message (override) */
+    public void handleMessage(Message msg)
+    {
+    }
+
+    /** Dispatch message */
+    public void dispatchMessage(Message msg)
+    {
+        if (msg.callback!=null)
+        {
+            msg.callback.run();
+            return;
+        }
+        if (this.callback!=null && this.callback.handleMessage(msg))
+            return;
+
+        handleMessage(msg);
+    }
+}
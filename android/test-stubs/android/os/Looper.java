@@ -0,0 +1,97 @@
+package android.os;
+
+/**
+ * Plain JVM stand-in for android.os.Looper (tests only)
+ *
+ * There is no loop thread: a test prepares the main looper on its own thread, and dispatches its messages
+ * with the MessageQueue run methods.
+ */
+public final class Looper
+{
+    // Class vars
+
+    /** Looper of each thread */
+    private static final ThreadLocal<Looper> threadLooper=new ThreadLocal<Looper>();
+
+    /** Main looper (null if not prepared) */
+    private static volatile Looper mainLooper;
+
+    // Instance vars
+
+    /** Message queue */
+    private final MessageQueue queue;
+
+    /** Thread */
+    private final Thread thread;
+
+    // Public Methods
+
+    /** Create a new Looper for the current thread */
+    private Looper()
+    {
+        this.queue=new MessageQueue();
+        this.thread=Thread.currentThread();
+    }
+
+    /** Prepare a looper for the current thread */
+    public static void prepare()
+    {
+        if (threadLooper.get()!=null)
+            throw new RuntimeException("Only one Looper may be created per thread");
+
+        threadLooper.set(new Looper());
+    }
+
+    /**
+     * Make the current thread's looper the main looper, preparing it if needed. Unlike Android, a test may
+     * call this again (e.g. once per test); pending messages and idle handlers are discarded
+     */
+    public static void prepareMainLooper()
+    {
+        if (threadLooper.get()==null)
+        {
+            prepare();
+        }
+        mainLooper=threadLooper.get();
+        mainLooper.queue.clear();
+    }
+
+    /** Get main looper (null if not prepared) */
+    public static Looper getMainLooper()
+    {
+        return mainLooper;
+    }
+
+    /** Get looper of the current thread (null if not prepared) */
+    public static Looper myLooper()
+    {
+        return threadLooper.get();
+    }
+
+    /** Get message queue of the current thread's looper */
+    public static MessageQueue myQueue()
+    {
+        Looper looper = threadLooper.get();
+        if (looper==null)
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        return looper.queue;
+    }
+
+    /** Get thread */
+    public Thread getThread()
+    {
+        return this.thread;
+    }
+
+    /** Get message queue */
+    public MessageQueue getQueue()
+    {
+        return this.queue;
+    }
+
+    /** Is the current thread this looper's thread */
+    public boolean isCurrentThread()
+    {
+        return Thread.currentThread()==this.thread;
+    }
+}
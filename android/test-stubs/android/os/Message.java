@@ -0,0 +1,25 @@
+package android.os;
+
+/** Plain JVM stand-in for android.os.Message (tests only) */
+public final class Message
+{
+    public int what;
+    public int arg1;
+    public int arg2;
+    public Object obj;
+
+    /** Uptime to dispatch at */
+    long when;
+
+    /** Handler dispatching the message */
+    Handler target;
+
+    /** Runnable posted (null for a message) */
+    Runnable callback;
+
+    /** Return a new Message */
+    public static Message obtain()
+    {
+        return new Message();
+    }
+}
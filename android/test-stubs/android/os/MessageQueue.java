@@ -0,0 +1,248 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Plain JVM stand-in for android.os.MessageQueue (tests only)
+ *
+ * Messages are dispatched by the test on the looper's thread, with runNext(), runUntilIdle() or runFor().
+ * Idle handlers run once each time the queue becomes idle, as in Android's MessageQueue.next().
+ */
+public final class MessageQueue
+{
+    /** Idle Handler */
+    public interface IdleHandler
+    {
+        boolean queueIdle();
+    }
+
+    // Instance vars
+
+    /** Messages, by dispatch time (posted order for equal times) */
+    private final LinkedList<Message> messages;
+
+    /** Idle handlers */
+    private final List<IdleHandler> idleHandlers;
+
+    /** Looper thread */
+    private final Thread thread;
+
+    // Public Methods
+
+    /** Create a new MessageQueue for the current thread */
+    MessageQueue()
+    {
+        this.messages=new LinkedList<Message>();
+        this.idleHandlers=new ArrayList<IdleHandler>();
+        this.thread=Thread.currentThread();
+    }
+
+    public void addIdleHandler(IdleHandler handler)
+    {
+        synchronized (this)
+        {
+            this.idleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler)
+    {
+        synchronized (this)
+        {
+            this.idleHandlers.remove(handler);
+        }
+    }
+
+    /** Dispatch the next message due now. Returns false if none is due (looper thread) */
+    public boolean runNext()
+    {
+        checkThread();
+
+        Message msg = pollDue(SystemClock.uptimeMillis());
+        if (msg==null)
+            return false;
+
+        msg.target.dispatchMessage(msg);
+        return true;
+    }
+
+    /** Dispatch messages due now, and idle handlers once the queue is idle. Returns the number of messages dispatched (looper thread) */
+    public int runUntilIdle()
+    {
+        int count = 0;
+        do
+        {
+            while (runNext())
+            {
+                count++;
+            }
+            runIdleHandlers();
+        }
+        while (hasDue());
+        return count;
+    }
+
+    /** Dispatch messages, and idle handlers, as they become due for a time. Returns the number of messages dispatched (looper thread) */
+    public int runFor(long millis)
+    {
+        long deadline = SystemClock.uptimeMillis()+millis;
+        int count = runUntilIdle();
+        for (;;)
+        {
+            synchronized (this)
+            {
+                long now = SystemClock.uptimeMillis();
+                if (now>=deadline)
+                    return count;
+
+                long next = this.messages.isEmpty() ? deadline : Math.min(deadline, this.messages.getFirst().when);
+                if (next>now)
+                {
+                    try
+                    {
+                        wait(next-now);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        return count;
+                    }
+                }
+            }
+            count+=runUntilIdle();
+        }
+    }
+
+    /** Number of pending messages */
+    public int size()
+    {
+        synchronized (this)
+        {
+            return this.messages.size();
+        }
+    }
+
+    /** Discard pending messages and idle handlers */
+    public void clear()
+    {
+        synchronized (this)
+        {
+            this.messages.clear();
+            this.idleHandlers.clear();
+        }
+    }
+
+    // Implementation
+
+    /** Enqueue message */
+    boolean enqueue(Message msg)
+    {
+        synchronized (this)
+        {
+            // after messages due at the same time
+            int index = this.messages.size();
+            while (index>0 && this.messages.get(index-1).when>msg.when)
+            {
+                index--;
+            }
+            this.messages.add(index, msg);
+            notifyAll();
+        }
+        return true;
+    }
+
+    /** Remove posted runnable */
+    void removeCallbacks(Handler handler, Runnable r)
+    {
+        synchronized (this)
+        {
+            Iterator<Message> it = this.messages.iterator();
+            while (it.hasNext())
+            {
+                Message msg = it.next();
+                if (msg.target==handler && msg.callback==r)
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /** Remove messages */
+    void removeMessages(Handler handler, int what)
+    {
+        synchronized (this)
+        {
+            Iterator<Message> it = this.messages.iterator();
+            while (it.hasNext())
+            {
+                Message msg = it.next();
+                if (msg.target==handler && msg.callback==null && msg.what==what)
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /** Has messages */
+    boolean hasMessages(Handler handler, int what)
+    {
+        synchronized (this)
+        {
+            for (Message msg : this.messages)
+            {
+                if (msg.target==handler && msg.callback==null && msg.what==what)
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /** Remove the next message, if due */
+    private Message pollDue(long now)
+    {
+        synchronized (this)
+        {
+            if (this.messages.isEmpty() || this.messages.getFirst().when>now)
+                return null;
+            return this.messages.removeFirst();
+        }
+    }
+
+    /** Is a message due */
+    private boolean hasDue()
+    {
+        synchronized (this)
+        {
+            return !this.messages.isEmpty() && this.messages.getFirst().when<=SystemClock.uptimeMillis();
+        }
+    }
+
+    /** Run idle handlers once, removing those that return false */
+    private void runIdleHandlers()
+    {
+        List<IdleHandler> pending;
+        synchronized (this)
+        {
+            pending=new ArrayList<IdleHandler>(this.idleHandlers);
+        }
+        for (IdleHandler handler : pending)
+        {
+            if (!handler.queueIdle())
+            {
+                removeIdleHandler(handler);
+            }
+        }
+    }
+
+    /** Check the looper thread is calling */
+    private void checkThread()
+    {
+        if (Thread.currentThread()!=this.thread)
+            throw new IllegalStateException("Messages are dispatched on the looper thread ("+this.thread.getName()+")");
+    }
+}
@@ -0,0 +1,11 @@
+package android.os;
+
+/** Plain JVM stand-in for android.os.SystemClock (tests only) */
+public final class SystemClock
+{
+    /** Milliseconds since an arbitrary origin, like uptime */
+    public static long uptimeMillis()
+    {
+        return System.nanoTime()/1000000;
+    }
+}
@@ -0,0 +1,31 @@
+package android.util;
+
+/** Plain JVM stand-in for android.util.Log (tests only). Messages are discarded */
+public final class Log
+{
+    public static final int VERBOSE=2;
+    public static final int DEBUG=3;
+    public static final int INFO=4;
+    public static final int WARN=5;
+    public static final int ERROR=6;
+
+    public static int d(String tag, String msg)
+    {
+        return 0;
+    }
+
+    public static int w(String tag, String msg)
+    {
+        return 0;
+    }
+
+    public static int w(String tag, String msg, Throwable t)
+    {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable t)
+    {
+        return 0;
+    }
+}
@@ -0,0 +1,90 @@
+package android.view;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Plain JVM stand-in for android.view.Choreographer (tests only). Frames are posted to the thread's looper every 16ms */
+public final class Choreographer
+{
+    /** Frame Callback */
+    public interface FrameCallback
+    {
+        void doFrame(long frameTimeNanos);
+    }
+
+    // Definitions
+
+    /** Frame interval */
+    private static final long FRAME_MILLIS=16;
+
+    // Class vars
+
+    /** Choreographer of each looper thread */
+    private static final ThreadLocal<Choreographer> threadChoreographer=new ThreadLocal<Choreographer>()
+    {
+        @Override
+        protected Choreographer initialValue()
+        {
+            Looper looper = Looper.myLooper();
+            if (looper==null)
+                throw new IllegalStateException("The current thread must have a looper!");
+            return new Choreographer(looper);
+        }
+    };
+
+    // Instance vars
+
+    /** Handler */
+    private final Handler handler;
+
+    /** Posted frame of each callback */
+    private final Map<FrameCallback, Runnable> frames;
+
+    // Public Methods
+
+    /** Create a new Choreographer */
+    private Choreographer(Looper looper)
+    {
+        this.handler=new Handler(looper);
+        this.frames=new HashMap<FrameCallback, Runnable>();
+    }
+
+    /** Get Choreographer of the current thread */
+    public static Choreographer getInstance()
+    {
+        return threadChoreographer.get();
+    }
+
+    public void postFrameCallback(final FrameCallback callback)
+    {
+        removeFrameCallback(callback);
+
+        Runnable frame = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Choreographer.this.frames.remove(callback);
+                callback.doFrame(System.nanoTime());
+            }
+        };
+        this.frames.put(callback, frame);
+
+        // next frame boundary
+        long now = SystemClock.uptimeMillis();
+        this.handler.postAtTime(frame, now-now%FRAME_MILLIS+FRAME_MILLIS);
+    }
+
+    public void removeFrameCallback(FrameCallback callback)
+    {
+        Runnable frame = this.frames.remove(callback);
+        if (frame!=null)
+        {
+            this.handler.removeCallbacks(frame);
+        }
+    }
+}
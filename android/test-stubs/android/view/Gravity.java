@@ -0,0 +1,8 @@
+package android.view;
+
+/** Plain JVM stand-in for android.view.Gravity (tests only) */
+public class Gravity
+{
+    public static final int TOP=48;
+    public static final int LEFT=3;
+}
@@ -0,0 +1,112 @@
+package android.view;
+
+import android.content.Context;
+
+/** Plain JVM stand-in for android.view.View (tests only). Keeps its tree, nothing is drawn */
+public class View
+{
+    public static final int VISIBLE=0;
+    public static final int INVISIBLE=4;
+    public static final int GONE=8;
+
+    // Instance vars
+
+    /** Context */
+    private final Context context;
+
+    /** Id */
+    private int id;
+
+    /** Visibility */
+    private int visibility;
+
+    /** Save enabled */
+    private boolean saveEnabled=true;
+
+    /** Layout params (null if not set) */
+    private ViewGroup.LayoutParams layoutParams;
+
+    /** Parent (null if not attached) */
+    ViewParent parent;
+
+    // Public Methods
+
+    /** Create a new View */
+    public View(Context context)
+    {
+        this.context=context;
+    }
+
+    public Context getContext()
+    {
+        return this.context;
+    }
+
+    public void setId(int id)
+    {
+        this.id=id;
+    }
+
+    public int getId()
+    {
+        return this.id;
+    }
+
+    public void setVisibility(int visibility)
+    {
+        this.visibility=visibility;
+    }
+
+    public int getVisibility()
+    {
+        return this.visibility;
+    }
+
+    public void setSaveEnabled(boolean enabled)
+    {
+        this.saveEnabled=enabled;
+    }
+
+    public boolean isSaveEnabled()
+    {
+        return this.saveEnabled;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params)
+    {
+        this.layoutParams=params;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams()
+    {
+        return this.layoutParams;
+    }
+
+    public ViewParent getParent()
+    {
+        return this.parent;
+    }
+
+    public View getRootView()
+    {
+        View view = this;
+        while (view.parent instanceof View)
+        {
+            view=(View)view.parent;
+        }
+        return view;
+    }
+
+    public final View findViewById(int id)
+    {
+        return findViewTraversal(id);
+    }
+
+    // Implementation
+
+    /** Find view by id in this view's tree */
+    View findViewTraversal(int id)
+    {
+        return (this.id==id) ? this : null;
+    }
+}
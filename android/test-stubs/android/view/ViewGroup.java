@@ -0,0 +1,105 @@
+package android.view;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Plain JVM stand-in for android.view.ViewGroup (tests only) */
+public abstract class ViewGroup extends View implements ViewParent
+{
+    /** Layout Params */
+    public static class LayoutParams
+    {
+        public static final int MATCH_PARENT=-1;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height)
+        {
+            this.width=width;
+            this.height=height;
+        }
+
+        public LayoutParams()
+        {
+        }
+    }
+
+    // Instance vars
+
+    /** Children */
+    private final List<View> children;
+
+    // Public Methods
+
+    /** Create a new ViewGroup */
+    public ViewGroup(Context context)
+    {
+        super(context);
+        this.children=new ArrayList<View>();
+    }
+
+    public void addView(View child)
+    {
+        addView(child, child.getLayoutParams());
+    }
+
+    public void addView(View child, LayoutParams params)
+    {
+        if (child.parent!=null)
+            throw new IllegalStateException("The specified child already has a parent. You must call removeView() on the child's parent first.");
+
+        if (params!=null)
+        {
+            child.setLayoutParams(params);
+        }
+        child.parent=this;
+        this.children.add(child);
+    }
+
+    public void removeView(View child)
+    {
+        if (this.children.remove(child))
+        {
+            child.parent=null;
+        }
+    }
+
+    public void removeAllViews()
+    {
+        for (View child : this.children)
+        {
+            child.parent=null;
+        }
+        this.children.clear();
+    }
+
+    public int getChildCount()
+    {
+        return this.children.size();
+    }
+
+    public View getChildAt(int index)
+    {
+        return (index>=0 && index<this.children.size()) ? this.children.get(index) : null;
+    }
+
+    // Implementation
+
+    @Override
+    View findViewTraversal(int id)
+    {
+        if (getId()==id)
+            return this;
+
+        for (View child : this.children)
+        {
+            View found = child.findViewTraversal(id);
+            if (found!=null)
+                return found;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,7 @@
+package android.view;
+
+/** Plain JVM stand-in for android.view.ViewManager (tests only) */
+public interface ViewManager
+{
+    void updateViewLayout(View view, ViewGroup.LayoutParams params);
+}
@@ -0,0 +1,6 @@
+package android.view;
+
+/** Plain JVM stand-in for android.view.ViewParent (tests only) */
+public interface ViewParent
+{
+}
@@ -0,0 +1,87 @@
+package android.view;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+/** Plain JVM stand-in for android.view.Window (tests only). Counts layout updates instead of laying out */
+public abstract class Window
+{
+    public static final int FEATURE_NO_TITLE=1;
+
+    // Instance vars
+
+    /** Attributes */
+    private final WindowManager.LayoutParams attributes;
+
+    /** Decor view, holding the content view */
+    private final ViewGroup decorView;
+
+    /** Window manager */
+    private final WindowManager windowManager;
+
+    /** Number of layout updates (attributes set, or decor view layout updated) */
+    private int layoutCount;
+
+    // Public Methods
+
+    /** Create a new Window */
+    public Window(Context context)
+    {
+        this.attributes=new WindowManager.LayoutParams();
+        this.decorView=new ViewGroup(context) {};
+        this.windowManager=new WindowManager()
+        {
+            @Override
+            public void updateViewLayout(View view, ViewGroup.LayoutParams params)
+            {
+                if (view==Window.this.decorView && params instanceof LayoutParams)
+                {
+                    Window.this.attributes.copyFrom((LayoutParams)params);
+                }
+                Window.this.layoutCount++;
+            }
+        };
+    }
+
+    public void clearFlags(int flags)
+    {
+        this.attributes.flags&=~flags;
+    }
+
+    public void setBackgroundDrawable(Drawable drawable)
+    {
+    }
+
+    public void setAttributes(WindowManager.LayoutParams params)
+    {
+        this.attributes.copyFrom(params);
+        this.layoutCount++;
+    }
+
+    public final WindowManager.LayoutParams getAttributes()
+    {
+        return this.attributes;
+    }
+
+    public View getDecorView()
+    {
+        return this.decorView;
+    }
+
+    public WindowManager getWindowManager()
+    {
+        return this.windowManager;
+    }
+
+    public void setContentView(View view)
+    {
+        this.decorView.removeAllViews();
+        this.decorView.addView(view);
+    }
+
+    /** Number of layout updates (tests only) */
+    public int getLayoutCount()
+    {
+        return this.layoutCount;
+    }
+}
@@ -0,0 +1,39 @@
+package android.view;
+
+/** Plain JVM stand-in for android.view.WindowManager (tests only) */
+public interface WindowManager extends ViewManager
+{
+    /** Layout Params */
+    class LayoutParams extends ViewGroup.LayoutParams
+    {
+        public static final int FLAG_DIM_BEHIND=2;
+        public static final int FLAG_NOT_FOCUSABLE=8;
+        public static final int FLAG_NOT_TOUCH_MODAL=32;
+        public static final int FLAG_LAYOUT_NO_LIMITS=512;
+        public static final int FLAG_ALT_FOCUSABLE_IM=131072;
+
+        public int gravity;
+        public int flags;
+        public int x;
+        public int y;
+        public float dimAmount;
+
+        public LayoutParams()
+        {
+            super(MATCH_PARENT, MATCH_PARENT);
+        }
+
+        /** Copy values from params */
+        public final int copyFrom(LayoutParams params)
+        {
+            this.width=params.width;
+            this.height=params.height;
+            this.gravity=params.gravity;
+            this.flags=params.flags;
+            this.x=params.x;
+            this.y=params.y;
+            this.dimAmount=params.dimAmount;
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/** Plain JVM stand-in for android.widget.FrameLayout (tests only) */
+public class FrameLayout extends ViewGroup
+{
+    /** Layout Params */
+    public static class LayoutParams extends ViewGroup.LayoutParams
+    {
+        public LayoutParams(int width, int height)
+        {
+            super(width, height);
+        }
+    }
+
+    /** Create a new FrameLayout */
+    public FrameLayout(Context context)
+    {
+        super(context);
+    }
+}
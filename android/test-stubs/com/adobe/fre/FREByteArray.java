@@ -0,0 +1,60 @@
+package com.adobe.fre;
+
+import java.nio.ByteBuffer;
+
+/** Plain JVM stand-in for com.adobe.fre.FREByteArray (tests only). Bytes are only accessible while acquired */
+public class FREByteArray extends FREObject
+{
+    // Instance vars
+
+    /** Bytes */
+    private final ByteBuffer bytes;
+
+    /** Is acquired */
+    private boolean acquired;
+
+    // Public Methods
+
+    /** Create a new FREByteArray */
+    private FREByteArray(ByteBuffer bytes)
+    {
+        super(null);
+        this.bytes=bytes;
+    }
+
+    public static FREByteArray newByteArray()
+    {
+        return new FREByteArray(ByteBuffer.allocate(0));
+    }
+
+    /** Create a new FREByteArray holding bytes, as written by Actionscript (tests only) */
+    public static FREByteArray newByteArray(byte[] bytes)
+    {
+        return new FREByteArray(ByteBuffer.wrap(bytes));
+    }
+
+    public long getLength()
+    {
+        return this.bytes.capacity();
+    }
+
+    public ByteBuffer getBytes()
+    {
+        if (!this.acquired)
+            throw new IllegalStateException("ByteArray not acquired");
+        return this.bytes;
+    }
+
+    public void acquire()
+    {
+        if (this.acquired)
+            throw new IllegalStateException("ByteArray already acquired");
+        this.acquired=true;
+        this.bytes.clear();
+    }
+
+    public void release()
+    {
+        this.acquired=false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.adobe.fre;
+
+import android.app.Activity;
+
+import java.util.Map;
+
+/**
+ * Plain JVM stand-in for com.adobe.fre.FREContext (tests only)
+ *
+ * The activity is set by the test. Status events are passed to the test's listener on the dispatching
+ * thread, where the AIR runtime would queue them for Actionscript.
+ */
+public abstract class FREContext
+{
+    /** Status Event Listener (tests only) */
+    public interface StatusEventListener
+    {
+        void onStatusEvent(String code, String level);
+    }
+
+    // Instance vars
+
+    /** Activity */
+    private volatile Activity activity;
+
+    /** Status event listener (null if none) */
+    private volatile StatusEventListener statusEventListener;
+
+    // Public Methods
+
+    public abstract Map<String, FREFunction> getFunctions();
+
+    public abstract void dispose();
+
+    public Activity getActivity()
+    {
+        return this.activity;
+    }
+
+    public void dispatchStatusEventAsync(String code, String level)
+    {
+        StatusEventListener listener = this.statusEventListener;
+        if (listener!=null)
+        {
+            listener.onStatusEvent(code, level);
+        }
+    }
+
+    /** Set activity (tests only) */
+    public void setActivity(Activity activity)
+    {
+        this.activity=activity;
+    }
+
+    /** Set status event listener (tests only) */
+    public void setStatusEventListener(StatusEventListener listener)
+    {
+        this.statusEventListener=listener;
+    }
+}
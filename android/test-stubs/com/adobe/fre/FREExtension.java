@@ -0,0 +1,11 @@
+package com.adobe.fre;
+
+/** Plain JVM stand-in for com.adobe.fre.FREExtension (tests only) */
+public interface FREExtension
+{
+    FREContext createContext(String contextType);
+
+    void dispose();
+
+    void initialize();
+}
@@ -0,0 +1,7 @@
+package com.adobe.fre;
+
+/** Plain JVM stand-in for com.adobe.fre.FREFunction (tests only) */
+public interface FREFunction
+{
+    FREObject call(FREContext context, FREObject[] args);
+}
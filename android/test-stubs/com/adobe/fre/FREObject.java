@@ -0,0 +1,54 @@
+package com.adobe.fre;
+
+/** Plain JVM stand-in for com.adobe.fre.FREObject (tests only). Holds a Java value */
+public class FREObject
+{
+    /** Value (null for an Actionscript null) */
+    private final Object value;
+
+    /** Create a new FREObject */
+    FREObject(Object value)
+    {
+        this.value=value;
+    }
+
+    public static FREObject newObject(int value)
+    {
+        return new FREObject(value);
+    }
+
+    public static FREObject newObject(double value)
+    {
+        return new FREObject(value);
+    }
+
+    public static FREObject newObject(boolean value)
+    {
+        return new FREObject(value);
+    }
+
+    public static FREObject newObject(String value)
+    {
+        return new FREObject(value);
+    }
+
+    public int getAsInt()
+    {
+        return ((Number)this.value).intValue();
+    }
+
+    public double getAsDouble()
+    {
+        return ((Number)this.value).doubleValue();
+    }
+
+    public boolean getAsBool()
+    {
+        return (Boolean)this.value;
+    }
+
+    public String getAsString()
+    {
+        return (String)this.value;
+    }
+}
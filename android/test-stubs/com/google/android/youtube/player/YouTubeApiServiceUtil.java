@@ -0,0 +1,12 @@
+package com.google.android.youtube.player;
+
+import android.content.Context;
+
+/** Plain JVM stand-in for the YouTube API's YouTubeApiServiceUtil (tests only), shadowing the library class. The service is available */
+public final class YouTubeApiServiceUtil
+{
+    public static YouTubeInitializationResult isYouTubeApiServiceAvailable(Context context)
+    {
+        return YouTubeInitializationResult.SUCCESS;
+    }
+}
@@ -0,0 +1,23 @@
+package com.google.android.youtube.player;
+
+/** Plain JVM stand-in for the YouTube API's YouTubeInitializationResult (tests only), shadowing the library enum, whose error dialogs need the Android UI */
+public enum YouTubeInitializationResult
+{
+    SUCCESS,
+    INTERNAL_ERROR,
+    UNKNOWN_ERROR,
+    SERVICE_MISSING,
+    SERVICE_VERSION_UPDATE_REQUIRED,
+    SERVICE_DISABLED,
+    SERVICE_INVALID,
+    ERROR_CONNECTING_TO_SERVICE,
+    CLIENT_LIBRARY_UPDATE_REQUIRED,
+    NETWORK_ERROR,
+    DEVELOPER_KEY_INVALID,
+    INVALID_APPLICATION_SIGNATURE;
+
+    public final boolean isUserRecoverableError()
+    {
+        return this==SERVICE_MISSING || this==SERVICE_VERSION_UPDATE_REQUIRED || this==SERVICE_DISABLED || this==SERVICE_INVALID;
+    }
+}
@@ -0,0 +1,57 @@
+package com.google.android.youtube.player;
+
+import android.app.Fragment;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * Plain JVM stand-in for the YouTube API's YouTubePlayerFragment (tests only), shadowing the library class
+ *
+ * initialize() is passed to the test's Initializer, which delivers the YouTubePlayer (or a failure) to the
+ * listener, as the YouTube service would.
+ */
+public class YouTubePlayerFragment extends Fragment implements YouTubePlayer.Provider
+{
+    /** Initializer (tests only) */
+    public interface Initializer
+    {
+        void initialize(YouTubePlayerFragment fragment, String developerKey, YouTubePlayer.OnInitializedListener listener);
+    }
+
+    // Class vars
+
+    /** Initializer (null ignores initialize calls) */
+    private static volatile Initializer initializer;
+
+    // Public Methods
+
+    public static YouTubePlayerFragment newInstance()
+    {
+        return new YouTubePlayerFragment();
+    }
+
+    /** Set initializer (tests only) */
+    public static void setInitializer(Initializer initializer)
+    {
+        YouTubePlayerFragment.initializer=initializer;
+    }
+
+    @Override
+    public void initialize(String developerKey, YouTubePlayer.OnInitializedListener listener)
+    {
+        Initializer current = initializer;
+        if (current!=null)
+        {
+            current.initialize(this, developerKey, listener);
+        }
+    }
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState)
+    {
+        return new FrameLayout(getActivity());
+    }
+}
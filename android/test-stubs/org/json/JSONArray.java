@@ -0,0 +1,48 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Plain JVM stand-in for org.json.JSONArray (tests only) */
+public class JSONArray
+{
+    /** Values */
+    final List<Object> values=new ArrayList<Object>();
+
+    public JSONArray()
+    {
+    }
+
+    public int length()
+    {
+        return this.values.size();
+    }
+
+    public String getString(int index) throws JSONException
+    {
+        if (index<0 || index>=this.values.size())
+            throw new JSONException("Index "+index+" out of range [0.."+this.values.size()+")");
+        return String.valueOf(this.values.get(index));
+    }
+
+    public JSONArray put(Object value)
+    {
+        this.values.add(value);
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i=0; i<this.values.size(); i++)
+        {
+            if (i>0)
+            {
+                sb.append(',');
+            }
+            JSONObject.appendValue(sb, this.values.get(i));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,10 @@
+package org.json;
+
+/** Plain JVM stand-in for org.json.JSONException (tests only) */
+public class JSONException extends Exception
+{
+    public JSONException(String message)
+    {
+        super(message);
+    }
+}
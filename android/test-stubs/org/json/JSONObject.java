@@ -0,0 +1,356 @@
+package org.json;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Plain JVM stand-in for org.json.JSONObject (tests only). Parses strings, numbers, booleans, null, objects and arrays */
+public class JSONObject
+{
+    /** Null value */
+    public static final Object NULL=new Object()
+    {
+        @Override
+        public String toString()
+        {
+            return "null";
+        }
+    };
+
+    // Instance vars
+
+    /** Values, in insertion order */
+    private final Map<String, Object> values=new LinkedHashMap<String, Object>();
+
+    // Public Methods
+
+    public JSONObject()
+    {
+    }
+
+    public JSONObject(String json) throws JSONException
+    {
+        Parser parser = new Parser(json);
+        parser.readObject(this);
+        parser.expectEnd();
+    }
+
+    public boolean has(String name)
+    {
+        return this.values.containsKey(name);
+    }
+
+    public Object get(String name) throws JSONException
+    {
+        Object value = this.values.get(name);
+        if (value==null)
+            throw new JSONException("No value for "+name);
+        return value;
+    }
+
+    public String getString(String name) throws JSONException
+    {
+        return String.valueOf(get(name));
+    }
+
+    public double getDouble(String name) throws JSONException
+    {
+        Object value = get(name);
+        if (value instanceof Number)
+            return ((Number)value).doubleValue();
+        try
+        {
+            return Double.parseDouble(String.valueOf(value));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new JSONException("Value "+value+" at "+name+" is not a number");
+        }
+    }
+
+    public int getInt(String name) throws JSONException
+    {
+        return (int)getDouble(name);
+    }
+
+    public JSONArray getJSONArray(String name) throws JSONException
+    {
+        Object value = get(name);
+        if (!(value instanceof JSONArray))
+            throw new JSONException("Value at "+name+" is not a JSONArray");
+        return (JSONArray)value;
+    }
+
+    public JSONArray optJSONArray(String name)
+    {
+        Object value = this.values.get(name);
+        return (value instanceof JSONArray) ? (JSONArray)value : null;
+    }
+
+    public double optDouble(String name, double fallback)
+    {
+        try
+        {
+            return has(name) ? getDouble(name) : fallback;
+        }
+        catch (JSONException e)
+        {
+            return fallback;
+        }
+    }
+
+    public int optInt(String name, int fallback)
+    {
+        return (int)optDouble(name, fallback);
+    }
+
+    public String optString(String name, String fallback)
+    {
+        Object value = this.values.get(name);
+        return (value!=null) ? String.valueOf(value) : fallback;
+    }
+
+    public JSONObject put(String name, Object value) throws JSONException
+    {
+        if (name==null)
+            throw new JSONException("Names must be non-null");
+        if (value==null)
+        {
+            this.values.remove(name);
+        }
+        else
+        {
+            this.values.put(name, value);
+        }
+        return this;
+    }
+
+    public JSONObject put(String name, int value) throws JSONException
+    {
+        return put(name, (Object)value);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("{");
+        Iterator<Map.Entry<String, Object>> it = this.values.entrySet().iterator();
+        while (it.hasNext())
+        {
+            Map.Entry<String, Object> entry = it.next();
+            appendValue(sb, entry.getKey());
+            sb.append(':');
+            appendValue(sb, entry.getValue());
+            if (it.hasNext())
+            {
+                sb.append(',');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    // Implementation
+
+    /** Append value as JSON */
+    static void appendValue(StringBuilder sb, Object value)
+    {
+        if (!(value instanceof String))
+        {
+            sb.append(value);
+            return;
+        }
+
+        String s = (String)value;
+        sb.append('"');
+        for (int i=0; i<s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c=='"' || c=='\\')
+            {
+                sb.append('\\').append(c);
+            }
+            else if (c<0x20)
+            {
+                sb.append(String.format("\\u%04x", (int)c));
+            }
+            else
+            {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /** Recursive descent JSON parser */
+    private static final class Parser
+    {
+        /** Text */
+        private final String text;
+
+        /** Position */
+        private int pos;
+
+        Parser(String text) throws JSONException
+        {
+            if (text==null)
+                throw new JSONException("Null JSON text");
+            this.text=text;
+        }
+
+        void readObject(JSONObject object) throws JSONException
+        {
+            expect('{');
+            if (peek()=='}')
+            {
+                this.pos++;
+                return;
+            }
+            for (;;)
+            {
+                skipWhitespace();
+                String name = readString();
+                expect(':');
+                object.values.put(name, readValue());
+                char c = next();
+                if (c=='}')
+                    return;
+                if (c!=',')
+                    throw error("Expected , or }");
+            }
+        }
+
+        void expectEnd() throws JSONException
+        {
+            skipWhitespace();
+            if (this.pos<this.text.length())
+                throw error("Unexpected trailing characters");
+        }
+
+        private Object readValue() throws JSONException
+        {
+            char c = peek();
+            if (c=='{')
+            {
+                JSONObject object = new JSONObject();
+                readObject(object);
+                return object;
+            }
+            if (c=='[')
+            {
+                this.pos++;
+                JSONArray array = new JSONArray();
+                if (peek()==']')
+                {
+                    this.pos++;
+                    return array;
+                }
+                for (;;)
+                {
+                    array.values.add(readValue());
+                    char d = next();
+                    if (d==']')
+                        return array;
+                    if (d!=',')
+                        throw error("Expected , or ]");
+                }
+            }
+            if (c=='"')
+                return readString();
+
+            int start = this.pos;
+            while (this.pos<this.text.length() && ",}] \t\r\n".indexOf(this.text.charAt(this.pos))<0)
+            {
+                this.pos++;
+            }
+            String literal = this.text.substring(start, this.pos);
+            if (literal.equals("true"))
+                return Boolean.TRUE;
+            if (literal.equals("false"))
+                return Boolean.FALSE;
+            if (literal.equals("null"))
+                return NULL;
+            try
+            {
+                double number = Double.parseDouble(literal);
+                if (number==Math.rint(number) && Math.abs(number)<=Integer.MAX_VALUE && literal.indexOf('.')<0 && literal.indexOf('e')<0 && literal.indexOf('E')<0)
+                    return (int)number;
+                return number;
+            }
+            catch (NumberFormatException e)
+            {
+                throw error("Unexpected value ("+literal+")");
+            }
+        }
+
+        private String readString() throws JSONException
+        {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            for (;;)
+            {
+                if (this.pos>=this.text.length())
+                    throw error("Unterminated string");
+                char c = this.text.charAt(this.pos++);
+                if (c=='"')
+                    return sb.toString();
+                if (c!='\\')
+                {
+                    sb.append(c);
+                    continue;
+                }
+                if (this.pos>=this.text.length())
+                    throw error("Unterminated escape");
+                char e = this.text.charAt(this.pos++);
+                switch (e)
+                {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (this.pos+4>this.text.length())
+                            throw error("Invalid unicode escape");
+                        sb.append((char)Integer.parseInt(this.text.substring(this.pos, this.pos+4), 16));
+                        this.pos+=4;
+                        break;
+                    default: sb.append(e); break;
+                }
+            }
+        }
+
+        private void expect(char c) throws JSONException
+        {
+            if (next()!=c)
+                throw error("Expected "+c);
+        }
+
+        private char next() throws JSONException
+        {
+            char c = peek();
+            this.pos++;
+            return c;
+        }
+
+        private char peek() throws JSONException
+        {
+            skipWhitespace();
+            if (this.pos>=this.text.length())
+                throw error("Unexpected end of input");
+            return this.text.charAt(this.pos);
+        }
+
+        private void skipWhitespace()
+        {
+            while (this.pos<this.text.length() && Character.isWhitespace(this.text.charAt(this.pos)))
+            {
+                this.pos++;
+            }
+        }
+
+        private JSONException error(String message)
+        {
+            return new JSONException(message+" at character "+this.pos+" of "+this.text);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.net.Uri;
+
+/** CapabilityProbe tests */
+public class CapabilityProbeTest extends UnitTest
+{
+    // Tests
+
+    public void testPendingBeforeStart()
+    {
+        CapabilityProbe probe = new CapabilityProbe();
+        assertTrue("pending", !probe.isSupported());
+        assertEquals("YouTube support not determined yet", probe.getUnsupportedReason());
+    }
+
+    public void testFirstResultFromWorker()
+    {
+        Activity activity = new Activity();
+        activity.getPackageManager().installPackage(CapabilityProbe.YOUTUBE_PACKAGE, "12.0.0");
+
+        CapabilityProbe probe = new CapabilityProbe();
+        probe.start(activity);
+        try
+        {
+            // waits for the background probe
+            assertTrue("supported ("+probe.getUnsupportedReason()+")", probe.isSupported());
+            assertEquals("12.0.0", probe.getYouTubeVersion());
+        }
+        finally
+        {
+            probe.stop();
+        }
+    }
+
+    public void testPackageChangeReprobes() throws Exception
+    {
+        Activity activity = new Activity();
+        activity.getPackageManager().installPackage(CapabilityProbe.YOUTUBE_PACKAGE, "12.0.0");
+
+        CapabilityProbe probe = new CapabilityProbe();
+        probe.start(activity);
+        try
+        {
+            CapabilityProbe.Result installed = probe.getResult();
+            assertTrue("supported", installed.supported);
+
+            activity.getPackageManager().uninstallPackage(CapabilityProbe.YOUTUBE_PACKAGE);
+            activity.sendBroadcast(new Intent(Intent.ACTION_PACKAGE_REMOVED, Uri.parse("package:"+CapabilityProbe.YOUTUBE_PACKAGE)));
+            for (int i=0; i<100 && probe.getResult()==installed; i++)
+            {
+                Thread.sleep(10);
+            }
+
+            assertTrue("unsupported", !probe.isSupported());
+            assertEquals("YouTube App not installed", probe.getUnsupportedReason());
+        }
+        finally
+        {
+            probe.stop();
+        }
+    }
+}
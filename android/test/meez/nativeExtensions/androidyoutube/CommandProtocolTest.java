@@ -0,0 +1,110 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.nio.ByteBuffer;
+
+/** CommandProtocol tests */
+public class CommandProtocolTest extends UnitTest
+{
+    // Instance vars
+
+    /** Protocol under test */
+    private final CommandProtocol protocol = new CommandProtocol();
+
+    /** Decoded command (reused) */
+    private final CommandProtocol.Command command = new CommandProtocol.Command();
+
+    // Tests
+
+    public void testDecodePlayWithoutTime()
+    {
+        this.protocol.decode(ByteBuffer.wrap(new byte[] {CommandProtocol.OP_PLAY}), this.command);
+        assertEquals(CommandProtocol.OP_PLAY, this.command.opcode);
+        assertEquals(0, this.command.timeMillis);
+        assertEquals(null, this.command.videoId);
+    }
+
+    public void testDecodeSeek()
+    {
+        this.protocol.decode(encode(CommandProtocol.OP_SEEK, 12500, null), this.command);
+        assertEquals(CommandProtocol.OP_SEEK, this.command.opcode);
+        assertEquals(12500, this.command.timeMillis);
+    }
+
+    public void testDecodePlayById()
+    {
+        this.protocol.decode(encode(CommandProtocol.OP_PLAY_BY_ID, CommandProtocol.TIME_RESUME, "dQw4w9WgXcQ"), this.command);
+        assertEquals(CommandProtocol.OP_PLAY_BY_ID, this.command.opcode);
+        assertEquals(CommandProtocol.TIME_RESUME, this.command.timeMillis);
+        assertEquals("dQw4w9WgXcQ", this.command.videoId);
+    }
+
+    public void testDecodeReusesUnchangedVideoId()
+    {
+        this.protocol.decode(encode(CommandProtocol.OP_PLAY_BY_ID, 0, "abc"), this.command);
+        String first = this.command.videoId;
+        this.protocol.decode(encode(CommandProtocol.OP_PLAY_BY_ID, 1000, "abc"), this.command);
+        assertSame(first, this.command.videoId);
+
+        this.protocol.decode(encode(CommandProtocol.OP_PLAY_BY_ID, 0, "abd"), this.command);
+        assertEquals("abd", this.command.videoId);
+        this.protocol.decode(encode(CommandProtocol.OP_PLAY_BY_ID, 0, "ab"), this.command);
+        assertEquals("ab", this.command.videoId);
+    }
+
+    public void testDecodeResetsCommand()
+    {
+        this.command.videoId="stale";
+        this.command.error="stale";
+        this.protocol.decode(encode(CommandProtocol.OP_STOP, 0, null), this.command);
+        assertEquals(CommandProtocol.OP_STOP, this.command.opcode);
+        assertEquals(null, this.command.videoId);
+        assertEquals(null, this.command.error);
+    }
+
+    public void testDecodeRejectsInvalidCommands()
+    {
+        assertRejected(new byte[0]);
+        assertRejected(new byte[] {CommandProtocol.OP_NONE});
+        assertRejected(new byte[] {CommandProtocol.OP_TASK});
+        assertRejected(new byte[] {(byte)0xFF});
+        assertRejected(new byte[] {CommandProtocol.OP_SEEK, 0, 0});
+        assertRejected(new byte[] {CommandProtocol.OP_PLAY_BY_ID});
+        assertRejected(new byte[] {CommandProtocol.OP_PLAY_BY_ID, 0, 0, 0, 0});
+        assertRejected(new byte[] {CommandProtocol.OP_PLAY_BY_ID, 0, 0, 0, 0, 0});
+        assertRejected(new byte[] {CommandProtocol.OP_PLAY_BY_ID, 0, 0, 0, 0, 3, 'a', 'b'});
+        assertRejected(new byte[] {CommandProtocol.OP_PLAY_BY_ID, 0, 0, 0, 0, (byte)(CommandProtocol.MAX_VIDEO_ID_LENGTH+1)});
+    }
+
+    // Implementation
+
+    /** Encode a command as sent from Actionscript */
+    private static ByteBuffer encode(int opcode, int timeMillis, String videoId)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(CommandProtocol.HEADER_SIZE+CommandProtocol.MAX_VIDEO_ID_LENGTH);
+        buffer.put((byte)opcode).putInt(timeMillis);
+        if (videoId!=null)
+        {
+            buffer.put((byte)videoId.length());
+            for (int i=0; i<videoId.length(); i++)
+            {
+                buffer.put((byte)videoId.charAt(i));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Assert bytes are rejected */
+    private void assertRejected(byte[] bytes)
+    {
+        try
+        {
+            this.protocol.decode(ByteBuffer.wrap(bytes), this.command);
+            fail("Expected IllegalArgumentException ("+bytes.length+" bytes)");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** CommandRingBuffer tests */
+public class CommandRingBufferTest extends UnitTest
+{
+    // Definitions
+
+    /** Stress test producer threads */
+    private static final int PRODUCERS=4;
+
+    /** Stress test capacity, small so producers wrap and contend for slots */
+    private static final int STRESS_CAPACITY=16;
+
+    /** Stress test commands per producer */
+    private static final int COMMANDS_PER_PRODUCER=100000;
+
+    // Tests
+
+    public void testDrainsInOrder()
+    {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> handled = new ArrayList<Integer>();
+        CommandRingBuffer ring = new CommandRingBuffer(8, executor, new RecordingHandler(handled));
+
+        for (int i=0; i<3; i++)
+        {
+            publish(ring, i);
+        }
+        // one drain scheduled for all three
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals("[0, 1, 2]", handled.toString());
+
+        publish(ring, 3);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals("[0, 1, 2, 3]", handled.toString());
+    }
+
+    public void testDrainWaitsForClaimedSlot()
+    {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> handled = new ArrayList<Integer>();
+        CommandRingBuffer ring = new CommandRingBuffer(8, executor, new RecordingHandler(handled));
+
+        long claimed = ring.claim();
+        publish(ring, 1);
+        executor.runAll();
+        assertEquals("[]", handled.toString());
+
+        ring.get(claimed).opcode=CommandProtocol.OP_PLAY;
+        ring.get(claimed).timeMillis=0;
+        ring.publish(claimed);
+        executor.runAll();
+        assertEquals("[0, 1]", handled.toString());
+    }
+
+    public void testRejectsWhenFull()
+    {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> handled = new ArrayList<Integer>();
+        CommandRingBuffer ring = new CommandRingBuffer(2, executor, new RecordingHandler(handled));
+
+        publish(ring, 0);
+        publish(ring, 1);
+        assertEquals(-1, ring.claim());
+        assertEquals(1, ring.getRejectedCount());
+
+        executor.runAll();
+        publish(ring, 2);
+        executor.runAll();
+        assertEquals("[0, 1, 2]", handled.toString());
+    }
+
+    public void testClearDiscardsPending()
+    {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> handled = new ArrayList<Integer>();
+        CommandRingBuffer ring = new CommandRingBuffer(4, executor, new RecordingHandler(handled));
+
+        publish(ring, 0);
+        publish(ring, 1);
+        ring.clear();
+        executor.runAll();
+        assertEquals("[]", handled.toString());
+
+        // slots are free again
+        for (int i=2; i<6; i++)
+        {
+            publish(ring, i);
+        }
+        executor.runAll();
+        assertEquals("[2, 3, 4, 5]", handled.toString());
+    }
+
+    public void testRejectsInvalidCapacity()
+    {
+        try
+        {
+            new CommandRingBuffer(6, new ManualExecutor(), new RecordingHandler(new ArrayList<Integer>()));
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testMultipleProducersKeepOrderWithoutLoss() throws Exception
+    {
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        final CountDownLatch done = new CountDownLatch(PRODUCERS*COMMANDS_PER_PRODUCER);
+        final int[] nextSequences = new int[PRODUCERS];
+        final String[] error = new String[1];
+
+        final CommandRingBuffer ring = new CommandRingBuffer(STRESS_CAPACITY, consumerThread, new CommandProtocol.CommandHandler()
+        {
+            @Override
+            public void handle(CommandProtocol.Command command)
+            {
+                // consumer thread only
+                int producer = command.playerId;
+                if (command.timeMillis!=nextSequences[producer] && error[0]==null)
+                {
+                    error[0]="Producer "+producer+" expected ("+nextSequences[producer]+"). Actual ("+command.timeMillis+")";
+                }
+                nextSequences[producer]=command.timeMillis+1;
+                done.countDown();
+            }
+        });
+
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p=0; p<PRODUCERS; p++)
+        {
+            final int producer = p;
+            producers[p]=new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i=0; i<COMMANDS_PER_PRODUCER; i++)
+                    {
+                        long seq;
+                        while ((seq=ring.claim())<0)
+                        {
+                            // full, let the consumer catch up
+                            Thread.yield();
+                        }
+                        CommandProtocol.Command command = ring.get(seq);
+                        command.opcode=CommandProtocol.OP_SEEK;
+                        command.playerId=producer;
+                        command.timeMillis=i;
+                        ring.publish(seq);
+                    }
+                }
+            }, "CommandRingBufferTest-Producer-"+p);
+            producers[p].start();
+        }
+
+        for (Thread producer : producers)
+        {
+            producer.join();
+        }
+        boolean drained = done.await(60, TimeUnit.SECONDS);
+        consumerThread.shutdown();
+
+        assertTrue("Commands lost ("+done.getCount()+" not handled)", drained);
+        assertEquals(null, error[0]);
+        for (int p=0; p<PRODUCERS; p++)
+        {
+            assertEquals(COMMANDS_PER_PRODUCER, nextSequences[p]);
+        }
+    }
+
+    // Implementation
+
+    /** Claim and publish a play command numbered by its time */
+    private static void publish(CommandRingBuffer ring, int number)
+    {
+        long seq = ring.claim();
+        assertTrue("Buffer full", seq>=0);
+        CommandProtocol.Command command = ring.get(seq);
+        command.opcode=CommandProtocol.OP_PLAY;
+        command.timeMillis=number;
+        ring.publish(seq);
+    }
+
+    /** Executor holding tasks until run by the test thread */
+    private static final class ManualExecutor implements Executor
+    {
+        /** Scheduled tasks */
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable runnable)
+        {
+            this.tasks.add(runnable);
+        }
+
+        /** Run scheduled tasks, including tasks they schedule */
+        void runAll()
+        {
+            while (!this.tasks.isEmpty())
+            {
+                this.tasks.remove(0).run();
+            }
+        }
+    }
+
+    /** Handler recording command times */
+    private static final class RecordingHandler implements CommandProtocol.CommandHandler
+    {
+        /** Handled command times */
+        private final List<Integer> handled;
+
+        /** Create a new RecordingHandler */
+        RecordingHandler(List<Integer> handled)
+        {
+            this.handled=handled;
+        }
+
+        @Override
+        public void handle(CommandProtocol.Command command)
+        {
+            this.handled.add(command.timeMillis);
+        }
+    }
+}
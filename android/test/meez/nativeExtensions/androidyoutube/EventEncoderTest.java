@@ -0,0 +1,67 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/** EventEncoder tests */
+public class EventEncoderTest extends UnitTest
+{
+    // Instance vars
+
+    /** Encoder under test */
+    private final EventEncoder encoder = new EventEncoder();
+
+    // Tests
+
+    public void testEncodeTime()
+    {
+        assertEquals("{\"type\":\"time\",\"time\":{\"current\":12,\"total\":345}}", this.encoder.encodeTime(12, 345));
+    }
+
+    public void testEncodeTimeAnchor()
+    {
+        assertEquals("1500,60000,1", this.encoder.encodeTimeAnchor(1500, 60000, 1));
+    }
+
+    public void testEncodeKnownStateIsPrecomputed()
+    {
+        String message = this.encoder.encodeState(YouTubePlayerAdapter.PLAYER_STATE_PLAYING);
+        assertEquals("{\"type\":\"state\",\"state\":\"playing\"}", message);
+        assertSame(message, this.encoder.encodeState(YouTubePlayerAdapter.PLAYER_STATE_PLAYING));
+    }
+
+    public void testEncodeOtherState()
+    {
+        assertEquals("{\"type\":\"state\",\"state\":\"other\"}", this.encoder.encodeState(new String("other")));
+        assertEquals("{\"type\":\"state\"}", this.encoder.encodeState(null));
+    }
+
+    public void testEncodeAdvanced()
+    {
+        assertEquals("{\"type\":\"advanced\",\"index\":2,\"videoId\":\"abc\"}", this.encoder.encodeAdvanced(2, "abc"));
+        assertEquals("{\"type\":\"advanced\",\"index\":0}", this.encoder.encodeAdvanced(0, null));
+    }
+
+    public void testEncodeErrorEscapesMessage()
+    {
+        assertEquals("{\"type\":\"err\",\"code\":500,\"msg\":\"a\\\"b\\\\c\\/d\\te\\nf\\u0001\"}",
+                     this.encoder.encodeError(500, "a\"b\\c/d\te\nf\u0001"));
+        assertEquals("{\"type\":\"err\",\"code\":100}", this.encoder.encodeError(100, null));
+    }
+
+    public void testEncodeData()
+    {
+        assertEquals("{\"type\":\"data\",\"data\":\"1,2\"}", this.encoder.encodeData("1,2"));
+        assertEquals("{\"type\":\"data\"}", this.encoder.encodeData(null));
+    }
+
+    public void testEncodeSession()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        session.onStart(1000);
+        session.onLoaded("abc");
+        session.onPlaying(1250);
+        session.onError(YouTubePlayer.ErrorReason.NETWORK_ERROR, 2250);
+        assertEquals("{\"type\":\"session\",\"videoId\":\"abc\",\"join\":250,\"rebuffers\":0,\"stall\":0,\"watched\":1000,\"errors\":{\"NETWORK_ERROR\":1}}",
+                     this.encoder.encodeSession(session, 3000));
+    }
+}
@@ -0,0 +1,399 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * YouTubePlayer fake, for tests and benchmarks run without a device
+ *
+ * Calls are recorded ("loadVideo abc 1000"), and counted when made off the thread the player was created on
+ * (the YouTube API is main thread only). Like a released YouTubePlayer, calls after release() throw.
+ * Player events are sent to the adapter's listeners with the fire* methods.
+ */
+public class FakeYouTubePlayer implements YouTubePlayer
+{
+    // Instance vars
+
+    /** Thread calls are expected on */
+    private final Thread mainThread;
+
+    /** Recorded calls (null if not recorded) */
+    private final List<String> calls;
+
+    /** Calls made off the main thread */
+    private final AtomicInteger wrongThreadCount;
+
+    /** Is released */
+    private boolean released;
+
+    /** Is playing */
+    private boolean playing;
+
+    /** Video loaded or cued last */
+    private String videoId;
+
+    /** Position */
+    private int positionMillis;
+
+    /** Duration */
+    private int durationMillis;
+
+    /** Player style set */
+    private PlayerStyle style;
+
+    /** State change listener */
+    private PlayerStateChangeListener stateChangeListener;
+
+    /** Playback event listener */
+    private PlaybackEventListener playbackEventListener;
+
+    /** Playlist event listener */
+    private PlaylistEventListener playlistEventListener;
+
+    // Public Methods
+
+    /** Create a new FakeYouTubePlayer for the current thread, recording calls */
+    public FakeYouTubePlayer()
+    {
+        this(true);
+    }
+
+    /** Create a new FakeYouTubePlayer for the current thread */
+    public FakeYouTubePlayer(boolean record)
+    {
+        this.mainThread=Thread.currentThread();
+        this.calls=record ? new ArrayList<String>() : null;
+        this.wrongThreadCount=new AtomicInteger();
+    }
+
+    /** Get recorded calls */
+    public List<String> getCalls()
+    {
+        return this.calls;
+    }
+
+    /** Number of calls made off the main thread */
+    public int getWrongThreadCount()
+    {
+        return this.wrongThreadCount.get();
+    }
+
+    /** Get video loaded or cued last (null if none) */
+    public String getVideoId()
+    {
+        return this.videoId;
+    }
+
+    /** Is released */
+    public boolean isReleased()
+    {
+        return this.released;
+    }
+
+    /** Get player style set (null if not set) */
+    public PlayerStyle getPlayerStyle()
+    {
+        return this.style;
+    }
+
+    /** Set duration of the loaded video */
+    public void setDurationMillis(int durationMillis)
+    {
+        this.durationMillis=durationMillis;
+    }
+
+    // Player Events
+
+    /** Send video loaded (and started) events */
+    public void fireLoaded(String videoId)
+    {
+        this.stateChangeListener.onLoading();
+        this.stateChangeListener.onLoaded(videoId);
+        this.stateChangeListener.onVideoStarted();
+    }
+
+    /** Send playing event */
+    public void firePlaying()
+    {
+        this.playing=true;
+        this.playbackEventListener.onPlaying();
+    }
+
+    /** Send paused event */
+    public void firePaused()
+    {
+        this.playing=false;
+        this.playbackEventListener.onPaused();
+    }
+
+    /** Send seek event */
+    public void fireSeekTo(int positionMillis)
+    {
+        this.positionMillis=positionMillis;
+        this.playbackEventListener.onSeekTo(positionMillis);
+    }
+
+    /** Send error event */
+    public void fireError(ErrorReason reason)
+    {
+        this.playing=false;
+        this.stateChangeListener.onError(reason);
+    }
+
+    // YouTubePlayer Implementation
+
+    @Override
+    public void release()
+    {
+        record("release", null, 0);
+        this.released=true;
+    }
+
+    @Override
+    public void cueVideo(String videoId)
+    {
+        cueVideo(videoId, 0);
+    }
+
+    @Override
+    public void cueVideo(String videoId, int startTimeMillis)
+    {
+        record("cueVideo", videoId, startTimeMillis);
+        this.videoId=videoId;
+        this.positionMillis=startTimeMillis;
+    }
+
+    @Override
+    public void loadVideo(String videoId)
+    {
+        loadVideo(videoId, 0);
+    }
+
+    @Override
+    public void loadVideo(String videoId, int startTimeMillis)
+    {
+        record("loadVideo", videoId, startTimeMillis);
+        this.videoId=videoId;
+        this.positionMillis=startTimeMillis;
+    }
+
+    @Override
+    public void cuePlaylist(String playlistId)
+    {
+        cuePlaylist(playlistId, 0, 0);
+    }
+
+    @Override
+    public void cuePlaylist(String playlistId, int startIndex, int startTimeMillis)
+    {
+        record("cuePlaylist", playlistId, startTimeMillis);
+    }
+
+    @Override
+    public void loadPlaylist(String playlistId)
+    {
+        loadPlaylist(playlistId, 0, 0);
+    }
+
+    @Override
+    public void loadPlaylist(String playlistId, int startIndex, int startTimeMillis)
+    {
+        record("loadPlaylist", playlistId, startTimeMillis);
+    }
+
+    @Override
+    public void cueVideos(List<String> videoIds)
+    {
+        cueVideos(videoIds, 0, 0);
+    }
+
+    @Override
+    public void cueVideos(List<String> videoIds, int startIndex, int startTimeMillis)
+    {
+        record("cueVideos", videoIds.get(startIndex), startTimeMillis);
+        this.positionMillis=startTimeMillis;
+    }
+
+    @Override
+    public void loadVideos(List<String> videoIds)
+    {
+        loadVideos(videoIds, 0, 0);
+    }
+
+    @Override
+    public void loadVideos(List<String> videoIds, int startIndex, int startTimeMillis)
+    {
+        record("loadVideos", videoIds.get(startIndex), startTimeMillis);
+        this.positionMillis=startTimeMillis;
+    }
+
+    @Override
+    public void play()
+    {
+        record("play", null, 0);
+    }
+
+    @Override
+    public void pause()
+    {
+        record("pause", null, 0);
+    }
+
+    @Override
+    public boolean isPlaying()
+    {
+        check();
+        return this.playing;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        check();
+        return false;
+    }
+
+    @Override
+    public boolean hasPrevious()
+    {
+        check();
+        return false;
+    }
+
+    @Override
+    public void next()
+    {
+        record("next", null, 0);
+    }
+
+    @Override
+    public void previous()
+    {
+        record("previous", null, 0);
+    }
+
+    @Override
+    public int getCurrentTimeMillis()
+    {
+        check();
+        return this.positionMillis;
+    }
+
+    @Override
+    public int getDurationMillis()
+    {
+        check();
+        return this.durationMillis;
+    }
+
+    @Override
+    public void seekToMillis(int positionMillis)
+    {
+        record("seekToMillis", null, positionMillis);
+        this.positionMillis=positionMillis;
+    }
+
+    @Override
+    public void seekRelativeMillis(int deltaMillis)
+    {
+        record("seekRelativeMillis", null, deltaMillis);
+        this.positionMillis+=deltaMillis;
+    }
+
+    @Override
+    public void setFullscreen(boolean fullscreen)
+    {
+        check();
+    }
+
+    @Override
+    public void setOnFullscreenListener(OnFullscreenListener listener)
+    {
+        check();
+    }
+
+    @Override
+    public void setFullscreenControlFlags(int flags)
+    {
+        check();
+    }
+
+    @Override
+    public int getFullscreenControlFlags()
+    {
+        check();
+        return 0;
+    }
+
+    @Override
+    public void addFullscreenControlFlag(int flag)
+    {
+        check();
+    }
+
+    @Override
+    public void setPlayerStyle(PlayerStyle style)
+    {
+        check();
+        this.style=style;
+    }
+
+    @Override
+    public void setShowFullscreenButton(boolean show)
+    {
+        check();
+    }
+
+    @Override
+    public void setManageAudioFocus(boolean manage)
+    {
+        check();
+    }
+
+    @Override
+    public void setPlaylistEventListener(PlaylistEventListener listener)
+    {
+        check();
+        this.playlistEventListener=listener;
+    }
+
+    @Override
+    public void setPlayerStateChangeListener(PlayerStateChangeListener listener)
+    {
+        check();
+        this.stateChangeListener=listener;
+    }
+
+    @Override
+    public void setPlaybackEventListener(PlaybackEventListener listener)
+    {
+        check();
+        this.playbackEventListener=listener;
+    }
+
+    // Implementation
+
+    /** Check call is allowed, and record it */
+    private void record(String method, String videoId, int millis)
+    {
+        check();
+        if (this.calls!=null)
+        {
+            this.calls.add((videoId!=null) ? method+" "+videoId+" "+millis : (millis!=0 ? method+" "+millis : method));
+        }
+    }
+
+    /** Check call is allowed */
+    private void check()
+    {
+        if (Thread.currentThread()!=this.mainThread)
+        {
+            this.wrongThreadCount.incrementAndGet();
+        }
+        if (this.released)
+            throw new IllegalStateException("This YouTubePlayer has been released");
+    }
+}
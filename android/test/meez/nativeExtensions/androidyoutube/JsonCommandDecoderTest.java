@@ -0,0 +1,145 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** JsonCommandDecoder tests */
+public class JsonCommandDecoderTest extends UnitTest
+{
+    // Definitions
+
+    /** Longest wait for the worker (ms) */
+    private static final long TIMEOUT_MILLIS=5000;
+
+    // Tests
+
+    public void testDecodesInOrder() throws Exception
+    {
+        final List<String> handled = new ArrayList<String>();
+        final CountDownLatch done = new CountDownLatch(4);
+        CommandRingBuffer ring = new CommandRingBuffer(8, new Executor()
+        {
+            @Override
+            public void execute(Runnable drain)
+            {
+                // drained on the worker, the only publisher
+                drain.run();
+            }
+        }, new CommandProtocol.CommandHandler()
+        {
+            @Override
+            public void handle(CommandProtocol.Command command)
+            {
+                handled.add(command.opcode+" "+command.timeMillis+" "+command.videoId+" "+command.playerId+" "+command.error);
+                done.countDown();
+            }
+        });
+        JsonCommandDecoder decoder = new JsonCommandDecoder(ring);
+        try
+        {
+            decoder.decodeAsync(ring.claim(), "{\"action\":\"play\"}", 1);
+            decoder.decodeAsync(ring.claim(), "{\"action\":\"seek\",\"time\":1.5}", 1);
+            decoder.decodeAsync(ring.claim(), "{\"action\":\"playById\",\"videoId\":\"abc\",\"startTime\":2}", 2);
+            decoder.decodeAsync(ring.claim(), "{\"action\":", 2);
+            assertTrue("decoded", done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+        finally
+        {
+            decoder.shutdown();
+        }
+
+        assertEquals(CommandProtocol.OP_PLAY+" 0 null 1 null", handled.get(0));
+        assertEquals(CommandProtocol.OP_SEEK+" 1500 null 1 null", handled.get(1));
+        assertEquals(CommandProtocol.OP_PLAY_BY_ID+" 2000 abc 2 null", handled.get(2));
+        assertTrue("malformed discarded", handled.get(3).startsWith(CommandProtocol.OP_NONE+" 0 null 0 Malformed message"));
+    }
+
+    /** Messages still queued for the worker on shutdown are published as discarded, so the drain does not stall at their slots */
+    public void testShutdownPublishesDroppedSlots() throws Exception
+    {
+        final List<Integer> handled = new ArrayList<Integer>();
+        final CountDownLatch done = new CountDownLatch(4);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService consumer = Executors.newSingleThreadExecutor();
+
+        // the worker's first publish schedules the drain, and holds the worker until released
+        Executor drainExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable drain)
+            {
+                if (started.getCount()>0)
+                {
+                    started.countDown();
+                    awaitUninterruptibly(release);
+                }
+                consumer.execute(drain);
+            }
+        };
+        CommandRingBuffer ring = new CommandRingBuffer(8, drainExecutor, new CommandProtocol.CommandHandler()
+        {
+            @Override
+            public void handle(CommandProtocol.Command command)
+            {
+                synchronized (handled)
+                {
+                    handled.add(command.opcode);
+                }
+                done.countDown();
+            }
+        });
+        JsonCommandDecoder decoder = new JsonCommandDecoder(ring);
+        try
+        {
+            decoder.decodeAsync(ring.claim(), "{\"action\":\"play\"}", 0);
+            assertTrue("worker busy", started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            for (int i=0; i<3; i++)
+            {
+                decoder.decodeAsync(ring.claim(), "{\"action\":\"pause\"}", 0);
+            }
+
+            decoder.shutdown();
+            release.countDown();
+            assertTrue("all slots handled", done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            synchronized (handled)
+            {
+                assertEquals("["+CommandProtocol.OP_PLAY+", 0, 0, 0]", handled.toString());
+            }
+        }
+        finally
+        {
+            release.countDown();
+            consumer.shutdownNow();
+        }
+    }
+
+    // Implementation
+
+    /** Wait for latch, keeping the interrupt (shutdown interrupts the worker) for after it */
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        boolean interrupted = false;
+        while (true)
+        {
+            try
+            {
+                latch.await();
+                break;
+            }
+            catch (InterruptedException e)
+            {
+                interrupted=true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package meez.nativeExtensions.androidyoutube;
+
+/** LatencyHistogram tests */
+public class LatencyHistogramTest extends UnitTest
+{
+    // Tests
+
+    public void testEmpty()
+    {
+        LatencyHistogram histogram = new LatencyHistogram("execute");
+        assertEquals("execute", histogram.getName());
+        assertEquals("execute:0,0,0,0 0 0 0 0 0 0 0 0 0 0 0 0 0", snapshot(histogram));
+    }
+
+    public void testRecordBuckets()
+    {
+        LatencyHistogram histogram = new LatencyHistogram("h");
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(10000);
+        histogram.record(10001);
+        assertEquals(6, histogram.getCount());
+        assertEquals("h:6,20007,10001,2 1 1 0 0 0 0 0 0 0 0 0 1 1", snapshot(histogram));
+    }
+
+    public void testIgnoresNegative()
+    {
+        LatencyHistogram histogram = new LatencyHistogram("h");
+        histogram.record(-1);
+        assertEquals(0, histogram.getCount());
+    }
+
+    public void testReset()
+    {
+        LatencyHistogram histogram = new LatencyHistogram("h");
+        histogram.record(50);
+        histogram.reset();
+        assertEquals("h:0,0,0,0 0 0 0 0 0 0 0 0 0 0 0 0 0", snapshot(histogram));
+    }
+
+    // Implementation
+
+    /** Snapshot of histogram */
+    private static String snapshot(LatencyHistogram histogram)
+    {
+        StringBuilder sb = new StringBuilder();
+        histogram.appendTo(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,285 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.content.ComponentCallbacks2;
+import android.view.View;
+import android.view.ViewGroup;
+import com.google.android.youtube.player.YouTubePlayer;
+
+import java.util.Arrays;
+
+/**
+ * Player lifecycle through the headless harness: init, fragment view created, player initialized, actions
+ * and dispose. Each stage is also timed, and its allocation measured, against a regression budget
+ */
+public class LifecycleTest extends UnitTest
+{
+    // Definitions
+
+    /** Lifecycle stages */
+    private static final String[] STAGES={"init", "fragmentViewCreated", "initializationSuccess", "actions", "dispose"};
+
+    /** Lifecycles run before measuring, so class loading and compilation are not measured */
+    private static final int WARMUP_CYCLES=30;
+
+    /** Measured lifecycles (the median of each stage is checked) */
+    private static final int CYCLES=15;
+
+    /** Time budget of each stage, in microseconds (median, generous so slow machines pass) */
+    private static final long[] TIME_BUDGETS={5000, 2000, 2000, 2000, 5000};
+
+    /** Allocation budget of each stage, in bytes (median) */
+    private static final long[] ALLOCATION_BUDGETS={16384, 4096, 4096, 4096, 8192};
+
+    /** Actions sent in the actions stage */
+    private static final int ACTIONS=4;
+
+    // Instance vars
+
+    /** Harness */
+    private PlayerHarness harness;
+
+    /** Player */
+    private FakeYouTubePlayer player;
+
+    // Tests
+
+    /** Views, fragment, player and events at each stage */
+    public void testLifecycle()
+    {
+        this.harness=new PlayerHarness();
+        try
+        {
+            runInit();
+            assertEquals(1, YouTubePlayerPool.size());
+            assertTrue("fragment added later", this.harness.getFragment()==null && !this.harness.isInitializing());
+            ViewGroup root = this.harness.getActivity().getContentRoot();
+            assertEquals(1, root.getChildCount());
+            ViewGroup container = (ViewGroup)root.getChildAt(0);
+            assertEquals(View.INVISIBLE, container.getVisibility());
+
+            runFragmentViewCreated();
+            assertTrue("player initializing", this.harness.isInitializing());
+            assertEquals(0, root.getChildCount());
+            assertEquals(View.VISIBLE, container.getVisibility());
+            assertEquals(1, container.getChildCount());
+            assertTrue("container moved to dialog", container.getParent()!=null && container.getParent()!=root);
+
+            runInitializationSuccess();
+            assertSame(YouTubePlayer.PlayerStyle.CHROMELESS, this.player.getPlayerStyle());
+            assertEquals(1, this.harness.countEvents("playerReady"));
+            assertTrue("ready", YouTubePlayerPool.peek(YouTubePlayerPool.DEFAULT_PLAYER_ID).isReady());
+
+            runActions();
+            assertEquals(Arrays.asList("loadVideo video0001 0", "seekToMillis 30000", "pause", "play").toString(), this.player.getCalls().toString());
+            assertEquals(0, this.player.getWrongThreadCount());
+
+            runDispose();
+            assertEquals(0, YouTubePlayerPool.size());
+            assertTrue("fragment removed", !this.harness.getFragment().isAdded());
+            assertEquals(0, container.getChildCount());
+            assertEquals(0, root.getChildCount());
+        }
+        finally
+        {
+            this.harness.deleteFiles();
+        }
+    }
+
+    /** Actions sent before the player is ready are run once it is */
+    public void testActionsQueuedUntilReady()
+    {
+        this.harness=new PlayerHarness();
+        try
+        {
+            runInit();
+            assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PLAY_BY_ID, 5000, "queued01", YouTubePlayerPool.DEFAULT_PLAYER_ID));
+            assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PAUSE, 0, null, YouTubePlayerPool.DEFAULT_PLAYER_ID));
+            this.harness.runUntilIdle();
+            this.player=this.harness.deliverPlayer();
+
+            assertEquals(Arrays.asList("loadVideo queued01 5000", "pause").toString(), this.player.getCalls().toString());
+            runDispose();
+        }
+        finally
+        {
+            this.harness.deleteFiles();
+        }
+    }
+
+    /** A lazy init creates views one stage per idle main thread, starting at the first action */
+    public void testLazyInit()
+    {
+        this.harness=new PlayerHarness();
+        try
+        {
+            this.harness.call("initVideo", PlayerHarness.DEV_KEY, YouTubePlayerPool.DEFAULT_PLAYER_ID, true);
+            this.harness.runUntilIdle();
+            assertEquals(0, this.harness.getActivity().getContentRoot().getChildCount());
+
+            this.harness.call("loadURL", "lazy0001");
+            for (int i=0; i<10 && !this.harness.isInitializing(); i++)
+            {
+                this.harness.runUntilIdle();
+            }
+            assertTrue("player initializing", this.harness.isInitializing());
+
+            this.player=this.harness.deliverPlayer();
+            assertEquals("[loadVideo lazy0001 0]", this.player.getCalls().toString());
+            runDispose();
+        }
+        finally
+        {
+            this.harness.deleteFiles();
+        }
+    }
+
+    /** Trimmed in the background, after the activity saved its state, the player is released and restored on start */
+    public void testTrimInBackground()
+    {
+        this.harness=new PlayerHarness();
+        try
+        {
+            runInit();
+            runFragmentViewCreated();
+            runInitializationSuccess();
+            assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PLAY_BY_ID, 0, "trimmed1", YouTubePlayerPool.DEFAULT_PLAYER_ID));
+            this.harness.runUntilIdle();
+            this.player.fireLoaded("trimmed1");
+            this.player.firePlaying();
+
+            this.harness.getActivity().performStop();
+            this.harness.getActivity().getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+            this.harness.runUntilIdle();
+            assertTrue("player released", this.player.isReleased());
+            assertTrue("fragment removed", !this.harness.getFragment().isAdded());
+            assertEquals(1, this.harness.countEvents("playerCold"));
+
+            this.harness.getActivity().performStart();
+            for (int i=0; i<10 && !this.harness.isInitializing(); i++)
+            {
+                this.harness.runUntilIdle();
+            }
+            FakeYouTubePlayer restored = this.harness.deliverPlayer();
+            assertEquals("[loadVideo trimmed1 0]", restored.getCalls().toString());
+            assertEquals(1, this.harness.countEvents("playerRestored"));
+            runDispose();
+        }
+        finally
+        {
+            this.harness.deleteFiles();
+        }
+    }
+
+    /** Median time and allocation of each stage are within budget */
+    public void testStageBudgets()
+    {
+        for (int i=0; i<WARMUP_CYCLES; i++)
+        {
+            runCycle(null, null, i);
+        }
+
+        long[][] nanos = new long[STAGES.length][CYCLES];
+        long[][] bytes = new long[STAGES.length][CYCLES];
+        for (int i=0; i<CYCLES; i++)
+        {
+            runCycle(nanos, bytes, i);
+        }
+
+        StringBuilder failures = new StringBuilder();
+        for (int stage=0; stage<STAGES.length; stage++)
+        {
+            Arrays.sort(nanos[stage]);
+            Arrays.sort(bytes[stage]);
+            long micros = nanos[stage][CYCLES/2]/1000;
+            long allocated = bytes[stage][CYCLES/2];
+            System.out.println(String.format("  %-24s %8d us (budget %d) %8d B (budget %d)", STAGES[stage], micros, TIME_BUDGETS[stage], allocated, ALLOCATION_BUDGETS[stage]));
+
+            if (micros>TIME_BUDGETS[stage])
+            {
+                failures.append(' ').append(STAGES[stage]).append(" time ").append(micros).append("us");
+            }
+            if (allocated>ALLOCATION_BUDGETS[stage])
+            {
+                failures.append(' ').append(STAGES[stage]).append(" allocation ").append(allocated).append('B');
+            }
+        }
+        assertTrue("over budget:"+failures, failures.length()==0);
+    }
+
+    // Implementation
+
+    /** Run a lifecycle, measuring its stages into the cycle's column (if not null) */
+    private void runCycle(long[][] nanos, long[][] bytes, int cycle)
+    {
+        this.harness=new PlayerHarness(false);
+        try
+        {
+            for (int stage=0; stage<STAGES.length; stage++)
+            {
+                long startBytes = PlayerHarness.getAllocatedBytes();
+                long start = System.nanoTime();
+                runStage(stage);
+                long end = System.nanoTime();
+                long endBytes = PlayerHarness.getAllocatedBytes();
+                if (nanos!=null)
+                {
+                    nanos[stage][cycle]=end-start;
+                    bytes[stage][cycle]=(startBytes>=0) ? endBytes-startBytes : 0;
+                }
+            }
+        }
+        finally
+        {
+            this.harness.deleteFiles();
+        }
+    }
+
+    /** Run stage */
+    private void runStage(int stage)
+    {
+        switch (stage)
+        {
+            case 0: runInit(); break;
+            case 1: runFragmentViewCreated(); break;
+            case 2: runInitializationSuccess(); break;
+            case 3: runActions(); break;
+            default: runDispose(); break;
+        }
+    }
+
+    /** Init: initVideo runs on the main thread, and creates views. The fragment transaction is left pending */
+    private void runInit()
+    {
+        this.harness.call("initVideo", PlayerHarness.DEV_KEY);
+        assertTrue("command drained", this.harness.getMainQueue().runNext());
+    }
+
+    /** Fragment transaction runs: the fragment view is created and the player requested */
+    private void runFragmentViewCreated()
+    {
+        this.harness.getActivity().getFragmentManager().executePendingTransactions();
+    }
+
+    /** YouTube service delivers the player */
+    private void runInitializationSuccess()
+    {
+        this.player=this.harness.deliverPlayer();
+    }
+
+    /** Actions: binary commands play, seek, pause and play */
+    private void runActions()
+    {
+        int playerId = YouTubePlayerPool.DEFAULT_PLAYER_ID;
+        assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PLAY_BY_ID, 0, "video0001", playerId));
+        assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_SEEK, 30000, null, playerId));
+        assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PAUSE, 0, null, playerId));
+        assertTrue("sent", this.harness.sendCommand(CommandProtocol.OP_PLAY, 0, null, playerId));
+        this.harness.runUntilIdle();
+    }
+
+    /** Dispose: players released, fragment removed */
+    private void runDispose()
+    {
+        this.harness.dispose();
+    }
+}
@@ -0,0 +1,150 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/** PlayerActionQueue tests */
+public class PlayerActionQueueTest extends UnitTest
+{
+    // Tests
+
+    public void testKeepsOrder()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        TestAction cue = new TestAction(YouTubePlayerAdapter.ActionType.CUE);
+        TestAction seek = new TestAction(YouTubePlayerAdapter.ActionType.SEEK);
+        TestAction play = new TestAction(YouTubePlayerAdapter.ActionType.PLAY);
+        queue.add(cue, 10);
+        queue.add(seek, 20);
+        queue.add(play, 30);
+
+        assertEquals(3, queue.size());
+        assertEquals(10, queue.peekEnqueueTime());
+        assertSame(cue, queue.poll());
+        assertEquals(20, queue.peekEnqueueTime());
+        assertSame(seek, queue.poll());
+        assertSame(play, queue.poll());
+        assertEquals(null, queue.poll());
+        assertTrue("Expected empty", queue.isEmpty());
+        assertEquals(0, queue.getMergedCount());
+    }
+
+    public void testLoadSupersedesPending()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        TestAction other = new TestAction(YouTubePlayerAdapter.ActionType.OTHER);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.LOAD), 1);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.CUE), 2);
+        queue.add(other, 3);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.SEEK), 4);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.PLAY), 5);
+        TestAction load = new TestAction(YouTubePlayerAdapter.ActionType.LOAD);
+        queue.add(load, 6);
+
+        assertEquals(2, queue.size());
+        assertEquals(4, queue.getMergedCount());
+        assertEquals(3, queue.peekEnqueueTime());
+        assertSame(other, queue.poll());
+        assertSame(load, queue.poll());
+    }
+
+    public void testNewestPlaybackIntentWins()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        TestAction seek = new TestAction(YouTubePlayerAdapter.ActionType.SEEK);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.PLAY), 1);
+        queue.add(seek, 2);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.PAUSE), 3);
+        TestAction play = new TestAction(YouTubePlayerAdapter.ActionType.PLAY);
+        queue.add(play, 4);
+
+        assertEquals(2, queue.size());
+        assertSame(seek, queue.poll());
+        assertSame(play, queue.poll());
+    }
+
+    public void testSeekAndCueSupersedeSameType()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.CUE), 1);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.SEEK), 2);
+        TestAction cue = new TestAction(YouTubePlayerAdapter.ActionType.CUE);
+        TestAction seek = new TestAction(YouTubePlayerAdapter.ActionType.SEEK);
+        queue.add(cue, 3);
+        queue.add(seek, 4);
+
+        assertEquals(2, queue.getMergedCount());
+        assertSame(cue, queue.poll());
+        assertSame(seek, queue.poll());
+    }
+
+    public void testDropsOldestWhenFull()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(2);
+        TestAction second = new TestAction(YouTubePlayerAdapter.ActionType.OTHER);
+        TestAction third = new TestAction(YouTubePlayerAdapter.ActionType.OTHER);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.OTHER), 1);
+        queue.add(second, 2);
+        queue.add(third, 3);
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+    }
+
+    public void testClear()
+    {
+        PlayerActionQueue queue = new PlayerActionQueue(PlayerActionQueue.DEFAULT_CAPACITY);
+        queue.add(new TestAction(YouTubePlayerAdapter.ActionType.PLAY), 1);
+        queue.clear();
+        assertTrue("Expected empty", queue.isEmpty());
+        try
+        {
+            queue.peekEnqueueTime();
+            fail("Expected IllegalStateException");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
+    public void testRejectsInvalidCapacity()
+    {
+        try
+        {
+            new PlayerActionQueue(0);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    // Implementation
+
+    /** Action of a type, doing nothing */
+    private static final class TestAction implements YouTubePlayerAdapter.PlayerAction
+    {
+        /** Type */
+        private final YouTubePlayerAdapter.ActionType type;
+
+        /** Create a new TestAction */
+        TestAction(YouTubePlayerAdapter.ActionType type)
+        {
+            this.type=type;
+        }
+
+        @Override
+        public YouTubePlayerAdapter.ActionType getType()
+        {
+            return this.type;
+        }
+
+        @Override
+        public void run(YouTubePlayer player)
+        {
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import com.adobe.fre.FREByteArray;
+import com.adobe.fre.FREContext;
+import com.adobe.fre.FREFunction;
+import com.adobe.fre.FREObject;
+import com.google.android.youtube.player.YouTubeInitializationResult;
+import com.google.android.youtube.player.YouTubePlayer;
+import com.google.android.youtube.player.YouTubePlayerFragment;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless extension harness, for tests and benchmarks run without a device
+ *
+ * An AndroidYoutubeContext runs on a fake activity (android.* and com.adobe.fre stand-ins in test-stubs),
+ * with the calling thread as the main looper. Actionscript calls go through the context's FREFunctions;
+ * the test dispatches main thread messages (@see MessageQueue.runUntilIdle), and answers player
+ * initialization as the YouTube service would (@see deliverPlayer). Status events sent to Actionscript
+ * are recorded as 'type reason'.
+ */
+public class PlayerHarness implements FREContext.StatusEventListener, YouTubePlayerFragment.Initializer
+{
+    // Definitions
+
+    /** Developer key */
+    public static final String DEV_KEY="test-dev-key";
+
+    // Class vars
+
+    /** Thread allocation counter (null if not supported) */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER=createAllocationCounter();
+
+    // Instance vars
+
+    /** Activity */
+    private final Activity activity;
+
+    /** Context */
+    private final AndroidYoutubeContext context;
+
+    /** Context functions, by Actionscript name */
+    private final Map<String, FREFunction> functions;
+
+    /** Main thread message queue */
+    private final MessageQueue mainQueue;
+
+    /** Status events sent to Actionscript (null if not recorded) */
+    private final List<String> events;
+
+    /** Fragment waiting for its player (null if none) */
+    private YouTubePlayerFragment pendingFragment;
+
+    /** Listener of the fragment waiting for its player */
+    private YouTubePlayer.OnInitializedListener pendingListener;
+
+    /** Fragment of the last player initialized */
+    private YouTubePlayerFragment fragment;
+
+    /** Records calls of players it delivers */
+    private final boolean recordCalls;
+
+    // Public Methods
+
+    /** Create a new PlayerHarness, recording events and player calls */
+    public PlayerHarness()
+    {
+        this(true);
+    }
+
+    /** Create a new PlayerHarness, on the calling thread as the main thread */
+    public PlayerHarness(boolean record)
+    {
+        Looper.prepareMainLooper();
+        this.mainQueue=Looper.myQueue();
+        this.events=record ? new ArrayList<String>() : null;
+        this.recordCalls=record;
+
+        // players left by an earlier harness
+        YouTubePlayerPool.releaseAll();
+        YouTubePlayerPool.setCapacity(YouTubePlayerPool.DEFAULT_CAPACITY);
+        this.mainQueue.clear();
+
+        this.activity=new Activity();
+        this.activity.getPackageManager().installPackage(CapabilityProbe.YOUTUBE_PACKAGE, "12.0.0");
+        YouTubePlayerFragment.setInitializer(this);
+
+        this.context=new AndroidYoutubeContext();
+        this.context.setActivity(this.activity);
+        this.context.setStatusEventListener(this);
+        this.functions=this.context.getFunctions();
+    }
+
+    /** Get activity */
+    public Activity getActivity()
+    {
+        return this.activity;
+    }
+
+    /** Get context */
+    public AndroidYoutubeContext getContext()
+    {
+        return this.context;
+    }
+
+    /** Get main thread message queue */
+    public MessageQueue getMainQueue()
+    {
+        return this.mainQueue;
+    }
+
+    /** Call context function, as Actionscript does. Arguments are Integer, Double, Boolean, String or FREObject */
+    public FREObject call(String function, Object... args)
+    {
+        FREFunction target = this.functions.get(function);
+        if (target==null)
+            throw new IllegalArgumentException("No function ("+function+")");
+
+        FREObject[] params = new FREObject[args.length];
+        for (int i=0; i<args.length; i++)
+        {
+            params[i]=toFREObject(args[i]);
+        }
+        return target.call(this.context, params);
+    }
+
+    /** Send binary command for player. Returns false if it was not accepted */
+    public boolean sendCommand(int opcode, int timeMillis, String videoId, int playerId)
+    {
+        FREByteArray bytes = FREByteArray.newByteArray(encodeCommand(opcode, timeMillis, videoId));
+        return call("sendCommand", bytes, playerId)!=null;
+    }
+
+    /** Dispatch main thread messages due now, and idle handlers once idle */
+    public int runUntilIdle()
+    {
+        return this.mainQueue.runUntilIdle();
+    }
+
+    /** Is a fragment waiting for its player */
+    public boolean isInitializing()
+    {
+        return this.pendingListener!=null;
+    }
+
+    /** Get fragment of the last player initialized (null if none) */
+    public YouTubePlayerFragment getFragment()
+    {
+        return this.fragment;
+    }
+
+    /** Answer the waiting fragment with a new player, as the YouTube service does once connected */
+    public FakeYouTubePlayer deliverPlayer()
+    {
+        return deliverPlayer(new FakeYouTubePlayer(this.recordCalls), false);
+    }
+
+    /** Answer the waiting fragment with player */
+    public FakeYouTubePlayer deliverPlayer(FakeYouTubePlayer player, boolean wasRestored)
+    {
+        YouTubePlayer.OnInitializedListener listener = takePendingListener();
+        listener.onInitializationSuccess(this.fragment, player, wasRestored);
+        return player;
+    }
+
+    /** Answer the waiting fragment with a failure */
+    public void failInitialization(YouTubeInitializationResult result)
+    {
+        YouTubePlayer.OnInitializedListener listener = takePendingListener();
+        listener.onInitializationFailure(this.fragment, result);
+    }
+
+    /** Get status events sent to Actionscript, as 'type reason' */
+    public List<String> getEvents()
+    {
+        synchronized (this.events)
+        {
+            return new ArrayList<String>(this.events);
+        }
+    }
+
+    /** Number of status events sent containing text */
+    public int countEvents(String text)
+    {
+        int count = 0;
+        for (String event : getEvents())
+        {
+            if (event.contains(text))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Dispose the context (as Actionscript's dispose does), and run the resulting main thread messages */
+    public void dispose()
+    {
+        this.context.dispose();
+        runUntilIdle();
+        YouTubePlayerFragment.setInitializer(null);
+    }
+
+    /** Delete files written by the context */
+    public void deleteFiles()
+    {
+        File dir = this.activity.getFilesDir();
+        File[] files = dir.listFiles();
+        if (files!=null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /** Encode binary command, as sent from Actionscript */
+    public static byte[] encodeCommand(int opcode, int timeMillis, String videoId)
+    {
+        int length = (videoId!=null) ? CommandProtocol.HEADER_SIZE+videoId.length() : CommandProtocol.HEADER_SIZE-1;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put((byte)opcode).putInt(timeMillis);
+        if (videoId!=null)
+        {
+            buffer.put((byte)videoId.length());
+            for (int i=0; i<videoId.length(); i++)
+            {
+                buffer.put((byte)videoId.charAt(i));
+            }
+        }
+        return buffer.array();
+    }
+
+    /** Bytes allocated by the current thread so far (-1 if not supported) */
+    public static long getAllocatedBytes()
+    {
+        return (ALLOCATION_COUNTER!=null) ? ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    // FREContext.StatusEventListener Implementation
+
+    @Override
+    public void onStatusEvent(String code, String level)
+    {
+        if (this.events==null)
+            return;
+
+        synchronized (this.events)
+        {
+            this.events.add(code+" "+level);
+        }
+    }
+
+    // YouTubePlayerFragment.Initializer Implementation
+
+    @Override
+    public void initialize(YouTubePlayerFragment fragment, String developerKey, YouTubePlayer.OnInitializedListener listener)
+    {
+        if (!DEV_KEY.equals(developerKey))
+            throw new IllegalArgumentException("Unexpected developer key ("+developerKey+")");
+
+        this.pendingFragment=fragment;
+        this.pendingListener=listener;
+    }
+
+    // Implementation
+
+    /** Take listener of the waiting fragment */
+    private YouTubePlayer.OnInitializedListener takePendingListener()
+    {
+        if (this.pendingListener==null)
+            throw new IllegalStateException("No fragment waiting for a player");
+
+        YouTubePlayer.OnInitializedListener listener = this.pendingListener;
+        this.fragment=this.pendingFragment;
+        this.pendingListener=null;
+        this.pendingFragment=null;
+        return listener;
+    }
+
+    /** Convert argument to FREObject */
+    private static FREObject toFREObject(Object arg)
+    {
+        if (arg==null || arg instanceof FREObject)
+            return (FREObject)arg;
+        if (arg instanceof Integer)
+            return FREObject.newObject((Integer)arg);
+        if (arg instanceof Double)
+            return FREObject.newObject((Double)arg);
+        if (arg instanceof Boolean)
+            return FREObject.newObject((Boolean)arg);
+        if (arg instanceof String)
+            return FREObject.newObject((String)arg);
+        throw new IllegalArgumentException("Unsupported argument ("+arg+")");
+    }
+
+    /** Create allocation counter, if the JVM supports it */
+    private static com.sun.management.ThreadMXBean createAllocationCounter()
+    {
+        try
+        {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean)threads;
+                if (counter.isThreadAllocatedMemorySupported())
+                {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        }
+        catch (Throwable t)
+        {
+            // not a HotSpot compatible JVM
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.app.Activity;
+
+import java.io.File;
+
+/** ResumeStore tests. Stores are reopened on the same file to check what was persisted */
+public class ResumeStoreTest extends UnitTest
+{
+    // Definitions
+
+    /** Longest wait for the worker (ms) */
+    private static final long TIMEOUT_MILLIS=5000;
+
+    // Tests
+
+    public void testLeastRecentlyUsedEvictedAndSlotReused() throws Exception
+    {
+        Activity activity = new Activity();
+        try
+        {
+            ResumeStore store = openStore(activity);
+            for (int i=0; i<=ResumeStore.SLOT_COUNT; i++)
+            {
+                store.put("v"+i, 1000*(i+1));
+            }
+            assertEquals(0, store.get("v0"));
+            closeStore(store);
+
+            File file = new File(activity.getFilesDir(), ResumeStore.FILE_NAME);
+            long length = file.length();
+
+            ResumeStore reopened = openStore(activity);
+            awaitPosition(reopened, "v"+ResumeStore.SLOT_COUNT, 1000*(ResumeStore.SLOT_COUNT+1));
+            assertEquals(0, reopened.get("v0"));
+            for (int i=1; i<=ResumeStore.SLOT_COUNT; i++)
+            {
+                assertEquals(1000*(i+1), reopened.get("v"+i));
+            }
+            closeStore(reopened);
+
+            // evicted slot reused, the file does not grow
+            assertEquals(length, file.length());
+        }
+        finally
+        {
+            deleteFiles(activity);
+        }
+    }
+
+    public void testLoadKeepsEntriesStoredBeforeIt() throws Exception
+    {
+        Activity activity = new Activity();
+        try
+        {
+            ResumeStore first = openStore(activity);
+            first.put("a", 1000);
+            first.put("b", 2000);
+            closeStore(first);
+
+            // stored before the file is loaded: newer than the file for a, new for c
+            ResumeStore second = new ResumeStore();
+            second.put("a", 5000);
+            second.put("c", 3000);
+            second.open(activity);
+            awaitPosition(second, "b", 2000);
+            assertEquals(5000, second.get("a"));
+            assertEquals(3000, second.get("c"));
+            closeStore(second);
+
+            ResumeStore third = openStore(activity);
+            awaitPosition(third, "b", 2000);
+            assertEquals(5000, third.get("a"));
+            assertEquals(3000, third.get("c"));
+            closeStore(third);
+        }
+        finally
+        {
+            deleteFiles(activity);
+        }
+    }
+
+    public void testRemoveWithWritePending() throws Exception
+    {
+        Activity activity = new Activity();
+        try
+        {
+            ResumeStore store = openStore(activity);
+            store.put("sentinel", 1000);
+            store.put("a", 2000);
+            store.put("b", 3000);
+            // a's write is still queued on the worker
+            store.remove("a");
+            assertEquals(0, store.get("a"));
+            closeStore(store);
+
+            ResumeStore reopened = openStore(activity);
+            awaitPosition(reopened, "sentinel", 1000);
+            assertEquals(0, reopened.get("a"));
+            assertEquals(3000, reopened.get("b"));
+
+            // written to its slot, then removed
+            reopened.remove("b");
+            closeStore(reopened);
+
+            ResumeStore last = openStore(activity);
+            awaitPosition(last, "sentinel", 1000);
+            assertEquals(0, last.get("b"));
+            closeStore(last);
+        }
+        finally
+        {
+            deleteFiles(activity);
+        }
+    }
+
+    // Implementation
+
+    /** Open store on the activity's files */
+    private static ResumeStore openStore(Activity activity)
+    {
+        ResumeStore store = new ResumeStore();
+        store.open(activity);
+        return store;
+    }
+
+    /** Close store, waiting for the file to be closed */
+    private static void closeStore(ResumeStore store) throws InterruptedException
+    {
+        store.close();
+        assertTrue("closed", store.awaitClosed(TIMEOUT_MILLIS));
+    }
+
+    /** Wait for the store to load video's position */
+    private static void awaitPosition(ResumeStore store, String videoId, int positionMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis()+TIMEOUT_MILLIS;
+        while (store.get(videoId)!=positionMillis && System.currentTimeMillis()<deadline)
+        {
+            Thread.sleep(5);
+        }
+        assertEquals(positionMillis, store.get(videoId));
+    }
+
+    /** Delete the activity's files */
+    private static void deleteFiles(Activity activity)
+    {
+        File dir = activity.getFilesDir();
+        File[] files = dir.listFiles();
+        if (files!=null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,79 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.google.android.youtube.player.YouTubePlayer;
+
+/** SessionTelemetry tests */
+public class SessionTelemetryTest extends UnitTest
+{
+    // Tests
+
+    public void testInactiveUntilStarted()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        assertTrue("Expected inactive", !session.isActive());
+        session.onPlaying(100);
+        assertEquals("\"videoId\":null,\"join\":-1,\"rebuffers\":0,\"stall\":0,\"watched\":0,\"errors\":{}", summary(session, 200));
+    }
+
+    public void testJoinWatchedAndStall()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        session.onStart(1000);
+        session.onLoaded("abc");
+        assertTrue("Expected active", session.isActive());
+        assertEquals("abc", session.getVideoId());
+
+        // buffering before join is not a rebuffer
+        session.onBuffering(true, 1100);
+        session.onPlaying(1500);
+        session.onBuffering(true, 2500);
+        session.onBuffering(true, 2600);
+        session.onPlaying(3000);
+        session.onStopped(4000);
+
+        assertEquals("\"videoId\":\"abc\",\"join\":500,\"rebuffers\":1,\"stall\":500,\"watched\":2000,\"errors\":{}", summary(session, 5000));
+    }
+
+    public void testOpenIntervalsCountedToNow()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        session.onStart(1000);
+        session.onPlaying(1000);
+        assertEquals("\"videoId\":null,\"join\":0,\"rebuffers\":0,\"stall\":0,\"watched\":700,\"errors\":{}", summary(session, 1700));
+
+        session.onBuffering(true, 2000);
+        assertEquals("\"videoId\":null,\"join\":0,\"rebuffers\":1,\"stall\":300,\"watched\":1000,\"errors\":{}", summary(session, 2300));
+    }
+
+    public void testErrorsCounted()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        session.onStart(1000);
+        session.onError(YouTubePlayer.ErrorReason.NETWORK_ERROR, 1100);
+        session.onError(YouTubePlayer.ErrorReason.NETWORK_ERROR, 1200);
+        session.onError(YouTubePlayer.ErrorReason.NOT_PLAYABLE, 1300);
+        assertEquals("\"videoId\":null,\"join\":-1,\"rebuffers\":0,\"stall\":0,\"watched\":0,\"errors\":{\"NOT_PLAYABLE\":1,\"NETWORK_ERROR\":2}",
+                     summary(session, 1400));
+    }
+
+    public void testStartResets()
+    {
+        SessionTelemetry session = new SessionTelemetry();
+        session.onStart(1000);
+        session.onLoaded("abc");
+        session.onPlaying(1200);
+        session.onError(YouTubePlayer.ErrorReason.INTERNAL_ERROR, 1300);
+        session.onStart(2000);
+        assertEquals("\"videoId\":null,\"join\":-1,\"rebuffers\":0,\"stall\":0,\"watched\":0,\"errors\":{}", summary(session, 2500));
+    }
+
+    // Implementation
+
+    /** Summary of session */
+    private static String summary(SessionTelemetry session, long now)
+    {
+        StringBuilder sb = new StringBuilder();
+        session.appendTo(sb, now);
+        return sb.toString();
+    }
+}
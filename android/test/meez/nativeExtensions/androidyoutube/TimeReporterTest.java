@@ -0,0 +1,86 @@
+package meez.nativeExtensions.androidyoutube;
+
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** TimeReporter tests */
+public class TimeReporterTest extends UnitTest
+{
+    // Definitions
+
+    /** Tick interval (ms), short so a second never passes during a test */
+    private static final long TICK_INTERVAL=10;
+
+    // Tests
+
+    public void testSameSecondSentOnce()
+    {
+        List<String> sent = new ArrayList<String>();
+        TimeReporter reporter = createReporter(sent, 5000);
+
+        Looper.myQueue().runFor(5*TICK_INTERVAL);
+        reporter.stop();
+        assertEquals("[5/0]", sent.toString());
+    }
+
+    public void testSeekResendsSecond()
+    {
+        List<String> sent = new ArrayList<String>();
+        TimeReporter reporter = createReporter(sent, 5000);
+        Looper.myQueue().runFor(3*TICK_INTERVAL);
+
+        // seek back within the same second
+        reporter.syncTo(5000);
+        Looper.myQueue().runFor(3*TICK_INTERVAL);
+        reporter.stop();
+        assertEquals("[5/0, 5/0]", sent.toString());
+    }
+
+    public void testNewVideoResendsSecond()
+    {
+        List<String> sent = new ArrayList<String>();
+        TimeReporter reporter = createReporter(sent, 5000);
+        Looper.myQueue().runFor(3*TICK_INTERVAL);
+
+        // new video started at the same position
+        reporter.reset();
+        reporter.sync(true);
+        Looper.myQueue().runFor(3*TICK_INTERVAL);
+        reporter.stop();
+        assertEquals("[5/0, 5/0]", sent.toString());
+    }
+
+    // Implementation
+
+    /** Create reporter anchored at position while playing, with ticks started, sending 'secs/totalSecs' to sent */
+    private static TimeReporter createReporter(final List<String> sent, int positionMillis)
+    {
+        Looper.prepareMainLooper();
+        FakeYouTubePlayer player = new FakeYouTubePlayer(false);
+        player.seekToMillis(positionMillis);
+
+        TimeReporter reporter = new TimeReporter(new YouTubePlayerAdapter.PlayerEventCallback()
+        {
+            @Override public void sendState(String state) {}
+            @Override public void sendData(String data) {}
+            @Override public void sendTimeAnchor(int positionMillis, int durationMillis, int rate) {}
+            @Override public void sendPlaylistAdvanced(int index, String videoId) {}
+            @Override public void sendError(int code, String msg) {}
+            @Override public void sendSession(SessionTelemetry session) {}
+            @Override public void dispatchEventWithReason(String type, String reason) {}
+
+            @Override
+            public void sendTimeData(int curSecs, int totalSecs)
+            {
+                sent.add(curSecs+"/"+totalSecs);
+            }
+        }, new StateBuffer());
+        reporter.configure(TICK_INTERVAL, TimeReporter.DEFAULT_RESYNC_INTERVAL, true, false);
+        reporter.setPlayer(player);
+        reporter.sync(true);
+        reporter.start();
+        return reporter;
+    }
+}
@@ -0,0 +1,150 @@
+package meez.nativeExtensions.androidyoutube;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plain JVM unit test base and runner, so tests run without a device or a test framework
+ *
+ * Tests are public no-argument 'test*' methods of UnitTest subclasses whose names end in 'Test'. The runner
+ * finds them under a class directory, runs each on a new instance, and exits with status 1 if any failed.
+ */
+public abstract class UnitTest
+{
+    // Public Methods
+
+    /** Run tests found under class directory (args[0]) */
+    public static void main(String[] args) throws Exception
+    {
+        List<String> classNames = new ArrayList<String>();
+        findTests(new File(args[0]), "", classNames);
+        Collections.sort(classNames);
+
+        int run = 0;
+        int failed = 0;
+        for (String className : classNames)
+        {
+            Class<?> type = Class.forName(className);
+            if (!UnitTest.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers()))
+                continue;
+
+            for (Method method : getTestMethods(type))
+            {
+                run++;
+                String name = type.getSimpleName()+"."+method.getName();
+                try
+                {
+                    method.invoke(type.newInstance());
+                    System.out.println("PASS "+name);
+                }
+                catch (InvocationTargetException e)
+                {
+                    failed++;
+                    System.out.println("FAIL "+name+": "+e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+
+        System.out.println(run+" tests, "+failed+" failed");
+        if (failed>0 || run==0)
+        {
+            System.exit(1);
+        }
+    }
+
+    // Assertions
+
+    /** Fail */
+    protected static void fail(String message)
+    {
+        throw new AssertionError(message);
+    }
+
+    /** Assert condition is true */
+    protected static void assertTrue(String message, boolean condition)
+    {
+        if (!condition)
+        {
+            fail(message);
+        }
+    }
+
+    /** Assert values are equal */
+    protected static void assertEquals(long expected, long actual)
+    {
+        if (expected!=actual)
+        {
+            fail("Expected ("+expected+"). Actual ("+actual+")");
+        }
+    }
+
+    /** Assert objects are equal */
+    protected static void assertEquals(Object expected, Object actual)
+    {
+        if (expected==null ? actual!=null : !expected.equals(actual))
+        {
+            fail("Expected ("+expected+"). Actual ("+actual+")");
+        }
+    }
+
+    /** Assert objects are the same instance */
+    protected static void assertSame(Object expected, Object actual)
+    {
+        if (expected!=actual)
+        {
+            fail("Expected same instance ("+expected+"). Actual ("+actual+")");
+        }
+    }
+
+    // Implementation
+
+    /** Find test class names under directory */
+    private static void findTests(File dir, String packageName, List<String> classNames)
+    {
+        File[] files = dir.listFiles();
+        if (files==null)
+            return;
+
+        for (File file : files)
+        {
+            String name = file.getName();
+            if (file.isDirectory())
+            {
+                findTests(file, packageName+name+".", classNames);
+            }
+            else if (name.endsWith("Test.class") && name.indexOf('$')<0)
+            {
+                classNames.add(packageName+name.substring(0, name.length()-".class".length()));
+            }
+        }
+    }
+
+    /** Test methods of class, by name */
+    private static List<Method> getTestMethods(Class<?> type)
+    {
+        List<Method> methods = new ArrayList<Method>();
+        for (Method method : type.getMethods())
+        {
+            if (method.getName().startsWith("test") && method.getParameterTypes().length==0)
+            {
+                methods.add(method);
+            }
+        }
+        Collections.sort(methods, new Comparator<Method>()
+        {
+            @Override
+            public int compare(Method a, Method b)
+            {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+        return methods;
+    }
+}
@@ -0,0 +1,71 @@
+package meez.nativeExtensions.androidyoutube;
+
+/** VideoMetadataCache tests */
+public class VideoMetadataCacheTest extends UnitTest
+{
+    // Tests
+
+    public void testHitsAndMisses()
+    {
+        VideoMetadataCache cache = new VideoMetadataCache(VideoMetadataCache.DEFAULT_CAPACITY);
+        assertEquals(0, cache.getDurationMillis("a"));
+        assertEquals(0, cache.getDurationMillis(null));
+
+        cache.onLoaded("a", 0, 100);
+        assertEquals(0, cache.getDurationMillis("a"));
+        cache.setDurationMillis("a", 60000);
+        assertEquals(60000, cache.getDurationMillis("a"));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    public void testKnownDurationKept()
+    {
+        VideoMetadataCache cache = new VideoMetadataCache(VideoMetadataCache.DEFAULT_CAPACITY);
+        cache.onLoaded("a", 60000, 100);
+        cache.onLoaded("a", 0, 200);
+        cache.setDurationMillis("a", -1);
+
+        VideoMetadataCache.VideoMetadata metadata = cache.get("a");
+        assertEquals(60000, metadata.durationMillis);
+        assertEquals(200, metadata.loadTime);
+        assertEquals(1, cache.size());
+    }
+
+    public void testSetDurationOfUncachedIgnored()
+    {
+        VideoMetadataCache cache = new VideoMetadataCache(VideoMetadataCache.DEFAULT_CAPACITY);
+        cache.setDurationMillis("a", 60000);
+        assertEquals(null, cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    public void testEvictsLeastRecentlyUsed()
+    {
+        VideoMetadataCache cache = new VideoMetadataCache(2);
+        cache.onLoaded("a", 1000, 1);
+        cache.onLoaded("b", 2000, 2);
+        // touch a, so b is least recently used
+        assertEquals(1000, cache.getDurationMillis("a"));
+        cache.onLoaded("c", 3000, 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(null, cache.get("b"));
+        assertEquals(1000, cache.getDurationMillis("a"));
+        assertEquals(3000, cache.getDurationMillis("c"));
+    }
+
+    public void testRejectsInvalidCapacity()
+    {
+        try
+        {
+            new VideoMetadataCache(0);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package meez.nativeExtensions.androidyoutube;
+
+import com.adobe.fre.FREByteArray;
+import com.adobe.fre.FREObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** YouTubePlayerAdapter tests, through the headless harness */
+public class YouTubePlayerAdapterTest extends UnitTest
+{
+    // Definitions
+
+    /** Stress test producer threads */
+    private static final int PRODUCERS=4;
+
+    /** Stress test commands per producer */
+    private static final int COMMANDS_PER_PRODUCER=2000;
+
+    /** Stress test reads per producer (one every this many commands) */
+    private static final int READ_INTERVAL=50;
+
+    // Tests
+
+    /**
+     * Commands and reads sent from several threads at once, as binary commands and JSON messages, all reach
+     * the adapter, and the player, on the main thread, in the order each thread sent them
+     */
+    public void testCommandsFromManyThreads() throws Exception
+    {
+        final PlayerHarness harness = new PlayerHarness();
+        try
+        {
+            harness.call("initVideo", PlayerHarness.DEV_KEY);
+            harness.runUntilIdle();
+            FakeYouTubePlayer player = harness.deliverPlayer();
+
+            final AtomicInteger failedReads = new AtomicInteger();
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            Thread[] producers = new Thread[PRODUCERS];
+            for (int p=0; p<PRODUCERS; p++)
+            {
+                final int producer = p;
+                producers[p]=new Thread("Producer-"+p)
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            produce(harness, producer, failedReads);
+                        }
+                        catch (Throwable t)
+                        {
+                            synchronized (errors)
+                            {
+                                errors.add(t);
+                            }
+                        }
+                    }
+                };
+                producers[p].start();
+            }
+
+            // main thread loop, until producers are done and their commands handled
+            for (Thread producer : producers)
+            {
+                while (producer.isAlive())
+                {
+                    harness.getMainQueue().runFor(5);
+                }
+            }
+            for (int i=0; i<100 && countLoads(player)<PRODUCERS*COMMANDS_PER_PRODUCER; i++)
+            {
+                harness.getMainQueue().runFor(10);
+            }
+
+            assertTrue("producer errors "+errors, errors.isEmpty());
+            assertEquals(0, failedReads.get());
+            assertEquals(0, player.getWrongThreadCount());
+            assertEquals(PRODUCERS*COMMANDS_PER_PRODUCER, countLoads(player));
+
+            // per producer order
+            int[] next = new int[PRODUCERS];
+            for (String call : player.getCalls())
+            {
+                if (!call.startsWith("loadVideo "))
+                    continue;
+
+                // "loadVideo p<producer>v<index> 0"
+                String videoId = call.split(" ")[1];
+                int producer = Integer.parseInt(videoId.substring(1, videoId.indexOf('v')));
+                int index = Integer.parseInt(videoId.substring(videoId.indexOf('v')+1));
+                assertEquals(next[producer], index);
+                next[producer]++;
+            }
+
+            harness.dispose();
+        }
+        finally
+        {
+            harness.deleteFiles();
+        }
+    }
+
+    // Implementation
+
+    /** Send commands from a producer thread, reading metrics, session and state between them */
+    private static void produce(PlayerHarness harness, int producer, AtomicInteger failedReads)
+    {
+        FREByteArray state = FREByteArray.newByteArray(new byte[StateBuffer.SIZE]);
+        for (int i=0; i<COMMANDS_PER_PRODUCER; i++)
+        {
+            String videoId = "p"+producer+"v"+i;
+            boolean sent = false;
+            while (!sent)
+            {
+                // odd producers send JSON, decoded on the decoder thread
+                if (producer%2==0)
+                {
+                    sent=harness.sendCommand(CommandProtocol.OP_PLAY_BY_ID, 0, videoId, YouTubePlayerPool.DEFAULT_PLAYER_ID);
+                }
+                else
+                {
+                    sent=(harness.call("sendJSON", "{\"action\":\"playById\",\"videoId\":\""+videoId+"\",\"startTime\":0}")!=null);
+                }
+                if (!sent)
+                {
+                    // command buffer full, retried
+                    Thread.yield();
+                }
+            }
+
+            if (i%READ_INTERVAL==0)
+            {
+                FREObject metrics = harness.call("getMetrics");
+                FREObject session = harness.call("getSession");
+                FREObject sequence = harness.call("readState", state);
+                if (metrics==null || session==null || sequence==null || sequence.getAsInt()<0)
+                {
+                    failedReads.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /** Number of videos loaded */
+    private static int countLoads(FakeYouTubePlayer player)
+    {
+        int count = 0;
+        for (String call : player.getCalls())
+        {
+            if (call.startsWith("loadVideo "))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+}
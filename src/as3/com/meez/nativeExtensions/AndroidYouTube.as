@@ -5,9 +5,36 @@ import flash.events.EventDispatcher;
 import flash.events.StatusEvent;
 import flash.external.ExtensionContext;
 import flash.system.Capabilities;
+import flash.utils.ByteArray;
+import flash.utils.getTimer;
 
 public class AndroidYouTube extends EventDispatcher 
 {
+    /** Binary command opcodes (@see CommandProtocol.java) */
+    private static const OP_PLAY:int = 1;
+    private static const OP_PAUSE:int = 2;
+    private static const OP_STOP:int = 3;
+    private static const OP_SEEK:int = 4;
+    private static const OP_PLAY_BY_ID:int = 5;
+
+    /** playById start time resuming from the stored position (@see CommandProtocol.java) */
+    private static const TIME_RESUME:int = -1;
+
+    /** Batch status code (@see EventBatcher.java) */
+    private static const BATCH:String = "batch";
+
+    /** Binary command buffer (reused) */
+    private var commandBuffer:ByteArray = new ByteArray();
+
+    /** Native state buffer (reused) */
+    private var stateBuffer:ByteArray = new ByteArray();
+
+    /** Default player id (@see YouTubePlayerPool.java) */
+    public static const DEFAULT_PLAYER_ID:int = 0;
+
+    /** Last time anchor per player id: [position (ms), duration (ms), rate, local receipt time (ms)] */
+    private var anchors:Object = {};
+
     /** If not supported, this is reason */
     private var unsupportedReason:String;
     
@@ -46,10 +73,57 @@ public class AndroidYouTube extends EventDispatcher
     /**
      * Initialize the video player
      * @param devKey YouTube Developer Key @see https://developers.google.com/youtube/android/player/register
+     * @param playerId player to initialize. Each player id has its own native player, kept initialized until released or evicted
+     * @param lazy defer native view and player creation until the first command or prewarm, spread over idle UI thread time (the latest setFrame is applied when the views are created)
+     */
+    public function initVideo(devKey:String, playerId:int=DEFAULT_PLAYER_ID, lazy:Boolean=false):void
+    {
+        this.context.call("initVideo", devKey, playerId, lazy);
+    }
+    
+    /** Release a native player */
+    public function releasePlayer(playerId:int):void
+    {
+        if (!hasContext())
+            return;
+        this.context.call("releasePlayer", playerId);
+    }
+    
+    /** Set maximum number of native players kept initialized. Least recently used idle players are evicted ('playerEvicted' data message) */
+    public function setPlayerPoolSize(size:int):void
+    {
+        if (!hasContext())
+            return;
+        this.context.call("setPlayerPoolSize", size);
+    }
+    
+    /**
+     * Initialize the video player early (e.g. at app start), hidden offscreen until setFrame is called.
+     * A later initVideo call is then a no-op. Also starts creating a player initialized with lazy initVideo.
+     * Under memory pressure native players are released ('playerCold' data message) and restored, from the same
+     * video (or playlist item) and position and at the last frame set, by the next command or prewarm, or when the app
+     * returns to the foreground ('playerRestored' data message). 'playerReady' data message is sent when ready.
+     * @param devKey YouTube Developer Key
+     * @return true if the player is already ready
+     */
+    public function prewarm(devKey:String, playerId:int=DEFAULT_PLAYER_ID):Boolean
+    {
+        if (!hasContext())
+            return false;
+        return this.context.call("prewarm", devKey, playerId) == 1;
+    }
+    
+    /**
+     * Preload (cue) a video so a later playById of the same video starts from an already buffered state.
+     * Replaces any video currently loaded in the player.
+     * @param videoId YouTube video id
+     * @param startTime start time (seconds)
      */
-    public function initVideo(devKey:String):void
+    public function preloadVideo(videoId:String, startTime:Number=0, playerId:int=DEFAULT_PLAYER_ID):void
     {
-        this.context.call("initVideo", devKey);
+        if (!hasContext())
+            return;
+        this.context.call("preloadVideo", videoId, startTime, playerId);
     }
     
     /** is supported */
@@ -75,29 +149,228 @@ public class AndroidYouTube extends EventDispatcher
 	//
 	
     /** Load URL */
-    public function loadURL(url:String):void
+    public function loadURL(url:String, playerId:int=DEFAULT_PLAYER_ID):void
 	{
         if (!hasContext())
             return;
-		this.context.call("loadURL", url);
+		this.context.call("loadURL", url, playerId);
 	}
 	
 	/** call javascript */
-    public function sendJSON(json:String):Object
+    public function sendJSON(json:String, playerId:int=DEFAULT_PLAYER_ID):Object
 	{
         if (!hasContext())
             return null;
-		return this.context.call("sendJSON", json);
+		return this.context.call("sendJSON", json, playerId);
 	}
 
-	/** Set Frame */
-	public function setFrame(x:int,y:int,width:int,height:int):void
+	/** Send binary command (@see CommandProtocol.java for layout) */
+	public function sendCommand(bytes:ByteArray, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("sendCommand", bytes, playerId);
+	}
+	
+	/** Play */
+	public function play(playerId:int=DEFAULT_PLAYER_ID):void
+	{
+		writeCommand(playerId, OP_PLAY, 0);
+	}
+	
+	/** Pause */
+	public function pause(playerId:int=DEFAULT_PLAYER_ID):void
+	{
+		writeCommand(playerId, OP_PAUSE, 0);
+	}
+	
+	/** Stop */
+	public function stop(playerId:int=DEFAULT_PLAYER_ID):void
+	{
+		writeCommand(playerId, OP_STOP, 0);
+	}
+	
+	/** Seek to time (seconds). Seeks are throttled natively (@see setSeekWindow), the last target is always applied */
+	public function seek(time:Number, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+		writeCommand(playerId, OP_SEEK, int(time * 1000));
+	}
+	
+	/**
+	 * Play video by YouTube video id, starting at time (seconds).
+	 * Without startTime, resumes where the video was last paused or stopped (positions are stored natively, across sessions)
+	 */
+	public function playById(videoId:String, startTime:Number=NaN, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+		writeCommand(playerId, OP_PLAY_BY_ID, isNaN(startTime) ? TIME_RESUME : int(startTime * 1000), videoId);
+	}
+	
+	/**
+	 * Play a list of videos. The native player buffers ahead and advances without a round trip through
+	 * Actionscript: each advance sends a single {type:"advanced", index, videoId} message instead of an 'ended' state.
+	 * @param videoIds YouTube video ids (not empty)
+	 * @param startIndex index of first video to play
+	 * @param startTime start time in first video (seconds)
+	 * An empty video id or a startIndex outside videoIds is rejected with an error message, and nothing is played.
+	 */
+	public function loadPlaylist(videoIds:Array, startIndex:int=0, startTime:Number=0, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("loadPlaylist", videoIds.join(","), startIndex, startTime, playerId);
+	}
+	
+	/**
+	 * Configure time reporting
+	 * @param tickInterval interval between 'time' messages (ms)
+	 * @param resyncInterval maximum interval between native player position queries while playing (ms)
+	 * @param ticksEnabled send 'time' messages (only when the whole second changes)
+	 * @param anchorsEnabled send TIME_ANCHOR events, used by getCurrentTime() to interpolate locally
+	 */
+	public function setTimeReporting(tickInterval:int, resyncInterval:int, ticksEnabled:Boolean, anchorsEnabled:Boolean, playerId:int=DEFAULT_PLAYER_ID):void
 	{
         if (!hasContext())
             return;
-		this.context.call("setFrame",x,y,width,height);
+		this.context.call("setTimeReporting", tickInterval, resyncInterval, ticksEnabled, anchorsEnabled, playerId);
+	}
+	
+	/**
+	 * Enable or disable event batching. Batched events are unpacked and dispatched individually.
+	 * @param enabled batch events
+	 * @param flushInterval flush interval (ms), or 0 to flush once per frame
+	 */
+	public function setEventBatching(enabled:Boolean, flushInterval:int=0):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("setEventBatching", enabled, flushInterval);
+	}
+	
+	/**
+	 * Set seek throttle window. At most one seek per window reaches the player; seeks within the window are
+	 * coalesced and the latest target is applied when the window ends
+	 * @param window window (ms), 0 to apply every seek. Default 250
+	 */
+	public function setSeekWindow(window:int, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("setSeekWindow", window, playerId);
+	}
+	
+	/**
+	 * Set recovery policy for transient errors (network error, service disconnection). Playback is retried natively
+	 * from the last position with jittered exponential backoff; a 'playerRecovered' data message is sent once it
+	 * resumes, or the original error once retries are exhausted
+	 * @param maxAttempts retries per error, 0 to send errors immediately. Default 3
+	 * @param baseDelay delay (ms) before the first retry, doubled for each further retry. Default 500
+	 */
+	public function setRecoveryPolicy(maxAttempts:int, baseDelay:int, playerId:int=DEFAULT_PLAYER_ID):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("setRecoveryPolicy", maxAttempts, baseDelay, playerId);
+	}
+	
+	/** Current time (seconds), interpolated from the last time anchor */
+	public function getCurrentTime(playerId:int=DEFAULT_PLAYER_ID):Number
+	{
+		var anchor:Array = this.anchors[playerId];
+		if (anchor == null)
+			return 0;
+		var position:Number = anchor[0] + anchor[2] * (getTimer() - anchor[3]);
+		if (anchor[1] > 0 && position > anchor[1])
+		{
+			position = anchor[1];
+		}
+		return position / 1000;
+	}
+	
+	/**
+	 * Read player state (position, duration, state, buffering, last error) into state. Cheap enough to call every frame:
+	 * the native state is copied into a reused ByteArray, without JSON or events
+	 * @return false if the player does not exist (state is unchanged)
+	 */
+	public function readState(state:AndroidYouTubeState, playerId:int=DEFAULT_PLAYER_ID):Boolean
+	{
+        if (!hasContext())
+            return false;
+		this.stateBuffer.length = AndroidYouTubeState.SIZE;
+		if (int(this.context.call("readState", this.stateBuffer, playerId)) < 0)
+			return false;
+		state.read(this.stateBuffer);
+		return true;
+	}
+	
+	/** Duration (seconds), from the last time anchor */
+	public function getDuration(playerId:int=DEFAULT_PLAYER_ID):Number
+	{
+		var anchor:Array = this.anchors[playerId];
+		return anchor == null ? 0 : anchor[1] / 1000;
+	}
+	
+	/** Set Frame. Applied on the next display frame, so calling every frame (or several times per frame) is cheap */
+	public function setFrame(x:int,y:int,width:int,height:int,playerId:int=DEFAULT_PLAYER_ID):void
+	{
+        if (!hasContext())
+            return;
+		this.context.call("setFrame",x,y,width,height,playerId);
  	} 
 	
+    /**
+     * Get command-to-effect latency histograms for a player.
+     * Format: 'name:count,sum,max,b0 b1 ... bn' per histogram, separated by ';', followed by 'actions:merged,dropped',
+     * 'commands:rejected', the player state histograms, 'seeks:requested,applied', 'recovery:retries,recovered,failed',
+     * 'videos:hits,misses,size' (video metadata cache, shared by all players)
+     * and, once the player is initialized, 'frames:applied,dropped,skipped' (setFrame calls are applied at most once per display frame).
+     * Bucket upper bounds (ms): 1 2 5 10 20 50 100 200 500 1000 2000 5000 10000, last bucket unbounded.
+     * Histograms: startup, queueWait (command sent to run), execute, loaded (load or cue sent to video loaded), firstFrame, play, seek (final target of coalesced seeks sent to settled), stall,
+     * then time spent in each player state: INITIALIZING, PLAYER_INIT, READY, COLD, DISPOSING, DISPOSED,
+     * then recoveryTime (error to playback resumed)
+     * @return null if the player does not exist
+     */
+    public function getMetrics(playerId:int=DEFAULT_PLAYER_ID):String
+    {
+        if (!hasContext())
+            return null;
+        var metrics:Object=this.context.call("getMetrics", playerId);
+        return metrics!=null ? String(metrics) : null;
+    }
+
+    /**
+     * Get playback session summary for the current video, as JSON:
+     * {type:"session", videoId:id, join:ms (-1 if not yet playing), rebuffers:n, stall:ms, watched:ms, errors:{REASON:n}}
+     * The same message is also sent on the player message event when each video ends
+     * @return null if the player does not exist
+     */
+    public function getSession(playerId:int=DEFAULT_PLAYER_ID):String
+    {
+        if (!hasContext())
+            return null;
+        var session:Object=this.context.call("getSession", playerId);
+        return session!=null ? String(session) : null;
+    }
+    
+    /**
+     * Set native log levels (Android log levels: 2 verbose, 3 debug, 4 info, 5 warn, 6 error; 7 disables)
+     * @param logcatLevel minimum level written to logcat (default 5)
+     * @param recordLevel minimum level recorded for getLog() (default 5). Levels below the build's log.compiled.level are never logged
+     */
+    public function setLogLevel(logcatLevel:int, recordLevel:int):void
+    {
+        if (!hasContext())
+            return;
+        this.context.call("setLogLevel", logcatLevel, recordLevel);
+    }
+    
+    /** Get recent native log messages, oldest first, one per line: 'uptime level message' */
+    public function getLog():String
+    {
+        if (!hasContext())
+            return null;
+        return String(this.context.call("getLog"));
+    }
+    
     /** Get reason why YouTube video is not supported */
     public function getUnsupportedReason():String
     {
@@ -118,6 +391,22 @@ public class AndroidYouTube extends EventDispatcher
 		return Capabilities.manufacturer.indexOf('Android') > -1;
 	}
     
+    /** Encode and send a binary command */
+    private function writeCommand(playerId:int, opcode:int, timeMillis:int, videoId:String=null):void
+    {
+        this.commandBuffer.position = 0;
+        this.commandBuffer.length = 0;
+        this.commandBuffer.writeByte(opcode);
+        this.commandBuffer.writeInt(timeMillis);
+        if (videoId != null)
+        {
+            this.commandBuffer.writeByte(videoId.length);
+            this.commandBuffer.writeUTFBytes(videoId);
+        }
+        this.commandBuffer.position = 0;
+        sendCommand(this.commandBuffer, playerId);
+    }
+    
     /** Context is ready */
     private function hasContext():Boolean
     {
@@ -134,7 +423,56 @@ public class AndroidYouTube extends EventDispatcher
         trace("[AndroidYouTube] onStatusEvent(" + e + ")");
 		var type:String = e.code;
 		var reason:String = e.level;
-		dispatchEvent(new AndroidYouTubeEvent(type, reason));
+		if (type == BATCH)
+		{
+			onBatch(reason);
+			return;
+		}
+		dispatchStatus(type, reason);
+	}
+	
+	/** Dispatch a single status. Types of events from players other than the default are tagged '<type>@<playerId>' */
+	private function dispatchStatus(type:String, reason:String):void
+	{
+		var playerId:int = DEFAULT_PLAYER_ID;
+		var tag:int = type.indexOf("@");
+		if (tag > -1)
+		{
+			playerId = int(type.substr(tag + 1));
+			type = type.substr(0, tag);
+		}
+		if (type == AndroidYouTubeEvent.TIME_ANCHOR)
+		{
+			onTimeAnchor(reason, playerId);
+		}
+		dispatchEvent(new AndroidYouTubeEvent(type, reason, false, false, playerId));
+	}
+	
+	/** On batch of events ('<type length>:<type><reason length>:<reason>' per event) */
+	private function onBatch(batch:String):void
+	{
+		var pos:int = 0;
+		while (pos < batch.length)
+		{
+			var sep:int = batch.indexOf(":", pos);
+			var len:int = int(batch.substring(pos, sep));
+			var type:String = batch.substr(sep + 1, len);
+			pos = sep + 1 + len;
+			
+			sep = batch.indexOf(":", pos);
+			len = int(batch.substring(pos, sep));
+			var reason:String = batch.substr(sep + 1, len);
+			pos = sep + 1 + len;
+			
+			dispatchStatus(type, reason);
+		}
+	}
+	
+	/** On time anchor ('position,duration,rate') */
+	private function onTimeAnchor(anchor:String, playerId:int):void
+	{
+		var values:Array = anchor.split(",");
+		this.anchors[playerId] = [int(values[0]), int(values[1]), int(values[2]), getTimer()];
 	}
 	
 }
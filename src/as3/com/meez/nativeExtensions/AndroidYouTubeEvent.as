@@ -15,30 +15,35 @@ public class AndroidYouTubeEvent extends Event
 	public static const LOAD_FAILED:String="loadFailed";
 	public static const MESSAGE:String="message";
 	public static const VIDEO_ERROR:String="videoError";
+	public static const TIME_ANCHOR:String="timeAnchor";
  	
 	public var value:String;
 	
+	/** Player id of the native player that sent this event */
+	public var playerId:int;
+	
 	//
 	// Public Methods
 	//
 	
 	/** Create new AndroidWebViewEvent */
-	public function AndroidYouTubeEvent(type:String, value:String, bubbles:Boolean=false, cancelable:Boolean=false) 
+	public function AndroidYouTubeEvent(type:String, value:String, bubbles:Boolean=false, cancelable:Boolean=false, playerId:int=0) 
 	{ 
 		this.value = value;
+		this.playerId = playerId;
 		super(type, bubbles, cancelable);
 	} 
 	
 	/** clone */
 	public override function clone():Event 
 	{ 
-		return new AndroidYouTubeEvent(type, value, bubbles, cancelable);
+		return new AndroidYouTubeEvent(type, value, bubbles, cancelable, playerId);
 	} 
 	
 	/** To String */
 	public override function toString():String 
 	{ 
-		return formatToString("AndroidYouTubeEvent", "type", "value", "bubbles", "cancelable", "eventPhase"); 
+		return formatToString("AndroidYouTubeEvent", "type", "value", "playerId", "bubbles", "cancelable", "eventPhase"); 
 	}
 	
 }
@@ -0,0 +1,67 @@
+package com.meez.nativeExtensions 
+{
+	
+import flash.utils.ByteArray;
+
+/** Player state, polled with AndroidYouTube.readState (@see StateBuffer.java for layout) */
+public class AndroidYouTubeState 
+{
+	//
+	// Definitions
+	//
+	
+	/** Size of native state (bytes) */
+	public static const SIZE:int=24;
+	
+	/** States */
+	public static const STATE_UNKNOWN:int=0;
+	public static const STATE_UNSTARTED:int=1;
+	public static const STATE_ENDED:int=2;
+	public static const STATE_PLAYING:int=3;
+	public static const STATE_PAUSED:int=4;
+	public static const STATE_BUFFERING:int=5;
+	public static const STATE_CUED:int=6;
+	
+	/** Incremented natively on every update */
+	public var sequence:int;
+	
+	/** State (STATE_*) */
+	public var state:int;
+	
+	/** Position (ms) at the time of the read */
+	public var position:int;
+	
+	/** Duration (ms), 0 if unknown */
+	public var duration:int;
+	
+	/** Is buffering */
+	public var buffering:Boolean;
+	
+	/** Code of last error since the video was loaded, 0 if none */
+	public var errorCode:int;
+	
+	//
+	// Public Methods
+	//
+	
+	/** Read from native state bytes */
+	public function read(bytes:ByteArray):void
+	{
+		bytes.position = 0;
+		this.sequence = bytes.readInt();
+		this.state = bytes.readInt();
+		this.position = bytes.readInt();
+		this.duration = bytes.readInt();
+		this.buffering = bytes.readInt() != 0;
+		this.errorCode = bytes.readInt();
+	}
+	
+	/** To String */
+	public function toString():String 
+	{ 
+		return "[AndroidYouTubeState sequence=" + sequence + " state=" + state + " position=" + position + " duration=" + duration + " buffering=" + buffering + " errorCode=" + errorCode + "]"; 
+	}
+	
+}
+	
+}